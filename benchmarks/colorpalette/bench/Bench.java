@@ -0,0 +1,67 @@
+package colorpalette.bench;
+/*
+ * The Bench class runs the timing loops shared by the benchmarks in this
+ * package. The benchmarks are plain main classes, so they can be run with
+ * nothing but the library classes on the class path (see the benchmark
+ * target of the Ant build file). Each loop is run a few times to warm up
+ * the JIT compiler, then timed, and the best timed round is reported.
+ */
+final class Bench {
+  /* The number of rounds run before timing starts */
+  final private static int    WARMUP_ROUNDS = 5;
+  /* The number of timed rounds */
+  final private static int    TIMED_ROUNDS = 5;
+  /*
+   * A value the timed loops add their results to, so that the JIT
+   * compiler can not drop the work as dead code
+   */
+  static volatile long        sink;
+  /*
+   * One timed loop. The run method does a number of operations and
+   * returns how many it did.
+   */
+  interface Loop {
+    long run();
+  }
+  /* The Bench class only has static methods */
+  private Bench() {
+  }
+  /*
+   * Run a loop for the warm up rounds and the timed rounds, then print
+   * the best time per operation and the number of operations per second
+   */
+  static void time(String name, Loop loop) {
+    long    best = Long.MAX_VALUE;
+    long    ops = 0;
+    long    start;
+    long    elapsed;
+    for(int i = 0; i < WARMUP_ROUNDS; i++)
+      loop.run();
+    for(int i = 0; i < TIMED_ROUNDS; i++) {
+      start = System.nanoTime();
+      ops = loop.run();
+      elapsed = System.nanoTime() - start;
+      if (elapsed < best)
+        best = elapsed;
+    }
+    System.out.printf("%-40s %12.1f ns/op %14.0f ops/s%n", name, 
+                      (double) best / ops, ops * 1e9 / best);
+  }
+  /*
+   * Get the number of bytes in use on the heap, after asking for a
+   * garbage collection a few times
+   */
+  static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for(int i = 0; i < 4; i++) {
+      System.gc();
+      try {
+        Thread.sleep(50);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
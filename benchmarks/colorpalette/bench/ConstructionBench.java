@@ -0,0 +1,52 @@
+package colorpalette.bench;
+import colorpalette.*;
+/*
+ * The ConstructionBench class measures how long it takes to build a color
+ * palette, and how much heap each color palette keeps. The name and RGB
+ * lookup structures are shared by every color palette, so both numbers
+ * should only cover the free color state of each palette.
+ */
+public final class ConstructionBench {
+  /* The number of color palettes built in each timed round */
+  final private static int    PALETTES = 10000;
+  /* The number of color palettes kept alive to measure the heap they use */
+  final private static int    RETAINED = 2000;
+  /* The ConstructionBench class is only run from the command line */
+  private ConstructionBench() {
+  }
+  /**
+   * Run the benchmark and print the results
+   * 
+   * @param args not used
+   */
+  public static void main(String args[]) {
+    ColorPalette  kept[] = new ColorPalette[RETAINED];
+    long          before;
+    long          after;
+    Bench.time("new ColorPalette()", new Bench.Loop() {
+      public long run() {
+        long  total = 0;
+        for(int i = 0; i < PALETTES; i++)
+          total += new ColorPalette().colorsLeft();
+        Bench.sink += total;
+        return PALETTES;
+      }
+    });
+    Bench.time("new ConcurrentColorPalette()", new Bench.Loop() {
+      public long run() {
+        long  total = 0;
+        for(int i = 0; i < PALETTES; i++)
+          total += new ConcurrentColorPalette().colorsLeft();
+        Bench.sink += total;
+        return PALETTES;
+      }
+    });
+    before = Bench.usedHeap();
+    for(int i = 0; i < RETAINED; i++)
+      kept[i] = new ColorPalette();
+    after = Bench.usedHeap();
+    System.out.printf("%-40s %12d bytes%n", "retained heap per ColorPalette", 
+                      (after - before) / RETAINED);
+    Bench.sink += kept.length;
+  }
+}
@@ -0,0 +1,93 @@
+package colorpalette.bench;
+import colorpalette.*;
+import java.util.Random;
+/*
+ * The DistanceBench class measures the CIELAB color differences: the
+ * CIE76 and CIEDE2000 formulas on arbitrary sRGB values (which have to be
+ * converted through the lookup tables), the conversion itself, and the
+ * nearest color searches that use each metric. The target for the color
+ * differences is millions of evaluations per second on one core.
+ */
+public final class DistanceBench {
+  /* The number of random RGB values the loops cycle through */
+  final private static int    VALUES = 1 << 12;
+  /* The number of color differences measured in each timed round */
+  final private static int    DISTANCES = 2000000;
+  /*
+   * The number of nearest color searches in each timed round. CIEDE2000
+   * searches check every color, so they run fewer searches.
+   */
+  final private static int    SEARCHES = 200000;
+  final private static int    SLOW_SEARCHES = 2000;
+  /* The DistanceBench class is only run from the command line */
+  private DistanceBench() {
+  }
+  /**
+   * Run the benchmark and print the results
+   * 
+   * @param args not used
+   */
+  public static void main(String args[]) {
+    final int           rgb[] = new int[VALUES];
+    final float         lab[] = new float[3];
+    final ColorPalette  palette = new ColorPalette();
+    Random              random = new Random(1);
+    for(int i = 0; i < VALUES; i++)
+      rgb[i] = random.nextInt(0x1000000);
+    Bench.time("ColorDistance.toLab", new Bench.Loop() {
+      public long run() {
+        float total = 0;
+        for(int i = 0; i < DISTANCES; i++) {
+          ColorDistance.toLab(rgb[i & (VALUES - 1)], lab, 0);
+          total += lab[0];
+        }
+        Bench.sink += (long) total;
+        return DISTANCES;
+      }
+    });
+    Bench.time("ColorDistance.rgbDistance", new Bench.Loop() {
+      public long run() {
+        double total = 0;
+        for(int i = 0; i < DISTANCES; i++)
+          total += ColorDistance.rgbDistance(rgb[i & (VALUES - 1)], 
+                                             rgb[(i + 1) & (VALUES - 1)]);
+        Bench.sink += (long) total;
+        return DISTANCES;
+      }
+    });
+    Bench.time("ColorDistance.deltaE76", new Bench.Loop() {
+      public long run() {
+        double total = 0;
+        for(int i = 0; i < DISTANCES; i++)
+          total += ColorDistance.deltaE76(rgb[i & (VALUES - 1)], 
+                                          rgb[(i + 1) & (VALUES - 1)]);
+        Bench.sink += (long) total;
+        return DISTANCES;
+      }
+    });
+    Bench.time("ColorDistance.deltaE2000", new Bench.Loop() {
+      public long run() {
+        double total = 0;
+        for(int i = 0; i < DISTANCES; i++)
+          total += ColorDistance.deltaE2000(rgb[i & (VALUES - 1)], 
+                                            rgb[(i + 1) & (VALUES - 1)]);
+        Bench.sink += (long) total;
+        return DISTANCES;
+      }
+    });
+    for(final ColorDistance.Metric metric : ColorDistance.Metric.values()) {
+      final int searches = metric == ColorDistance.Metric.DELTA_E2000 ? 
+                           SLOW_SEARCHES : SEARCHES;
+      Bench.time("nearestColor " + metric, new Bench.Loop() {
+        public long run() {
+          long total = 0;
+          for(int i = 0; i < searches; i++)
+            total += palette.nearestColor(rgb[i & (VALUES - 1)], 
+                                          ColorPalette.Scope.ALL, metric);
+          Bench.sink += total;
+          return searches;
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package colorpalette.bench;
+import colorpalette.*;
+/*
+ * The PolicyBench class compares the cost of the get next color policies.
+ * Each round pulls every color from the pool and returns them all, so
+ * both the pull path and the return path of the distinct tracker are
+ * measured. The CVD safe policy should cost no more than the distinct
+ * policy.
+ */
+public final class PolicyBench {
+  /* The number of times every color is pulled and returned in a round */
+  final private static int    CYCLES = 4;
+  /* The PolicyBench class is only run from the command line */
+  private PolicyBench() {
+  }
+  /**
+   * Run the benchmark and print the results
+   * 
+   * @param args not used
+   */
+  public static void main(String args[]) {
+    for(ColorPalette.Policy policy : ColorPalette.Policy.values()) {
+      final ColorPalette  palette = new ColorPalette();
+      final int           taken[] = new int[palette.colorsLeft()];
+      palette.setPolicy(policy);
+      Bench.time("nextColor + release " + policy, new Bench.Loop() {
+        public long run() {
+          int   count;
+          long  total = 0;
+          for(int c = 0; c < CYCLES; c++) {
+            count = 0;
+            while (palette.colorsLeft() > 0)
+              taken[count++] = palette.nextColor();
+            for(int i = 0; i < count; i++) {
+              total += taken[i];
+              palette.release(taken[i]);
+            }
+          }
+          Bench.sink += total;
+          return (long) CYCLES * taken.length;
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,660 @@
+package colorpalette;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+/**
+ * The ColorAssigner class assigns colors from a color palette to objects
+ * that are tracked from frame to frame, such as the blobs found by a blob
+ * tracker. Each object has an int ID and a position. Objects that are
+ * closer together than a given radius are neighbours, and each new object
+ * gets the color that is farthest (in CIELAB) from the colors of its
+ * neighbours. That color is found with the CIELAB k-d tree of the color
+ * table, which skips whole blocks of colors that are too close to a
+ * neighbour color, rather than by checking every color.
+ * Objects keep their colors for as long as they live, so colors never
+ * change on screen.
+ * <p>
+ * Each frame, the objects that died are removed (which puts their colors
+ * back into the pool), the objects that survived are moved and the new
+ * objects are added. Then {@link #assign()} colors the new objects in one
+ * pass. The new objects with the most neighbours are colored first, since
+ * they have the fewest good choices. The {@link #update} method does all
+ * of this with one call. The positions are kept in a uniform grid with
+ * cells as wide as the radius, so finding the neighbours of an object only
+ * looks at the nine cells around it. Colors are pulled from the pool (and
+ * returned to the pool) with the same rules as the other methods of the
+ * color palette. If the color palette is in shared mode, a busy color can
+ * be used for more than one object, which lets thousands of objects share
+ * a palette of a few hundred colors. In that case, the colors of nearby
+ * objects are kept apart and far away objects may share colors.
+ * <p>
+ * Storage for objects is kept and reused, so a frame only allocates
+ * storage when there are more objects than ever before. The methods of
+ * this class are not thread-safe.
+ *
+ * @author      ##author##
+ * @version     ##library.prettyVersion##
+ * @since       ##date##
+ */
+public final class ColorAssigner {
+  /* The value used for objects that have no color and empty links */
+  final private static int NONE = -1;
+  /* The ways an ID can occur in one call of the update method */
+  final private static int DYING = 1;
+  final private static int SURVIVING = 2;
+  final private static int ADDED = 3;
+  final private static int DYING_ADDED = 4;
+  /* The color palette that supplies the colors */
+  private final ColorPalette palette;
+  /* The color table of the color palette */
+  private final ColorTable table;
+  /* The CIELAB values of the colors (three per color) */
+  private final float lab[];
+  /* The k-d tree over the CIELAB values of the colors */
+  private final ColorKdTree tree;
+  /* The width of a grid cell, which is the neighbour radius */
+  private final float radius;
+  /*
+   * The arrays below hold the objects, one slot per object. Slots of dead
+   * objects are chained together through the next array for reuse.
+   */
+  private int   ids[] = new int[0];
+  private float xs[] = new float[0];
+  private float ys[] = new float[0];
+  /* The color number of each object, or NONE */
+  private int   colors[] = new int[0];
+  /* The grid bucket that holds each object */
+  private int   buckets[] = new int[0];
+  /* The links between the objects in the same grid bucket */
+  private int   next[] = new int[0];
+  private int   prev[] = new int[0];
+  /* The position of each object in the pending list, or NONE */
+  private int   pendingAt[] = new int[0];
+  /* The first free slot, or NONE */
+  private int   freeSlot = NONE;
+  /* The number of slots in use (live or free) */
+  private int   slotsUsed;
+  /* The number of live objects */
+  private int   count;
+  /* The first object in each grid bucket, or NONE */
+  private int   heads[] = new int[0];
+  /*
+   * The ID map below is an open addressing hash table from object IDs to
+   * slots. The values are slot numbers plus one, so zero marks an empty
+   * entry and any int can be an object ID.
+   */
+  private int   mapKeys[] = new int[0];
+  private int   mapValues[] = new int[0];
+  /* The objects that have no color yet */
+  private int   pending[] = new int[0];
+  private int   pendingCount;
+  /* The sort keys used to order the pending objects */
+  private long  order[] = new long[0];
+  /* The neighbour colors of one object, and a mark for each color */
+  private final int   near[];
+  private final int   marks[];
+  private int   stamp;
+  /* The CIELAB values of the neighbour colors of one object */
+  private final float nearLab[];
+  /* The grid buckets already searched for one object */
+  private final int   seen[] = new int[9];
+  /* The bitmap words of the colors that may be pulled from the pool */
+  private final long  claimable[];
+  /* The block bounds used by the farthest color search */
+  private final float bounds[];
+  /*
+   * The arrays below are an open addressing hash table from object IDs
+   * to the way each ID occurs in one call of the update method. An entry
+   * is in use if its stamp is the current stamp, so the table never has
+   * to be cleared.
+   */
+  private int   checkKeys[] = new int[0];
+  private int   checkKinds[] = new int[0];
+  private int   checkStamps[] = new int[0];
+  private int   checkStamp;
+  /**
+   * Create a color assigner that takes its colors from a color palette.
+   * Objects that are closer together than the radius are neighbours. The
+   * radius is in the same units as the positions of the objects (pixels,
+   * for example).
+   *
+   * @param palette the color palette that supplies the colors
+   * @param radius  the distance within which objects are neighbours
+   * @exception     NullPointerException if the color palette is null
+   * @exception     IllegalArgumentException if the radius is not a
+   *                positive number
+   */
+  public ColorAssigner(ColorPalette palette, float radius) {
+    if (palette == null)
+      throw new NullPointerException("Null color palette passed " +
+                                     "to color assigner constructor");
+    if (!(radius > 0) || Float.isInfinite(radius))
+      throw new IllegalArgumentException("Invalid radius passed to " +
+                                         "color assigner constructor - " + radius);
+    this.palette = palette;
+    this.radius = radius;
+    table = palette.colorTable();
+    lab = table.lab();
+    tree = table.labTree();
+    claimable = new long[(table.size + 63) >>> 6];
+    bounds = new float[tree.blocks()];
+    near = new int[table.size];
+    marks = new int[table.size];
+    nearLab = new float[table.size * 3];
+    grow(16);
+  }
+  /**
+   * Get the number of objects.
+   *
+   * @return     the number of objects
+   */
+  public int size() {
+    return count;
+  }
+  /**
+   * Get the number of objects that have no color yet. These objects are
+   * colored by the next call to {@link #assign()}, if any colors are
+   * available by then.
+   *
+   * @return     the number of objects without a color
+   */
+  public int pending() {
+    return pendingCount;
+  }
+  /**
+   * Check if there is an object with a given ID.
+   *
+   * @param id   the object ID
+   * @return     true if there is an object with the ID
+   */
+  public boolean contains(int id) {
+    return find(id) != NONE;
+  }
+  /**
+   * Get the color of an object, or {@link ColorPalette#NO_COLOR} if the
+   * object has no color yet. Note that the alpha channel of a color will
+   * always be set to 255.
+   *
+   * @param id   the object ID
+   * @return     the color in ARGB format or {@link ColorPalette#NO_COLOR}
+   * @exception  NoSuchElementException if there is no object with the ID
+   */
+  public int colorOf(int id) {
+    int       slot = slotOf(id, "color of");
+    return colors[slot] == NONE ? ColorPalette.NO_COLOR : table.rgb[colors[slot]] | 0xff000000;
+  }
+  /**
+   * Add a new object. The object has no color until the next call to
+   * {@link #assign()}.
+   *
+   * @param id   the object ID
+   * @param x    the x position of the object
+   * @param y    the y position of the object
+   * @exception  IllegalArgumentException if there already is an object
+   *             with the ID
+   */
+  public void add(int id, float x, float y) {
+    int       slot;
+    if (find(id) != NONE)
+      throw new IllegalArgumentException("Duplicate object ID passed to " +
+                                         "add routine - " + id);
+    if (freeSlot == NONE && slotsUsed == ids.length)
+      grow(ids.length * 2);
+    if (freeSlot != NONE) {
+      slot = freeSlot;
+      freeSlot = next[slot];
+    }
+    else
+      slot = slotsUsed++;
+    ids[slot] = id;
+    colors[slot] = NONE;
+    xs[slot] = x;
+    ys[slot] = y;
+    link(slot);
+    mapPut(id, slot);
+    pendingAt[slot] = pendingCount;
+    pending[pendingCount++] = slot;
+    count++;
+  }
+  /**
+   * Move an object. The color of the object does not change.
+   *
+   * @param id   the object ID
+   * @param x    the new x position of the object
+   * @param y    the new y position of the object
+   * @exception  NoSuchElementException if there is no object with the ID
+   */
+  public void move(int id, float x, float y) {
+    int       slot = slotOf(id, "move");
+    int       bucket = bucket(cell(x), cell(y));
+    xs[slot] = x;
+    ys[slot] = y;
+    if (bucket != buckets[slot]) {
+      unlink(slot);
+      link(slot);
+    }
+  }
+  /**
+   * Remove an object. The color of the object (if it has one) is returned
+   * to the pool of the color palette.
+   *
+   * @param id   the object ID
+   * @exception  NoSuchElementException if there is no object with the ID
+   */
+  public void remove(int id) {
+    int       slot = slotOf(id, "remove");
+    int       last;
+    if (colors[slot] != NONE)
+      palette.release(table.rgb[colors[slot]]);
+    if (pendingAt[slot] != NONE) {
+      last = pending[--pendingCount];
+      pending[pendingAt[slot]] = last;
+      pendingAt[last] = pendingAt[slot];
+      pendingAt[slot] = NONE;
+    }
+    unlink(slot);
+    mapRemove(id);
+    next[slot] = freeSlot;
+    freeSlot = slot;
+    count--;
+  }
+  /**
+   * Remove every object. The colors of the objects are returned to the
+   * pool of the color palette.
+   */
+  public void clear() {
+    for(int i = 0; i < slotsUsed; i++) {
+      if (buckets[i] != NONE)
+        remove(ids[i]);
+    }
+  }
+  /**
+   * Give a color to each object that has no color yet. The objects with
+   * the most neighbours are colored first. Each object gets the color that
+   * can be pulled from the pool and is farthest from the colors of its
+   * neighbours. An object with no colored neighbours gets the color that
+   * the policy of the color palette picks next. Objects that can not get a
+   * color, because the pool is empty, are left without one and are tried
+   * again by the next call. The number of objects colored is returned.
+   *
+   * @return     the number of objects colored
+   */
+  public int assign() {
+    int       colored = 0;
+    int       total = pendingCount;
+    int       slot;
+    palette.expireLeases();
+    if (order.length < total)
+      order = new long[pending.length];
+    /* Most constrained first: sort by neighbour count, highest first */
+    for(int i = 0; i < total; i++)
+      order[i] = (long) (Integer.MAX_VALUE - neighbours(pending[i], false)) << 32 | pending[i];
+    Arrays.sort(order, 0, total);
+    for(int i = 0; i < total; i++) {
+      slot = (int) order[i];
+      colors[slot] = choose(slot);
+      if (colors[slot] == NONE)
+        continue;
+      pending[pendingAt[slot]] = NONE;
+      pendingAt[slot] = NONE;
+      colored++;
+    }
+    /* Pack the objects that are still pending */
+    pendingCount = 0;
+    for(int i = 0; i < total; i++) {
+      slot = pending[i];
+      if (slot != NONE) {
+        pendingAt[slot] = pendingCount;
+        pending[pendingCount++] = slot;
+      }
+    }
+    return colored;
+  }
+  /**
+   * Handle one frame. The objects that died are removed first, which puts
+   * their colors back into the pool. Then the objects that survived are
+   * moved, the new objects are added and {@link #assign()} is called. The
+   * colors of the new objects are stored in the output array, in the same
+   * order as the new object IDs, with {@link ColorPalette#NO_COLOR} for a
+   * new object that could not get a color. Positions are passed as x, y
+   * pairs. The number of objects colored is returned.
+   * <p>
+   * Every ID is checked before any object is changed, so an exception
+   * leaves the objects (and the color pool) unchanged. An ID can only
+   * occur once in the objects that died and survived. The ID of an object
+   * that died can be used again for a new object.
+   *
+   * @param dying       the IDs of the objects that died
+   * @param surviving   the IDs of the objects that survived
+   * @param survivingXy the new positions of the objects that survived
+   * @param added       the IDs of the new objects
+   * @param addedXy     the positions of the new objects
+   * @param out         the array that receives the colors of the new
+   *                    objects in ARGB format
+   * @return            the number of objects colored
+   * @exception         NullPointerException if any array is null
+   * @exception         IllegalArgumentException if an array of positions
+   *                    is too short, the output array is too short, a
+   *                    new object ID is already in use or an ID occurs
+   *                    more than once
+   * @exception         NoSuchElementException if an object that died or
+   *                    survived is unknown
+   */
+  public int update(int dying[], int surviving[], float survivingXy[],
+                    int added[], float addedXy[], int out[]) {
+    int       colored;
+    if (dying == null || surviving == null || survivingXy == null ||
+        added == null || addedXy == null || out == null)
+      throw new NullPointerException("Null array passed " +
+                                     "to update routine");
+    if (survivingXy.length < surviving.length * 2 ||
+        addedXy.length < added.length * 2 || out.length < added.length)
+      throw new IllegalArgumentException("Array too short passed to " +
+                                         "update routine");
+    check(dying, surviving, added);
+    for(int i = 0; i < dying.length; i++)
+      remove(dying[i]);
+    for(int i = 0; i < surviving.length; i++)
+      move(surviving[i], survivingXy[i * 2], survivingXy[i * 2 + 1]);
+    for(int i = 0; i < added.length; i++)
+      add(added[i], addedXy[i * 2], addedXy[i * 2 + 1]);
+    colored = assign();
+    for(int i = 0; i < added.length; i++)
+      out[i] = colorOf(added[i]);
+    return colored;
+  }
+  /*
+   * Check the IDs passed to the update method before anything is changed.
+   * The objects that die or survive must exist and each ID may only occur
+   * once. A new object ID must not be in use, unless the object with the
+   * ID dies, and may only occur once among the new objects.
+   */
+  private void check(int dying[], int surviving[], int added[]) {
+    int       kind;
+    startCheck(dying.length + surviving.length + added.length);
+    for(int i = 0; i < dying.length; i++) {
+      slotOf(dying[i], "update");
+      if (checkPut(dying[i], DYING) != 0)
+        throw new IllegalArgumentException("Duplicate object ID passed to " +
+                                           "update routine - " + dying[i]);
+    }
+    for(int i = 0; i < surviving.length; i++) {
+      slotOf(surviving[i], "update");
+      if (checkPut(surviving[i], SURVIVING) != 0)
+        throw new IllegalArgumentException("Duplicate object ID passed to " +
+                                           "update routine - " + surviving[i]);
+    }
+    for(int i = 0; i < added.length; i++) {
+      kind = checkPut(added[i], ADDED);
+      if (kind == DYING)
+        checkPut(added[i], DYING_ADDED);
+      else if (kind != 0 || find(added[i]) != NONE)
+        throw new IllegalArgumentException("Duplicate object ID passed to " +
+                                           "update routine - " + added[i]);
+    }
+  }
+  /*
+   * Empty the ID check table, making room for a number of IDs
+   */
+  private void startCheck(int size) {
+    int       capacity = 16;
+    while (capacity < size * 2)
+      capacity *= 2;
+    if (checkKeys.length < capacity) {
+      checkKeys = new int[capacity];
+      checkKinds = new int[capacity];
+      checkStamps = new int[capacity];
+      checkStamp = 0;
+    }
+    if (++checkStamp == 0) {
+      Arrays.fill(checkStamps, 0);
+      checkStamp = 1;
+    }
+  }
+  /*
+   * Put an ID into the ID check table. If the ID is already there, its
+   * kind is only changed from DYING to DYING_ADDED. The kind the ID had
+   * before is returned, or zero if the ID was not in the table.
+   */
+  private int checkPut(int id, int kind) {
+    int       mask = checkKeys.length - 1;
+    int       hash = id * 0x9e3779b9;
+    int       old;
+    for(int i = (hash ^ hash >>> 16) & mask; ; i = (i + 1) & mask) {
+      if (checkStamps[i] != checkStamp) {
+        checkStamps[i] = checkStamp;
+        checkKeys[i] = id;
+        checkKinds[i] = kind;
+        return 0;
+      }
+      if (checkKeys[i] == id) {
+        old = checkKinds[i];
+        if (kind == DYING_ADDED)
+          checkKinds[i] = kind;
+        return old;
+      }
+    }
+  }
+  /*
+   * Pick and pull from the pool the color for one object, by color number,
+   * or return NONE if no color is available
+   */
+  private int choose(int slot) {
+    int       found = neighbours(slot, true);
+    int       best;
+    int       argb;
+    if (found == 0) {
+      argb = palette.nextColor();
+      if (argb != ColorPalette.NO_COLOR)
+        return table.indexOfRgb(argb & 0xffffff);
+      best = leastHeld();
+    }
+    else {
+      for(int j = 0; j < found; j++) {
+        nearLab[j * 3] = lab[near[j] * 3];
+        nearLab[j * 3 + 1] = lab[near[j] * 3 + 1];
+        nearLab[j * 3 + 2] = lab[near[j] * 3 + 2];
+      }
+      palette.claimableWords(claimable);
+      best = tree.farthest(nearLab, found, claimable, bounds);
+    }
+    if (best != NONE && palette.claim(best) == ColorPalette.NO_COLOR)
+      return NONE;
+    return best;
+  }
+  /*
+   * Get the color that can be pulled from the pool and has the fewest
+   * holders, or NONE if there is no such color. This is only used for an
+   * object with no colored neighbours when the pool has no free colors,
+   * so in shared mode it spreads such objects over the colors.
+   */
+  private int leastHeld() {
+    int       best = NONE;
+    int       bestHolders = Integer.MAX_VALUE;
+    int       holders;
+    for(int i = 0; i < table.size; i++) {
+      holders = palette.claimable(i);
+      if (holders >= 0 && holders < bestHolders) {
+        best = i;
+        bestHolders = holders;
+      }
+    }
+    return best;
+  }
+  /*
+   * Count the neighbours of an object. If the colors are wanted, the
+   * distinct colors of the colored neighbours are stored in the near
+   * array and their number is returned instead.
+   */
+  private int neighbours(int slot, boolean wantColors) {
+    int       cx = cell(xs[slot]);
+    int       cy = cell(ys[slot]);
+    int       found = 0;
+    int       seenCount = 0;
+    int       bucket;
+    float     limit = radius * radius;
+    boolean   done;
+    if (wantColors && ++stamp == 0) {
+      Arrays.fill(marks, 0);
+      stamp = 1;
+    }
+    for(int dx = -1; dx <= 1; dx++) {
+      for(int dy = -1; dy <= 1; dy++) {
+        /* Different cells can share a bucket, which is only searched once */
+        bucket = bucket(cx + dx, cy + dy);
+        done = false;
+        for(int k = 0; k < seenCount; k++)
+          done |= seen[k] == bucket;
+        if (done)
+          continue;
+        seen[seenCount++] = bucket;
+        for(int other = heads[bucket]; other != NONE; other = next[other]) {
+          if (other == slot ||
+              square(xs[other] - xs[slot]) + square(ys[other] - ys[slot]) > limit)
+            continue;
+          if (!wantColors)
+            found++;
+          else if (colors[other] != NONE && marks[colors[other]] != stamp) {
+            marks[colors[other]] = stamp;
+            near[found++] = colors[other];
+          }
+        }
+      }
+    }
+    return found;
+  }
+  /*
+   * Get the grid cell coordinate for a position
+   */
+  private int cell(float value) {
+    return (int) Math.floor(value / radius);
+  }
+  /*
+   * Get the grid bucket for a grid cell
+   */
+  private int bucket(int cx, int cy) {
+    int       hash = ((cx * 0x9e3779b9) ^ (cy * 0x85ebca6b)) * 0xc2b2ae35;
+    return (hash ^ hash >>> 16) & (heads.length - 1);
+  }
+  /*
+   * Add an object to the grid bucket for its position
+   */
+  private void link(int slot) {
+    int       bucket = bucket(cell(xs[slot]), cell(ys[slot]));
+    buckets[slot] = bucket;
+    prev[slot] = NONE;
+    next[slot] = heads[bucket];
+    if (heads[bucket] != NONE)
+      prev[heads[bucket]] = slot;
+    heads[bucket] = slot;
+  }
+  /*
+   * Take an object out of its grid bucket
+   */
+  private void unlink(int slot) {
+    if (prev[slot] != NONE)
+      next[prev[slot]] = next[slot];
+    else
+      heads[buckets[slot]] = next[slot];
+    if (next[slot] != NONE)
+      prev[next[slot]] = prev[slot];
+    buckets[slot] = NONE;
+  }
+  /*
+   * Make room for a number of object slots. The grid and the ID map are
+   * rebuilt with twice as many entries as slots.
+   */
+  private void grow(int capacity) {
+    int       live[];
+    ids = Arrays.copyOf(ids, capacity);
+    xs = Arrays.copyOf(xs, capacity);
+    ys = Arrays.copyOf(ys, capacity);
+    colors = Arrays.copyOf(colors, capacity);
+    buckets = Arrays.copyOf(buckets, capacity);
+    next = Arrays.copyOf(next, capacity);
+    prev = Arrays.copyOf(prev, capacity);
+    pendingAt = Arrays.copyOf(pendingAt, capacity);
+    pending = Arrays.copyOf(pending, capacity);
+    heads = new int[capacity * 2];
+    mapKeys = new int[capacity * 2];
+    mapValues = new int[capacity * 2];
+    Arrays.fill(heads, NONE);
+    Arrays.fill(buckets, slotsUsed, capacity, NONE);
+    live = new int[slotsUsed];
+    for(int i = 0; i < slotsUsed; i++)
+      live[i] = buckets[i];
+    for(int i = 0; i < slotsUsed; i++) {
+      if (live[i] != NONE) {
+        link(i);
+        mapPut(ids[i], i);
+      }
+    }
+  }
+  /*
+   * Get the slot of an object, or throw an exception naming the routine
+   * if there is no object with the ID
+   */
+  private int slotOf(int id, String routine) {
+    int       slot = find(id);
+    if (slot == NONE)
+      throw new NoSuchElementException("Unknown object ID passed to " +
+                                       routine + " routine - " + id);
+    return slot;
+  }
+  /*
+   * Get the first ID map entry to probe for an object ID
+   */
+  private int probe(int id) {
+    int       hash = id * 0x9e3779b9;
+    return (hash ^ hash >>> 16) & (mapKeys.length - 1);
+  }
+  /*
+   * Get the slot of an object, or NONE if there is no object with the ID
+   */
+  private int find(int id) {
+    int       mask = mapKeys.length - 1;
+    for(int i = probe(id); mapValues[i] != 0; i = (i + 1) & mask) {
+      if (mapKeys[i] == id)
+        return mapValues[i] - 1;
+    }
+    return NONE;
+  }
+  /*
+   * Add an object ID to the ID map. The ID must not be in the map.
+   */
+  private void mapPut(int id, int slot) {
+    int       mask = mapKeys.length - 1;
+    int       i;
+    for(i = probe(id); mapValues[i] != 0; i = (i + 1) & mask)
+      ;
+    mapKeys[i] = id;
+    mapValues[i] = slot + 1;
+  }
+  /*
+   * Take an object ID out of the ID map. The entries after it in the same
+   * run are moved back, so that no entry is ever marked as deleted.
+   */
+  private void mapRemove(int id) {
+    int       mask = mapKeys.length - 1;
+    int       i = probe(id);
+    int       j;
+    int       home;
+    while (mapKeys[i] != id || mapValues[i] == 0)
+      i = (i + 1) & mask;
+    for(j = (i + 1) & mask; mapValues[j] != 0; j = (j + 1) & mask) {
+      home = probe(mapKeys[j]);
+      /* Move the entry at j back to i unless its home lies in (i, j] */
+      if (((j - home) & mask) >= ((j - i) & mask)) {
+        mapKeys[i] = mapKeys[j];
+        mapValues[i] = mapValues[j];
+        i = j;
+      }
+    }
+    mapValues[i] = 0;
+  }
+  /*
+   * Get the square of a value
+   */
+  private static float square(float value) {
+    return value * value;
+  }
+}
@@ -0,0 +1,148 @@
+package colorpalette;
+/*
+ * The ColorBitmap class is used to keep track of a set of color index
+ * values. It is only used internally by the color palette classes. Each
+ * color index is one bit in an array of longs. A set bit means that the
+ * color index is in the set. The number of bits that are set is tracked
+ * alongside the bits so that the size of the set is always available
+ * without counting. None of the methods below allocate any storage and
+ * none of them are thread-safe.
+ */
+final class ColorBitmap {
+  /* The words below contain the bits of the set (64 per word) */
+  final long  words[];
+  /* The number of bits (color index values) that can be stored */
+  final int   capacity;
+  /* The number of bits that are currently set */
+  private int count;
+  /*
+   * This constructor builds a bitmap with room for the number of color
+   * index values passed by the caller. If the full flag is set, then
+   * every color index value will be in the set initially. Otherwise the
+   * set will be empty.
+   */
+  ColorBitmap(int size, boolean full) {
+    capacity = size;
+    words = new long[(size + 63) >>> 6];
+    if (full)
+      fill();
+  }
+  /*
+   * This constructor builds a copy of another bitmap
+   */
+  ColorBitmap(ColorBitmap other) {
+    capacity = other.capacity;
+    words = other.words.clone();
+    count = other.count;
+  }
+  /*
+   * Replace the contents of the set with a saved copy of the words of
+   * a bitmap of the same capacity. The number of bits that are set is
+   * recounted one word at a time. False is returned (and the set is
+   * not changed) if the saved words have any bits set past the last
+   * color index value.
+   */
+  boolean load(long saved[]) {
+    int   last = words.length - 1;
+    int   bits = 0;
+    if (saved.length != words.length)
+      return false;
+    if (last >= 0 && (saved[last] & ~(-1L >>> ((words.length << 6) - capacity))) != 0)
+      return false;
+    for(int i = 0; i <= last; i++)
+      bits += Long.bitCount(saved[i]);
+    System.arraycopy(saved, 0, words, 0, words.length);
+    count = bits;
+    return true;
+  }
+  /*
+   * Remove every color index value that is in another bitmap of the
+   * same capacity from the set. The number of bits that are set is
+   * recounted one word at a time.
+   */
+  void removeAll(ColorBitmap other) {
+    int   bits = 0;
+    for(int i = 0; i < words.length; i++) {
+      words[i] &= ~other.words[i];
+      bits += Long.bitCount(words[i]);
+    }
+    count = bits;
+  }
+  /*
+   * Add every color index value to the set
+   */
+  void fill() {
+    int   last = words.length - 1;
+    if (last < 0)
+      return;
+    for(int i = 0; i < last; i++)
+      words[i] = -1L;
+    words[last] = -1L >>> ((words.length << 6) - capacity);
+    count = capacity;
+  }
+  /*
+   * Get the number of color index values in the set
+   */
+  int size() {
+    return count;
+  }
+  /*
+   * Check if the set is empty
+   */
+  boolean isEmpty() {
+    return count == 0;
+  }
+  /*
+   * Check if a color index value is in the set
+   */
+  boolean contains(int index) {
+    return (words[index >>> 6] & (1L << index)) != 0;
+  }
+  /*
+   * Add a color index value to the set. The caller must have
+   * checked that the color index value is not in the set.
+   */
+  void add(int index) {
+    words[index >>> 6] |= 1L << index;
+    count++;
+  }
+  /*
+   * Remove a color index value from the set. The caller must have
+   * checked that the color index value is in the set.
+   */
+  void remove(int index) {
+    words[index >>> 6] &= ~(1L << index);
+    count--;
+  }
+  /*
+   * Get the lowest color index value in the set or -1 if the set
+   * is empty
+   */
+  int first() {
+    for(int i = 0; i < words.length; i++) {
+      if (words[i] != 0)
+        return (i << 6) + Long.numberOfTrailingZeros(words[i]);
+    }
+    return -1;
+  }
+  /*
+   * Remove up to count of the lowest color index values from the set
+   * and store them (in ascending order) in the output array. The number
+   * of color index values removed is returned. The words of the bitmap
+   * are only scanned once.
+   */
+  int removeFirst(int count, int out[]) {
+    int   taken = 0;
+    long  word;
+    for(int i = 0; i < words.length && taken < count; i++) {
+      word = words[i];
+      while (word != 0 && taken < count) {
+        out[taken++] = (i << 6) + Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+      }
+      words[i] = word;
+    }
+    this.count -= taken;
+    return taken;
+  }
+}
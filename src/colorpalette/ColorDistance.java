@@ -0,0 +1,322 @@
+package colorpalette;
+/**
+ * The ColorDistance class measures how different two colors look. Colors
+ * are RGB values (the alpha channel is always ignored) and are taken to
+ * be sRGB values. Distances can be measured in plain RGB space, or in
+ * CIELAB space using either the CIE76 (Delta E 1976) formula or the
+ * CIEDE2000 (Delta E 2000) formula. The CIELAB formulas match what people
+ * see much better than RGB distances do.
+ * <p>
+ * Converting an RGB value to CIELAB normally needs a gamma curve and a
+ * cube root. This class reads both from lookup tables that are built once,
+ * when the class is loaded. The CIELAB values of the colors in the color
+ * palette are computed once and shared by every color palette, so palette
+ * queries that use a CIELAB distance never convert palette colors.
+ * <p>
+ * All of the methods of this class are static and thread-safe.
+ *
+ * @author      ##author##
+ * @version     ##library.prettyVersion##
+ * @since       ##date##
+ */
+public final class ColorDistance {
+  /* The value of 25 to the seventh power, used by CIEDE2000 */
+  final private static double POW25_7 = 6103515625.0;
+  /* The sines and cosines of the fixed angles used by CIEDE2000 */
+  final private static double COS_30 = Math.cos(Math.toRadians(30));
+  final private static double SIN_30 = Math.sin(Math.toRadians(30));
+  final private static double COS_6 = Math.cos(Math.toRadians(6));
+  final private static double SIN_6 = Math.sin(Math.toRadians(6));
+  final private static double COS_63 = Math.cos(Math.toRadians(63));
+  final private static double SIN_63 = Math.sin(Math.toRadians(63));
+  /**
+   * The Metric values below select the formula used to measure the
+   * distance between two colors.
+   */
+  public enum Metric {
+    /** Straight line distance in RGB space (0 to 255 per channel) */
+    RGB,
+    /** The CIE76 color difference (straight line distance in CIELAB) */
+    DELTA_E76,
+    /** The CIEDE2000 color difference */
+    DELTA_E2000;
+    /**
+     * Get the distance between two RGB values using this metric. The
+     * alpha channels of the values are ignored.
+     *
+     * @param rgb1 the first RGB value
+     * @param rgb2 the second RGB value
+     * @return     the distance between the two colors
+     */
+    public double distance(int rgb1, int rgb2) {
+      switch (this) {
+        case RGB:
+          return rgbDistance(rgb1, rgb2);
+        case DELTA_E76:
+          return deltaE76(rgb1, rgb2);
+        default:
+          return deltaE2000(rgb1, rgb2);
+      }
+    }
+    /*
+     * Get the distance between two colors of a color table using this
+     * metric. The precomputed CIELAB values of the table are used.
+     */
+    double distance(ColorTable table, int i, int j) {
+      float   lab[];
+      switch (this) {
+        case RGB:
+          return rgbDistance(table.rgb[i], table.rgb[j]);
+        case DELTA_E76:
+          lab = table.lab();
+          return deltaE76(lab[i * 3], lab[i * 3 + 1], lab[i * 3 + 2],
+                          lab[j * 3], lab[j * 3 + 1], lab[j * 3 + 2]);
+        default:
+          lab = table.lab();
+          return deltaE2000(lab[i * 3], lab[i * 3 + 1], lab[i * 3 + 2],
+                            lab[j * 3], lab[j * 3 + 1], lab[j * 3 + 2]);
+      }
+    }
+  }
+  /*
+   * This class only has static methods
+   */
+  private ColorDistance() {
+  }
+  /**
+   * Convert an RGB value to CIELAB. The alpha channel is ignored. The
+   * returned array holds the L, a and b values, in that order.
+   *
+   * @param rgb  the RGB value to be converted
+   * @return     the CIELAB values of the color
+   */
+  public static float[] toLab(int rgb) {
+    float   lab[] = new float[3];
+    ColorSpaces.toLab(rgb, lab, 0);
+    return lab;
+  }
+  /**
+   * Convert an RGB value to CIELAB and store the L, a and b values in an
+   * array supplied by the caller, starting at a given offset. The alpha
+   * channel is ignored. Unlike {@link #toLab(int)}, this method does not
+   * allocate anything, so it can be used in a loop over many colors.
+   *
+   * @param rgb    the RGB value to be converted
+   * @param out    the array to store the CIELAB values in
+   * @param offset the position of the L value in the array
+   * @exception    NullPointerException if the array is null
+   * @exception    ArrayIndexOutOfBoundsException if the array does not
+   *               have three values starting at the offset
+   */
+  public static void toLab(int rgb, float out[], int offset) {
+    if (out == null)
+      throw new NullPointerException("Null array passed to to Lab routine");
+    if (offset < 0 || offset > out.length - 3)
+      throw new ArrayIndexOutOfBoundsException("Invalid offset passed to to Lab routine - " + offset);
+    ColorSpaces.toLab(rgb, out, offset);
+  }
+  /**
+   * Get the straight line distance between two RGB values in RGB space.
+   * The alpha channels of the values are ignored.
+   *
+   * @param rgb1 the first RGB value
+   * @param rgb2 the second RGB value
+   * @return     the distance between the two colors
+   */
+  public static double rgbDistance(int rgb1, int rgb2) {
+    int     dr = ((rgb1 >> 16) & 0xff) - ((rgb2 >> 16) & 0xff);
+    int     dg = ((rgb1 >> 8) & 0xff) - ((rgb2 >> 8) & 0xff);
+    int     db = (rgb1 & 0xff) - (rgb2 & 0xff);
+    return Math.sqrt(dr * dr + dg * dg + db * db);
+  }
+  /**
+   * Get the CIE76 color difference between two RGB values. The alpha
+   * channels of the values are ignored.
+   *
+   * @param rgb1 the first RGB value
+   * @param rgb2 the second RGB value
+   * @return     the CIE76 color difference
+   */
+  public static double deltaE76(int rgb1, int rgb2) {
+    float   fx1 = ColorSpaces.labRoot(rgb1, 0);
+    float   fy1 = ColorSpaces.labRoot(rgb1, 1);
+    float   fz1 = ColorSpaces.labRoot(rgb1, 2);
+    float   fx2 = ColorSpaces.labRoot(rgb2, 0);
+    float   fy2 = ColorSpaces.labRoot(rgb2, 1);
+    float   fz2 = ColorSpaces.labRoot(rgb2, 2);
+    /* The CIELAB values are worked out in locals, so nothing is allocated */
+    return deltaE76(116 * fy1 - 16, 500 * (fx1 - fy1), 200 * (fy1 - fz1),
+                    116 * fy2 - 16, 500 * (fx2 - fy2), 200 * (fy2 - fz2));
+  }
+  /**
+   * Get the CIEDE2000 color difference between two RGB values. The alpha
+   * channels of the values are ignored.
+   *
+   * @param rgb1 the first RGB value
+   * @param rgb2 the second RGB value
+   * @return     the CIEDE2000 color difference
+   */
+  public static double deltaE2000(int rgb1, int rgb2) {
+    float   fx1 = ColorSpaces.labRoot(rgb1, 0);
+    float   fy1 = ColorSpaces.labRoot(rgb1, 1);
+    float   fz1 = ColorSpaces.labRoot(rgb1, 2);
+    float   fx2 = ColorSpaces.labRoot(rgb2, 0);
+    float   fy2 = ColorSpaces.labRoot(rgb2, 1);
+    float   fz2 = ColorSpaces.labRoot(rgb2, 2);
+    /* The CIELAB values are worked out in locals, so nothing is allocated */
+    return deltaE2000(116 * fy1 - 16, 500 * (fx1 - fy1), 200 * (fy1 - fz1),
+                      116 * fy2 - 16, 500 * (fx2 - fy2), 200 * (fy2 - fz2));
+  }
+  /**
+   * Get the WCAG relative luminance of an RGB value, from zero (black) to
+   * one (white). The alpha channel is ignored.
+   *
+   * @param rgb  the RGB value
+   * @return     the relative luminance of the color
+   */
+  public static double luminance(int rgb) {
+    return ColorSpaces.luminance(rgb);
+  }
+  /**
+   * Get the WCAG contrast ratio between two RGB values. The ratio is the
+   * lighter relative luminance plus 0.05, divided by the darker relative
+   * luminance plus 0.05, and runs from 1 (the same luminance) to 21 
+   * (black and white). The alpha channels of the values are ignored.
+   *
+   * @param rgb1 the first RGB value
+   * @param rgb2 the second RGB value
+   * @return     the contrast ratio of the two colors
+   */
+  public static double contrastRatio(int rgb1, int rgb2) {
+    double  l1 = ColorSpaces.luminance(rgb1);
+    double  l2 = ColorSpaces.luminance(rgb2);
+    return (Math.max(l1, l2) + 0.05) / (Math.min(l1, l2) + 0.05);
+  }
+  /**
+   * Get the CIE76 color difference between two CIELAB colors.
+   *
+   * @param l1   the L value of the first color
+   * @param a1   the a value of the first color
+   * @param b1   the b value of the first color
+   * @param l2   the L value of the second color
+   * @param a2   the a value of the second color
+   * @param b2   the b value of the second color
+   * @return     the CIE76 color difference
+   */
+  public static double deltaE76(double l1, double a1, double b1,
+                                double l2, double a2, double b2) {
+    double  dl = l1 - l2;
+    double  da = a1 - a2;
+    double  db = b1 - b2;
+    return Math.sqrt(dl * dl + da * da + db * db);
+  }
+  /**
+   * Get the CIEDE2000 color difference between two CIELAB colors. The
+   * weighting factors (kL, kC and kH) are all one.
+   *
+   * @param l1   the L value of the first color
+   * @param a1   the a value of the first color
+   * @param b1   the b value of the first color
+   * @param l2   the L value of the second color
+   * @param a2   the a value of the second color
+   * @param b2   the b value of the second color
+   * @return     the CIEDE2000 color difference
+   */
+  public static double deltaE2000(double l1, double a1, double b1,
+                                  double l2, double a2, double b2) {
+    double  cBar;
+    double  cBar7;
+    double  g;
+    double  ap1, ap2;
+    double  cp1, cp2;
+    double  hp1, hp2;
+    double  dlp, dcp, dhp, dHp;
+    double  lBarp, cBarp, hBarp;
+    double  cBarp7;
+    double  t;
+    double  cos1, cos2, cos3;
+    double  sin1, sin2, sin3;
+    double  dTheta;
+    double  rc, sl, sc, sh, rt;
+    double  lBarp50;
+    /* Adjust the a values for the chroma of the two colors */
+    cBar = (Math.sqrt(a1 * a1 + b1 * b1) + Math.sqrt(a2 * a2 + b2 * b2)) / 2;
+    cBar7 = pow7(cBar);
+    g = 0.5 * (1 - Math.sqrt(cBar7 / (cBar7 + POW25_7)));
+    ap1 = (1 + g) * a1;
+    ap2 = (1 + g) * a2;
+    cp1 = Math.sqrt(ap1 * ap1 + b1 * b1);
+    cp2 = Math.sqrt(ap2 * ap2 + b2 * b2);
+    hp1 = hue(b1, ap1);
+    hp2 = hue(b2, ap2);
+    /* Get the differences in lightness, chroma and hue */
+    dlp = l2 - l1;
+    dcp = cp2 - cp1;
+    if (cp1 * cp2 == 0)
+      dhp = 0;
+    else {
+      dhp = hp2 - hp1;
+      if (dhp > 180)
+        dhp -= 360;
+      else if (dhp < -180)
+        dhp += 360;
+    }
+    dHp = 2 * Math.sqrt(cp1 * cp2) * Math.sin(Math.toRadians(dhp / 2));
+    /* Get the mean lightness, chroma and hue */
+    lBarp = (l1 + l2) / 2;
+    cBarp = (cp1 + cp2) / 2;
+    if (cp1 * cp2 == 0)
+      hBarp = hp1 + hp2;
+    else if (Math.abs(hp1 - hp2) <= 180)
+      hBarp = (hp1 + hp2) / 2;
+    else if (hp1 + hp2 < 360)
+      hBarp = (hp1 + hp2 + 360) / 2;
+    else
+      hBarp = (hp1 + hp2 - 360) / 2;
+    /* 
+     * Get the weighting functions and the rotation term. The cosines of
+     * the multiples of the mean hue are found from one sine and one cosine
+     * (using the multiple angle formulas) rather than four cosine calls.
+     */
+    cos1 = Math.cos(Math.toRadians(hBarp));
+    sin1 = Math.sin(Math.toRadians(hBarp));
+    cos2 = 2 * cos1 * cos1 - 1;
+    sin2 = 2 * sin1 * cos1;
+    cos3 = cos2 * cos1 - sin2 * sin1;
+    sin3 = sin2 * cos1 + cos2 * sin1;
+    t = 1 - 0.17 * (cos1 * COS_30 + sin1 * SIN_30)
+          + 0.24 * cos2
+          + 0.32 * (cos3 * COS_6 - sin3 * SIN_6)
+          - 0.20 * ((2 * cos2 * cos2 - 1) * COS_63 + 2 * sin2 * cos2 * SIN_63);
+    dTheta = 30 * Math.exp(-((hBarp - 275) / 25) * ((hBarp - 275) / 25));
+    cBarp7 = pow7(cBarp);
+    rc = 2 * Math.sqrt(cBarp7 / (cBarp7 + POW25_7));
+    lBarp50 = (lBarp - 50) * (lBarp - 50);
+    sl = 1 + 0.015 * lBarp50 / Math.sqrt(20 + lBarp50);
+    sc = 1 + 0.045 * cBarp;
+    sh = 1 + 0.015 * cBarp * t;
+    rt = -Math.sin(Math.toRadians(2 * dTheta)) * rc;
+    dlp /= sl;
+    dcp /= sc;
+    dHp /= sh;
+    return Math.sqrt(dlp * dlp + dcp * dcp + dHp * dHp + rt * dcp * dHp);
+  }
+  /*
+   * Get the seventh power of a value
+   */
+  private static double pow7(double x) {
+    double  x3 = x * x * x;
+    return x3 * x3 * x;
+  }
+  /*
+   * Get the hue angle (in degrees, from 0 to 360) of a CIELAB color
+   * from its b value and its (adjusted) a value
+   */
+  private static double hue(double b, double a) {
+    double  h;
+    if (a == 0 && b == 0)
+      return 0;
+    h = Math.toDegrees(Math.atan2(b, a));
+    return h < 0 ? h + 360 : h;
+  }
+}
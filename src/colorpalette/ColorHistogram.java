@@ -0,0 +1,231 @@
+package colorpalette;
+/**
+ * The ColorHistogram class counts how often each color of a color palette
+ * turns up in images. Each pixel counted adds one to the count of the
+ * closest color of the palette. The counts are kept in an int array, by
+ * color number, and a histogram can be reused frame after frame. Once a
+ * histogram has counted one image, counting another image of the same
+ * size (or a smaller one) never allocates storage. Histograms are filled by
+ * {@link ColorQuantizer#histogram(int[], int, ColorHistogram)} (or the
+ * other histogram methods), which add to the counts that are already
+ * there. Call {@link #clear()} to start again from zero.
+ * <p>
+ * Color numbers start at zero and follow the order of the colors in the
+ * palette. The methods of this class are not thread-safe, but the counts
+ * are filled by several threads at once, each with its own partial
+ * counts, which are added up at the end.
+ *
+ * @author      ##author##
+ * @version     ##library.prettyVersion##
+ * @since       ##date##
+ */
+public final class ColorHistogram {
+  /* The color table whose colors are counted */
+  final ColorTable table;
+  /* The count for each color, by color number */
+  private final int counts[];
+  /* The number of pixels counted */
+  private long total;
+  /*
+   * The partial counts below are filled by the parts of one counting job,
+   * one array for each part. They are added to the counts (and set back
+   * to zero) once every part is done, or just set back to zero if any
+   * part fails. The arrays are kept, so that the next job does not have
+   * to allocate them again.
+   */
+  private int partials[][] = new int[0][];
+  /**
+   * Create an empty histogram for the colors of a color palette.
+   *
+   * @param palette the color palette whose colors are counted
+   * @exception     NullPointerException if the color palette is null
+   */
+  public ColorHistogram(ColorPalette palette) {
+    if (palette == null)
+      throw new NullPointerException("Null color palette passed " +
+                                     "to color histogram constructor");
+    table = palette.colorTable();
+    counts = new int[table.size];
+  }
+  /**
+   * Get the number of colors in the histogram, which is the number of
+   * colors of the color palette.
+   *
+   * @return     the number of colors
+   */
+  public int size() {
+    return counts.length;
+  }
+  /**
+   * Get the number of pixels counted.
+   *
+   * @return     the number of pixels counted
+   */
+  public long total() {
+    return total;
+  }
+  /**
+   * Get the number of pixels counted for a color.
+   *
+   * @param index the color number
+   * @return      the number of pixels counted for the color
+   * @exception   IndexOutOfBoundsException if there is no color with the
+   *              color number
+   */
+  public int count(int index) {
+    return counts[index];
+  }
+  /**
+   * Get the share of the pixels counted for a color, from zero to one. If
+   * no pixels have been counted, the share is zero.
+   *
+   * @param index the color number
+   * @return      the share of the pixels counted for the color
+   * @exception   IndexOutOfBoundsException if there is no color with the
+   *              color number
+   */
+  public double share(int index) {
+    return total == 0 ? 0 : (double) counts[index] / total;
+  }
+  /**
+   * Get the name of a color.
+   *
+   * @param index the color number
+   * @return      the name of the color
+   * @exception   IndexOutOfBoundsException if there is no color with the
+   *              color number
+   */
+  public String name(int index) {
+    if (index < 0 || index >= counts.length)
+      throw new IndexOutOfBoundsException("Invalid color number passed to " +
+                                          "name routine - " + index);
+    return table.name(index);
+  }
+  /**
+   * Get a color. The alpha channel of the returned value will always be
+   * set to 255.
+   *
+   * @param index the color number
+   * @return      the color in ARGB format
+   * @exception   IndexOutOfBoundsException if there is no color with the
+   *              color number
+   */
+  public int color(int index) {
+    return table.rgb[index] | 0xff000000;
+  }
+  /**
+   * Find the colors with the highest counts. The color numbers are stored
+   * in the output array, highest count first. Colors with equal counts are
+   * stored in color number order. Colors that were never counted are left
+   * out. The number of color numbers stored is returned. One pass is made
+   * over the counts and no storage is allocated.
+   *
+   * @param k    the largest number of colors wanted
+   * @param out  the array that receives the color numbers
+   * @return     the number of color numbers stored
+   * @exception  NullPointerException if the output array is null
+   * @exception  IllegalArgumentException if k is negative or larger than
+   *             the output array
+   */
+  public int top(int k, int out[]) {
+    int     found = 0;
+    int     j;
+    if (out == null)
+      throw new NullPointerException("Null output array passed " +
+                                     "to top colors routine");
+    if (k < 0 || k > out.length)
+      throw new IllegalArgumentException("Invalid color count passed to " +
+                                         "top colors routine - " + k);
+    if (k == 0)
+      return 0;
+    /* Keep the best k colors so far in order, with an insertion sort */
+    for(int i = 0; i < counts.length; i++) {
+      if (counts[i] == 0 || (found == k && counts[i] <= counts[out[k - 1]]))
+        continue;
+      j = found < k ? found++ : k - 1;
+      while (j > 0 && counts[out[j - 1]] < counts[i]) {
+        out[j] = out[j - 1];
+        j--;
+      }
+      out[j] = i;
+    }
+    return found;
+  }
+  /**
+   * Get the names of the colors with the highest counts, highest count
+   * first. See {@link #top(int, int[])} for the way the colors are picked.
+   *
+   * @param k    the largest number of colors wanted
+   * @return     the names of the colors
+   * @exception  IllegalArgumentException if k is negative
+   */
+  public String[] topNames(int k) {
+    int     indexes[];
+    int     found;
+    String  names[];
+    if (k < 0)
+      throw new IllegalArgumentException("Invalid color count passed to " +
+                                         "top names routine - " + k);
+    indexes = new int[Math.min(k, counts.length)];
+    found = top(indexes.length, indexes);
+    names = new String[found];
+    for(int i = 0; i < found; i++)
+      names[i] = table.name(indexes[i]);
+    return names;
+  }
+  /**
+   * Set every count back to zero.
+   */
+  public void clear() {
+    for(int i = 0; i < counts.length; i++)
+      counts[i] = 0;
+    total = 0;
+  }
+  /*
+   * Make sure there is a partial count array for each of a number of
+   * parts. This must be called before the parts start.
+   */
+  void reserve(int parts) {
+    int     grown[][];
+    if (partials.length >= parts)
+      return;
+    grown = new int[parts][];
+    for(int i = 0; i < parts; i++)
+      grown[i] = i < partials.length ? partials[i] : new int[counts.length];
+    partials = grown;
+  }
+  /*
+   * Get the partial count array for one part
+   */
+  int[] partial(int part) {
+    return partials[part];
+  }
+  /*
+   * Add the partial counts of a number of parts to the counts, setting
+   * the partial counts back to zero, and add to the number of pixels
+   * counted
+   */
+  void merge(int parts, long pixels) {
+    int     partial[];
+    for(int p = 0; p < parts; p++) {
+      partial = partials[p];
+      for(int i = 0; i < counts.length; i++) {
+        counts[i] += partial[i];
+        partial[i] = 0;
+      }
+    }
+    total += pixels;
+  }
+  /*
+   * Set the partial counts of a number of parts back to zero, without
+   * adding them to the counts. This is used when a counting job fails.
+   */
+  void discard(int parts) {
+    int     partial[];
+    for(int p = 0; p < Math.min(parts, partials.length); p++) {
+      partial = partials[p];
+      for(int i = 0; i < counts.length; i++)
+        partial[i] = 0;
+    }
+  }
+}
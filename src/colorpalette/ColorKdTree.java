@@ -0,0 +1,446 @@
+package colorpalette;
+/*
+ * The ColorKdTree class is a k-d tree over the colors of a color table.
+ * It is only used internally by the color palette classes. Each color is
+ * a point in some three dimensional color space (for example RGB). The
+ * tree is stored in two arrays. The color index values are arranged so
+ * that the node for any range of the array is the middle entry of that
+ * range, with the lower half of the range on one side of the split plane
+ * and the upper half on the other side. The tree is never modified once
+ * it is built, so it can be searched by any number of threads at once.
+ * <p>
+ * Searches can be restricted to the colors that are (or are not) in a
+ * color bitmap. This is how searches for free colors and busy colors
+ * are done. Distances are squared Euclidean distances in the color space
+ * of the tree.
+ * <p>
+ * The tree can also find the color that is farthest from a few points
+ * (the color whose closest point is farthest away). For that search the
+ * order array is cut into blocks of BLOCK entries. Most of the entries
+ * of a block come from one small subtree, so the bounding box of each
+ * block is small. A block is skipped if no color in its box can be
+ * farther from the points than the best color found so far.
+ */
+final class ColorKdTree {
+  /* The coordinates of each color (three per color index value) */
+  private final float coords[];
+  /* The color index values, in tree order */
+  private final int   order[];
+  /* The split axis (0, 1 or 2) of the node at each position */
+  private final byte  axis[];
+  /* The number of entries of the order array in each block */
+  final private static int  BLOCK = 16;
+  /*
+   * The largest number of colors that a farthest color search checks one
+   * by one, rather than block by block
+   */
+  final private static int  SCAN_LIMIT = 256;
+  /* The number of points used for the first, rough bound of each block */
+  final private static int  ROUGH_POINTS = 4;
+  /* The bounding box of each block (the three lows, then the three highs) */
+  private final float blockBox[];
+  /*
+   * This constructor builds a k-d tree from the coordinates of a set of
+   * colors. The coordinates array must hold three values for each color.
+   */
+  ColorKdTree(float points[], int size) {
+    coords = points;
+    order = new int[size];
+    axis = new byte[size];
+    for(int i = 0; i < size; i++)
+      order[i] = i;
+    build(0, size);
+    blockBox = new float[blocks() * 6];
+    for(int k = 0; k < blocks(); k++) {
+      for(int a = 0; a < 3; a++) {
+        blockBox[k * 6 + a] = Float.MAX_VALUE;
+        blockBox[k * 6 + a + 3] = -Float.MAX_VALUE;
+      }
+      for(int p = k * BLOCK; p < Math.min((k + 1) * BLOCK, size); p++) {
+        for(int a = 0; a < 3; a++) {
+          blockBox[k * 6 + a] = Math.min(blockBox[k * 6 + a], coords[order[p] * 3 + a]);
+          blockBox[k * 6 + a + 3] = Math.max(blockBox[k * 6 + a + 3], coords[order[p] * 3 + a]);
+        }
+      }
+    }
+  }
+  /*
+   * Build the part of the tree for one range of the order array. The
+   * axis with the largest spread is used as the split axis.
+   */
+  private void build(int lo, int hi) {
+    int     mid;
+    int     split = 0;
+    float   min[] = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+    float   max[] = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+    float   value;
+    if (hi - lo <= 0)
+      return;
+    for(int i = lo; i < hi; i++) {
+      for(int a = 0; a < 3; a++) {
+        value = coords[order[i] * 3 + a];
+        if (value < min[a])
+          min[a] = value;
+        if (value > max[a])
+          max[a] = value;
+      }
+    }
+    for(int a = 1; a < 3; a++) {
+      if (max[a] - min[a] > max[split] - min[split])
+        split = a;
+    }
+    mid = (lo + hi) >>> 1;
+    select(lo, hi - 1, mid, split);
+    axis[mid] = (byte) split;
+    build(lo, mid);
+    build(mid + 1, hi);
+  }
+  /*
+   * Rearrange one range of the order array so that the entry at position
+   * k is the one that would be there if the range were sorted on one axis.
+   * Entries before position k are not larger and entries after position
+   * k are not smaller.
+   */
+  private void select(int lo, int hi, int k, int a) {
+    int     i;
+    int     j;
+    int     swap;
+    float   pivot;
+    while (lo < hi) {
+      pivot = coords[order[(lo + hi) >>> 1] * 3 + a];
+      i = lo;
+      j = hi;
+      while (i <= j) {
+        while (coords[order[i] * 3 + a] < pivot)
+          i++;
+        while (coords[order[j] * 3 + a] > pivot)
+          j--;
+        if (i <= j) {
+          swap = order[i];
+          order[i] = order[j];
+          order[j] = swap;
+          i++;
+          j--;
+        }
+      }
+      if (k <= j)
+        hi = j;
+      else if (k >= i)
+        lo = i;
+      else
+        return;
+    }
+  }
+  /*
+   * Get the squared distance between a color and a point
+   */
+  private float distance(int index, float x, float y, float z) {
+    float   dx = coords[index * 3] - x;
+    float   dy = coords[index * 3 + 1] - y;
+    float   dz = coords[index * 3 + 2] - z;
+    return dx * dx + dy * dy + dz * dz;
+  }
+  /*
+   * Check if a color may be returned by a search. If the bitmap words
+   * are null, every color may be returned. Otherwise the color must be
+   * in the bitmap (if the flag is set) or not in the bitmap (if the flag
+   * is not set).
+   */
+  private static boolean accept(int index, long words[], boolean inSet) {
+    if (words == null)
+      return true;
+    return ((words[index >>> 6] & (1L << index)) != 0) == inSet;
+  }
+  /*
+   * Get the color index value of the color closest to a point or -1 if
+   * no color may be returned. If several colors are equally close, the
+   * lowest color index value is returned. See the accept method above 
+   * for the way the bitmap words and the flag restrict the search.
+   */
+  int nearest(float x, float y, float z, long words[], boolean inSet) {
+    return nearest(0, order.length, x, y, z, words, inSet, -1, Float.MAX_VALUE);
+  }
+  /*
+   * Search one range of the order array for a color closer to a point
+   * than the best color found so far (if any). The best color found is
+   * returned.
+   */
+  private int nearest(int lo, int hi, float x, float y, float z,
+                      long words[], boolean inSet, int best, float bestDistance) {
+    int     mid;
+    int     index;
+    float   d;
+    float   delta;
+    if (lo >= hi)
+      return best;
+    mid = (lo + hi) >>> 1;
+    index = order[mid];
+    if (accept(index, words, inSet)) {
+      d = distance(index, x, y, z);
+      if (d < bestDistance || (d == bestDistance && index < best)) {
+        best = index;
+        bestDistance = d;
+      }
+    }
+    delta = (axis[mid] == 0 ? x : axis[mid] == 1 ? y : z) - coords[index * 3 + axis[mid]];
+    /* Search the near side first, then the far side if it may be closer */
+    if (delta < 0) {
+      best = nearest(lo, mid, x, y, z, words, inSet, best, bestDistance);
+      if (best >= 0)
+        bestDistance = distance(best, x, y, z);
+      if (delta * delta <= bestDistance)
+        best = nearest(mid + 1, hi, x, y, z, words, inSet, best, bestDistance);
+    }
+    else {
+      best = nearest(mid + 1, hi, x, y, z, words, inSet, best, bestDistance);
+      if (best >= 0)
+        bestDistance = distance(best, x, y, z);
+      if (delta * delta <= bestDistance)
+        best = nearest(lo, mid, x, y, z, words, inSet, best, bestDistance);
+    }
+    return best;
+  }
+  /*
+   * Find up to k colors closest to a point, within a squared distance of
+   * the point (inclusive). The color index values are stored in the output
+   * array, closest first, with their squared distances in the distance 
+   * array. Both arrays must hold at least k values. The number of colors
+   * found is returned. Colors that are equally close are stored in color
+   * index order. See the accept method above for the way the bitmap words
+   * and the flag restrict the search. While the search runs, the colors 
+   * found so far are kept in a bounded heap (farthest color on top), so
+   * only k colors are ever kept and sorted.
+   */
+  int nearest(float x, float y, float z, long words[], boolean inSet,
+              float maxDistance, int k, int out[], float distances[]) {
+    int     count;
+    int     swapIndex;
+    float   swapDistance;
+    if (k <= 0)
+      return 0;
+    count = collect(0, order.length, x, y, z, words, inSet, maxDistance, k, out, distances, 0);
+    /* Sort the heap, farthest color last */
+    for(int end = count - 1; end > 0; end--) {
+      swapIndex = out[0];
+      swapDistance = distances[0];
+      out[0] = out[end];
+      distances[0] = distances[end];
+      out[end] = swapIndex;
+      distances[end] = swapDistance;
+      siftDown(out, distances, end);
+    }
+    return count;
+  }
+  /*
+   * Search one range of the order array for colors that belong in the 
+   * heap of the colors found so far. The new number of colors in the
+   * heap is returned.
+   */
+  private int collect(int lo, int hi, float x, float y, float z, long words[], boolean inSet,
+                      float maxDistance, int k, int out[], float distances[], int count) {
+    int     mid;
+    int     index;
+    float   d;
+    float   delta;
+    int     pos;
+    int     parent;
+    if (lo >= hi)
+      return count;
+    mid = (lo + hi) >>> 1;
+    index = order[mid];
+    if (accept(index, words, inSet)) {
+      d = distance(index, x, y, z);
+      if (d <= maxDistance) {
+        if (count < k) {
+          /* Add the color at the bottom of the heap and move it up */
+          pos = count++;
+          while (pos > 0 && farther(d, index, distances[parent = (pos - 1) >>> 1], out[parent])) {
+            out[pos] = out[parent];
+            distances[pos] = distances[parent];
+            pos = parent;
+          }
+          out[pos] = index;
+          distances[pos] = d;
+        }
+        else if (farther(distances[0], out[0], d, index)) {
+          /* Replace the farthest color and move the new color down */
+          out[0] = index;
+          distances[0] = d;
+          siftDown(out, distances, count);
+        }
+      }
+    }
+    delta = (axis[mid] == 0 ? x : axis[mid] == 1 ? y : z) - coords[index * 3 + axis[mid]];
+    /* Search the near side first, then the far side if it may hold closer colors */
+    if (delta < 0) {
+      count = collect(lo, mid, x, y, z, words, inSet, maxDistance, k, out, distances, count);
+      if (delta * delta <= (count < k ? maxDistance : distances[0]))
+        count = collect(mid + 1, hi, x, y, z, words, inSet, maxDistance, k, out, distances, count);
+    }
+    else {
+      count = collect(mid + 1, hi, x, y, z, words, inSet, maxDistance, k, out, distances, count);
+      if (delta * delta <= (count < k ? maxDistance : distances[0]))
+        count = collect(lo, mid, x, y, z, words, inSet, maxDistance, k, out, distances, count);
+    }
+    return count;
+  }
+  /*
+   * Get the number of blocks of the order array
+   */
+  int blocks() {
+    return (order.length + BLOCK - 1) / BLOCK;
+  }
+  /*
+   * Get the color index value of the color whose squared distance to the
+   * closest of a number of points is largest, or -1 if no color may be
+   * returned. The points are stored three values per point. If several
+   * colors are equally far away, the lowest color index value is returned.
+   * Only the colors in the words of a bitmap may be returned. The points
+   * may be put in a different order by the search. The bounds array is
+   * scratch storage for one value per block, supplied by the caller so
+   * that the search allocates nothing.
+   * <p>
+   * If the bitmap only holds a few colors, they are checked one by one.
+   * Otherwise the largest distance any color of each block can have is
+   * worked out first, from the bounding box of the block. The block that
+   * may hold the farthest color is searched first, so that most of the
+   * other blocks can be skipped.
+   */
+  int farthest(float points[], int count, long words[], float bounds[]) {
+    int     colors = 0;
+    int     best = -1;
+    float   bestDistance = -1;
+    int     top = -1;
+    int     block;
+    int     index;
+    long    word;
+    float   d;
+    for(int w = 0; w < words.length; w++)
+      colors += Long.bitCount(words[w]);
+    if (colors <= SCAN_LIMIT) {
+      for(int w = 0; w < words.length; w++) {
+        for(word = words[w]; word != 0; word &= word - 1) {
+          index = (w << 6) + Long.numberOfTrailingZeros(word);
+          d = spread(index, points, count, bestDistance);
+          if (d > bestDistance) {
+            best = index;
+            bestDistance = d;
+          }
+        }
+      }
+      return best;
+    }
+    /*
+     * A bound worked out from only the first few points is larger than
+     * the real bound, but much quicker to find for every block
+     */
+    for(int k = 0; k < bounds.length; k++) {
+      bounds[k] = hasColor(k, words) ? bound(k, points, Math.min(count, ROUGH_POINTS), -1) : -1;
+      if (bounds[k] >= 0 && (top < 0 || bounds[k] > bounds[top]))
+        top = k;
+    }
+    /* Search the top block first, then every other block in order */
+    for(int k = -1; k < bounds.length && top >= 0; k++) {
+      block = k < 0 ? top : k;
+      /* Skip a block if none of its colors can be farther than the best */
+      if (k == top || bounds[block] < 0 || bounds[block] < bestDistance ||
+          bound(block, points, count, bestDistance) < bestDistance)
+        continue;
+      for(int p = block * BLOCK; p < Math.min((block + 1) * BLOCK, order.length); p++) {
+        index = order[p];
+        if (!accept(index, words, true))
+          continue;
+        d = spread(index, points, count, bestDistance);
+        if (d > bestDistance || (d == bestDistance && index < best)) {
+          best = index;
+          bestDistance = d;
+        }
+      }
+    }
+    return best;
+  }
+  /*
+   * Check if a block holds any color in the words of a bitmap
+   */
+  private boolean hasColor(int block, long words[]) {
+    for(int p = block * BLOCK; p < Math.min((block + 1) * BLOCK, order.length); p++) {
+      if (accept(order[p], words, true))
+        return true;
+    }
+    return false;
+  }
+  /*
+   * Get the largest squared distance that any color in the bounding box
+   * of a block can have to the closest of a number of points. For each
+   * point this is the distance to the far corner of the box. The search
+   * stops early (with a distance below the limit) as soon as the box is
+   * found to be closer to some point than the limit.
+   */
+  private float bound(int block, float points[], int count, float limit) {
+    float   min = Float.MAX_VALUE;
+    int     box = block * 6;
+    for(int j = 0; j < count * 3 && min >= limit; j += 3) {
+      min = Math.min(min, square(Math.max(points[j] - blockBox[box], blockBox[box + 3] - points[j])) +
+                          square(Math.max(points[j + 1] - blockBox[box + 1], blockBox[box + 4] - points[j + 1])) +
+                          square(Math.max(points[j + 2] - blockBox[box + 2], blockBox[box + 5] - points[j + 2])));
+    }
+    return min;
+  }
+  /*
+   * Get the squared distance from a color to the closest of a number of
+   * points. The search stops early (with a distance below the limit) as
+   * soon as the color is found to be closer to some point than the limit.
+   */
+  private float spread(int index, float points[], int count, float limit) {
+    float   min = Float.MAX_VALUE;
+    float   swap;
+    for(int j = 0; j < count * 3; j += 3) {
+      min = Math.min(min, distance(index, points[j], points[j + 1], points[j + 2]));
+      if (min < limit) {
+        /* Nearby colors are likely to be stopped by the same point */
+        for(int a = 0; a < 3 && j > 0; a++) {
+          swap = points[a];
+          points[a] = points[j + a];
+          points[j + a] = swap;
+        }
+        break;
+      }
+    }
+    return min;
+  }
+  /*
+   * Get the square of a value
+   */
+  private static float square(float value) {
+    return value * value;
+  }
+  /*
+   * Check if one color is farther from the point than another color. Of 
+   * two colors that are equally far away, the one with the higher color
+   * index value counts as farther.
+   */
+  private static boolean farther(float d1, int index1, float d2, int index2) {
+    return d1 > d2 || (d1 == d2 && index1 > index2);
+  }
+  /*
+   * Move the color at the top of a heap of a given size down, until it
+   * is not closer than the colors below it
+   */
+  private static void siftDown(int out[], float distances[], int size) {
+    int     index = out[0];
+    float   d = distances[0];
+    int     pos = 0;
+    int     child;
+    while ((child = pos * 2 + 1) < size) {
+      if (child + 1 < size && farther(distances[child + 1], out[child + 1], distances[child], out[child]))
+        child++;
+      if (!farther(distances[child], out[child], d, index))
+        break;
+      out[pos] = out[child];
+      distances[pos] = distances[child];
+      pos = child;
+    }
+    out[pos] = index;
+    distances[pos] = d;
+  }
+}
@@ -1,7 +1,14 @@
 package colorpalette;
-import java.util.HashMap;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.NoSuchElementException;
-import java.util.TreeSet;
 /** 
  * The ColorPalette class manages color pools. The basic idea is that the 
  * ColorPalette class maintains a pool of unique colors (no duplicates). 
@@ -15,16 +22,18 @@ import java.util.TreeSet;
  * This can be changed by the caller as need be. When a color is returned 
  * to the color pool (palette), the alpha channel is ignored. The colors 
  * returned by this class appear to work equally well in RGB mode and HSB
- * mode.
+ * mode. Free colors can be picked by ranges of hue, saturation and 
+ * brightness (see {@link #getNext(HsbRange)}).
  * <p>
  * The ColorPalette class can be instantiated any number of times. The 
- * underlying list of colors is statically defined. However, a copy of 
- * the color list is built for each instance of this class. All of the 
- * data and methods of this class are instance based (save for the initial 
- * static color list). Instance methods are provided for obtaining colors 
- * from the color pool and returning them to the color pool. The methods 
- * of this class are not thread-safe, but could be modified to make them 
- * thread-safe.
+ * underlying list of colors is statically defined. The color list and 
+ * the lookup structures built from it are shared by every instance of
+ * this class. Each instance only holds its own set of free colors. All
+ * of the methods of this class are instance based. Instance methods are
+ * provided for obtaining colors from the color pool and returning them 
+ * to the color pool. The methods of this class are not thread-safe. The
+ * {@link ConcurrentColorPalette} class has the same methods and can be 
+ * shared by any number of threads.
  * <p>
  * Generally colors will be pulled from the pool in order. In other words, 
  * the most popular colors (red, green, blue) will be returned first and 
@@ -33,12 +42,23 @@ import java.util.TreeSet;
  * and a request for a new color will return a null value. This is not an 
  * error condition and must be checked for.
  * <p>
+ * Each method that takes or returns an Integer has a primitive int
+ * twin ({@link #nextColor()}, {@link #colorByName(String)} and 
+ * {@link #release(int)}). The primitive methods never box a color, so 
+ * they can be called every frame without creating garbage. They return 
+ * {@link #NO_COLOR} where the Integer methods return a null value.
+ * <p>
  * Colors can be pulled from the pool by name. If the name is unknown, 
  * an exception will be thrown. If the name is valid, but the color is 
  * busy (already in use), then a null value will be returned. This is 
  * not an error condition. Note that color names are case sensitive and 
  * mixed case.
  * <p>
+ * Colors can also be leased from the pool for a limited time (see 
+ * {@link #leaseNext(long)}). A leased color that is not renewed or put
+ * back before its time runs out is returned to the pool automatically.
+ * A leased color always has exactly one holder, even in shared mode.
+ * <p>
  * A typical use case might be providing colors for balls bouncing around 
  * a box. Assume that balls are added randomly and each ball must have a 
  * unique color. Over time, balls get older and eventually die off. Each 
@@ -68,1107 +88,2443 @@ import java.util.TreeSet;
  *    caller, until the original user return the color to the pool.
  */
 public final class ColorPalette { 
-  /* The array below contains all of the colors that go into the pool */
-  final private static ColorItem items[] = {new ColorItem("Red", 255, 0, 0),
-                                            new ColorItem("Green", 0, 128, 0),
-                                            new ColorItem("Blue", 0, 0, 255),
-                                            new ColorItem("Cyan", 0, 255, 255),
-                                            new ColorItem("Magenta", 255, 0, 255),
-                                            new ColorItem("Yellow", 255, 255, 0),
-                                            new ColorItem("Maroon", 128, 0, 0),
-                                            new ColorItem("Olive", 128, 128, 0),
-                                            new ColorItem("Lime", 0, 255, 0),
-                                            new ColorItem("Teal", 0, 128, 128),
-                                            new ColorItem("Navy", 0, 0, 128),
-                                            new ColorItem("Purple", 128, 0, 128),
-                                            new ColorItem("White", 255, 255, 255),
-                                            new ColorItem("Black", 0, 0, 0),
-                                            new ColorItem("Silver", 192, 192, 192),
-                                            new ColorItem("Gray", 128, 128, 128),
-                                            new ColorItem("AliceBlue", 240, 248, 255),
-                                            new ColorItem("AntiqueWhite", 250, 235, 215),
-                                            new ColorItem("Aquamarine", 127, 255, 212),
-                                            new ColorItem("Azure", 0, 127, 255),
-                                            new ColorItem("Beige", 245, 245, 220),
-                                            new ColorItem("Bisque", 255, 228, 196),
-                                            new ColorItem("BlanchedAlmond", 255, 235, 205),
-                                            new ColorItem("BlueViolet", 138, 43, 226),
-                                            new ColorItem("Brown", 165, 42, 42),
-                                            new ColorItem("BurlyWood", 222, 184, 135),
-                                            new ColorItem("CadetBlue", 95, 158, 160),
-                                            new ColorItem("Chartreuse", 127, 255, 0),
-                                            new ColorItem("Chocolate", 210, 105, 30),
-                                            new ColorItem("Coral", 255, 127, 80),
-                                            new ColorItem("CornflowerBlue", 100, 149, 237),
-                                            new ColorItem("Cornsilk", 255, 248, 220),
-                                            new ColorItem("Crimson", 220, 20, 60),
-                                            new ColorItem("DarkBlue", 0, 0, 139),
-                                            new ColorItem("DarkCyan", 0, 139, 139),
-                                            new ColorItem("DarkGoldenRod", 184, 134, 11),
-                                            new ColorItem("DarkGray", 169, 169, 169),
-                                            new ColorItem("DarkGreen", 0, 100, 0),
-                                            new ColorItem("DarkKhaki", 189, 183, 107),
-                                            new ColorItem("DarkMagenta", 139, 0, 139),
-                                            new ColorItem("DarkOliveGreen", 85, 107, 47),
-                                            new ColorItem("DarkOrange", 255, 140, 0),
-                                            new ColorItem("DarkOrchid", 153, 50, 204),
-                                            new ColorItem("DarkRed", 139, 0, 0),
-                                            new ColorItem("DarkSalmon", 233, 150, 122),
-                                            new ColorItem("DarkSeaGreen", 143, 188, 143),
-                                            new ColorItem("DarkSlateBlue", 72, 61, 139),
-                                            new ColorItem("DarkSlateGray", 47, 79, 79),
-                                            new ColorItem("DarkTurquoise", 0, 206, 209),
-                                            new ColorItem("DarkViolet", 148, 0, 211),
-                                            new ColorItem("DeepPink", 255, 20, 147),
-                                            new ColorItem("DeepSkyBlue", 0, 191, 255),
-                                            new ColorItem("DimGray", 105, 105, 105),
-                                            new ColorItem("DodgerBlue", 30, 144, 255),
-                                            new ColorItem("FireBrick", 178, 34, 34),
-                                            new ColorItem("FloralWhite", 255, 250, 240),
-                                            new ColorItem("ForestGreen", 34, 139, 34),
-                                            new ColorItem("Gainsboro", 220, 220, 220),
-                                            new ColorItem("GhostWhite", 248, 248, 255),
-                                            new ColorItem("Gold", 255, 215, 0),
-                                            new ColorItem("GoldenRod", 218, 165, 32),
-                                            new ColorItem("GreenYellow", 173, 255, 47),
-                                            new ColorItem("HoneyDew", 240, 255, 240),
-                                            new ColorItem("HotPink", 255, 105, 180),
-                                            new ColorItem("IndianRed", 205, 92, 92),
-                                            new ColorItem("Indigo", 75, 0, 130),
-                                            new ColorItem("Ivory", 255, 255, 240),
-                                            new ColorItem("Khaki", 240, 230, 140),
-                                            new ColorItem("Lavender", 230, 230, 250),
-                                            new ColorItem("LavenderBlush", 255, 240, 245),
-                                            new ColorItem("LawnGreen", 124, 252, 0),
-                                            new ColorItem("LemonChiffon", 255, 250, 205),
-                                            new ColorItem("LightBlue", 173, 216, 230),
-                                            new ColorItem("LightCoral", 240, 128, 128),
-                                            new ColorItem("LightCyan", 224, 255, 255),
-                                            new ColorItem("LightGoldenRodYellow", 250, 250, 210),
-                                            new ColorItem("LightGray", 211, 211, 211),
-                                            new ColorItem("LightGreen", 144, 238, 144),
-                                            new ColorItem("LightPink", 255, 182, 193),
-                                            new ColorItem("LightSalmon", 255, 160, 122),
-                                            new ColorItem("LightSeaGreen", 32, 178, 170),
-                                            new ColorItem("LightSkyBlue", 135, 206, 250),
-                                            new ColorItem("LightSlateGray", 119, 136, 153),
-                                            new ColorItem("LightSteelBlue", 176, 196, 222),
-                                            new ColorItem("LightYellow", 255, 255, 224),
-                                            new ColorItem("LimeGreen", 50, 205, 50),
-                                            new ColorItem("Linen", 250, 240, 230),
-                                            new ColorItem("MediumAquaMarine", 102, 205, 170),
-                                            new ColorItem("MediumBlue", 0, 0, 205),
-                                            new ColorItem("MediumOrchid", 186, 85, 211),
-                                            new ColorItem("MediumPurple", 147, 112, 219),
-                                            new ColorItem("MediumSeaGreen", 60, 179, 113),
-                                            new ColorItem("MediumSlateBlue", 123, 104, 238),
-                                            new ColorItem("MediumSpringGreen", 0, 250, 154),
-                                            new ColorItem("MediumTurquoise", 72, 209, 204),
-                                            new ColorItem("MediumVioletRed", 199, 21, 133),
-                                            new ColorItem("MidnightBlue", 25, 25, 112),
-                                            new ColorItem("MintCream", 245, 255, 250),
-                                            new ColorItem("MistyRose", 255, 228, 225),
-                                            new ColorItem("Moccasin", 255, 228, 181),
-                                            new ColorItem("NavajoWhite", 255, 222, 173),
-                                            new ColorItem("OldLace", 253, 245, 230),
-                                            new ColorItem("OliveDrab", 107, 142, 35),
-                                            new ColorItem("Orange", 255, 165, 0),
-                                            new ColorItem("OrangeRed", 255, 69, 0),
-                                            new ColorItem("Orchid", 218, 112, 214),
-                                            new ColorItem("PaleGoldenRod", 238, 232, 170),
-                                            new ColorItem("PaleGreen", 152, 251, 152),
-                                            new ColorItem("PaleTurquoise", 175, 238, 238),
-                                            new ColorItem("PaleVioletRed", 219, 112, 147),
-                                            new ColorItem("PapayaWhip", 255, 239, 213),
-                                            new ColorItem("PeachPuff", 255, 218, 185),
-                                            new ColorItem("Peru", 205, 133, 63),
-                                            new ColorItem("Pink", 255, 192, 203),
-                                            new ColorItem("Plum", 142, 69, 133),
-                                            new ColorItem("PowderBlue", 176, 224, 230),
-                                            new ColorItem("RosyBrown", 188, 143, 143),
-                                            new ColorItem("RoyalBlue", 65, 105, 225),
-                                            new ColorItem("SaddleBrown", 139, 69, 19),
-                                            new ColorItem("Salmon", 250, 128, 114),
-                                            new ColorItem("SandyBrown", 244, 164, 96),
-                                            new ColorItem("SeaGreen", 46, 139, 87),
-                                            new ColorItem("SeaShell", 255, 245, 238),
-                                            new ColorItem("Sienna", 160, 82, 45),
-                                            new ColorItem("SkyBlue", 135, 206, 235),
-                                            new ColorItem("SlateBlue", 106, 90, 205),
-                                            new ColorItem("SlateGray", 112, 128, 144),
-                                            new ColorItem("Snow", 255, 250, 250),
-                                            new ColorItem("SpringGreen", 0, 255, 127),
-                                            new ColorItem("SteelBlue", 70, 130, 180),
-                                            new ColorItem("Tan", 210, 180, 140),
-                                            new ColorItem("Thistle", 216, 191, 216),
-                                            new ColorItem("Tomato", 255, 99, 71),
-                                            new ColorItem("Turquoise", 64, 224, 208),
-                                            new ColorItem("Violet", 238, 130, 238),
-                                            new ColorItem("Wheat", 245, 222, 179),
-                                            new ColorItem("WhiteSmoke", 245, 245, 245),
-                                            new ColorItem("YellowGreen", 154, 205, 50),
-                                            new ColorItem("Acid green", 176, 191, 26),
-                                            new ColorItem("Aero", 124, 185, 232),
-                                            new ColorItem("Aero blue", 201, 255, 229),
-                                            new ColorItem("African violet", 178, 132, 190),
-                                            new ColorItem("Air Force blue (RAF)", 93, 138, 168),
-                                            new ColorItem("Air Force blue (USAF)", 0, 48, 143),
-                                            new ColorItem("Air superiority blue", 114, 160, 193),
-                                            new ColorItem("Alabama crimson", 175, 0, 42),
-                                            new ColorItem("Alizarin crimson", 227, 38, 54),
-                                            new ColorItem("Alloy orange", 196, 98, 16),
-                                            new ColorItem("Almond", 239, 222, 205),
-                                            new ColorItem("Amaranth", 229, 43, 80),
-                                            new ColorItem("Amaranth pink", 241, 156, 187),
-                                            new ColorItem("Amaranth purple", 171, 39, 79),
-                                            new ColorItem("Amaranth red", 211, 33, 45),
-                                            new ColorItem("Amazon", 59, 122, 87),
-                                            new ColorItem("Amber", 255, 191, 0),
-                                            new ColorItem("Amber (SAE/ECE)", 255, 126, 0),
-                                            new ColorItem("American rose", 255, 3, 62),
-                                            new ColorItem("Amethyst", 153, 102, 204),
-                                            new ColorItem("Android green", 164, 198, 57),
-                                            new ColorItem("Anti-flash white", 242, 243, 244),
-                                            new ColorItem("Antique brass", 205, 149, 117),
-                                            new ColorItem("Antique bronze", 102, 93, 30),
-                                            new ColorItem("Antique fuchsia", 145, 92, 131),
-                                            new ColorItem("Antique ruby", 132, 27, 45),
-                                            new ColorItem("Apple green", 141, 182, 0),
-                                            new ColorItem("Apricot", 251, 206, 177),
-                                            new ColorItem("Army green", 75, 83, 32),
-                                            new ColorItem("Arsenic", 59, 68, 75),
-                                            new ColorItem("Artichoke", 143, 151, 121),
-                                            new ColorItem("Arylide yellow", 233, 214, 107),
-                                            new ColorItem("Ash grey", 178, 190, 181),
-                                            new ColorItem("Asparagus", 135, 169, 107),
-                                            new ColorItem("Atomic tangerine", 255, 153, 102),
-                                            new ColorItem("Aureolin", 253, 238, 0),
-                                            new ColorItem("AuroMetalSaurus", 110, 127, 128),
-                                            new ColorItem("Avocado", 86, 130, 3),
-                                            new ColorItem("Azure (web color)", 240, 255, 255),
-                                            new ColorItem("Azureish white", 219, 233, 244),
-                                            new ColorItem("Baby blue", 137, 207, 240),
-                                            new ColorItem("Baby blue eyes", 161, 202, 241),
-                                            new ColorItem("Baby pink", 244, 194, 194),
-                                            new ColorItem("Baby powder", 254, 254, 250),
-                                            new ColorItem("Baker-Miller pink", 255, 145, 175),
-                                            new ColorItem("Ball blue", 33, 171, 205),
-                                            new ColorItem("Banana Mania", 250, 231, 181),
-                                            new ColorItem("Banana yellow", 255, 225, 53),
-                                            new ColorItem("Bangladesh green", 0, 106, 78),
-                                            new ColorItem("Barbie pink", 224, 33, 138),
-                                            new ColorItem("Barn red", 124, 10, 2),
-                                            new ColorItem("Battleship grey", 132, 132, 130),
-                                            new ColorItem("Bazaar", 152, 119, 123),
-                                            new ColorItem("Beau blue", 188, 212, 230),
-                                            new ColorItem("Beaver", 159, 129, 112),
-                                            new ColorItem("B'dazzled blue", 46, 88, 148),
-                                            new ColorItem("Big dip o’ruby", 156, 37, 66),
-                                            new ColorItem("Bistre", 61, 43, 31),
-                                            new ColorItem("Bistre brown", 150, 113, 23),
-                                            new ColorItem("Bitter lemon", 202, 224, 13),
-                                            new ColorItem("Bitter lime", 191, 255, 0),
-                                            new ColorItem("Bittersweet", 254, 111, 94),
-                                            new ColorItem("Bittersweet shimmer", 191, 79, 81),
-                                            new ColorItem("Black bean", 61, 12, 2),
-                                            new ColorItem("Black leather jacket", 37, 53, 41),
-                                            new ColorItem("Black olive", 59, 60, 54),
-                                            new ColorItem("Blast-off bronze", 165, 113, 100),
-                                            new ColorItem("Bleu de France", 49, 140, 231),
-                                            new ColorItem("Blizzard Blue", 172, 229, 238),
-                                            new ColorItem("Blond", 250, 240, 190),
-                                            new ColorItem("Blue (Crayola)", 31, 117, 254),
-                                            new ColorItem("Blue (Munsell)", 0, 147, 175),
-                                            new ColorItem("Blue (NCS)", 0, 135, 189),
-                                            new ColorItem("Blue (Pantone)", 0, 24, 168),
-                                            new ColorItem("Blue (pigment)", 51, 51, 153),
-                                            new ColorItem("Blue (RYB)", 2, 71, 254),
-                                            new ColorItem("Blue Bell", 162, 162, 208),
-                                            new ColorItem("Blue-gray", 102, 153, 204),
-                                            new ColorItem("Blue-green", 13, 152, 186),
-                                            new ColorItem("Blue-magenta violet", 85, 53, 146),
-                                            new ColorItem("Blue sapphire", 18, 97, 128),
-                                            new ColorItem("Blue yonder", 80, 114, 167),
-                                            new ColorItem("Blueberry", 79, 134, 247),
-                                            new ColorItem("Bluebonnet", 28, 28, 240),
-                                            new ColorItem("Blush", 222, 93, 131),
-                                            new ColorItem("Bole", 121, 68, 59),
-                                            new ColorItem("Bondi blue", 0, 149, 182),
-                                            new ColorItem("Bone", 227, 218, 201),
-                                            new ColorItem("Boston University Red", 204, 0, 0),
-                                            new ColorItem("Boysenberry", 135, 50, 96),
-                                            new ColorItem("Brandeis blue", 0, 112, 255),
-                                            new ColorItem("Brass", 181, 166, 66),
-                                            new ColorItem("Brick red", 203, 65, 84),
-                                            new ColorItem("Bright cerulean", 29, 172, 214),
-                                            new ColorItem("Bright green", 102, 255, 0),
-                                            new ColorItem("Bright lavender", 191, 148, 228),
-                                            new ColorItem("Bright lilac", 216, 145, 239),
-                                            new ColorItem("Bright maroon", 195, 33, 72),
-                                            new ColorItem("Bright navy blue", 25, 116, 210),
-                                            new ColorItem("Bright pink", 255, 0, 127),
-                                            new ColorItem("Bright turquoise", 8, 232, 222),
-                                            new ColorItem("Bright ube", 209, 159, 232),
-                                            new ColorItem("Brilliant azure", 51, 153, 255),
-                                            new ColorItem("Brilliant lavender", 244, 187, 255),
-                                            new ColorItem("Brilliant rose", 255, 85, 163),
-                                            new ColorItem("Brink pink", 251, 96, 127),
-                                            new ColorItem("British racing green", 0, 66, 37),
-                                            new ColorItem("Bronze", 205, 127, 50),
-                                            new ColorItem("Bronze Yellow", 115, 112, 0),
-                                            new ColorItem("Brown (traditional)", 150, 75, 0),
-                                            new ColorItem("Brown-nose", 107, 68, 35),
-                                            new ColorItem("Brown Yellow", 204, 153, 102),
-                                            new ColorItem("Brunswick green", 27, 77, 62),
-                                            new ColorItem("Bubble gum", 255, 193, 204),
-                                            new ColorItem("Bubbles", 231, 254, 255),
-                                            new ColorItem("Buff", 240, 220, 130),
-                                            new ColorItem("Bud green", 123, 182, 97),
-                                            new ColorItem("Bulgarian rose", 72, 6, 7),
-                                            new ColorItem("Burgundy", 128, 0, 32),
-                                            new ColorItem("Burnt orange", 204, 85, 0),
-                                            new ColorItem("Burnt sienna", 233, 116, 81),
-                                            new ColorItem("Burnt umber", 138, 51, 36),
-                                            new ColorItem("Byzantine", 189, 51, 164),
-                                            new ColorItem("Byzantium", 112, 41, 99),
-                                            new ColorItem("Cadet", 83, 104, 114),
-                                            new ColorItem("Cadet grey", 145, 163, 176),
-                                            new ColorItem("Cadmium green", 0, 107, 60),
-                                            new ColorItem("Cadmium orange", 237, 135, 45),
-                                            new ColorItem("Cadmium red", 227, 0, 34),
-                                            new ColorItem("Cadmium yellow", 255, 246, 0),
-                                            new ColorItem("Café au lait", 166, 123, 91),
-                                            new ColorItem("Café noir", 75, 54, 33),
-                                            new ColorItem("Cal Poly green", 30, 77, 43),
-                                            new ColorItem("Cambridge Blue", 163, 193, 173),
-                                            new ColorItem("Camel", 193, 154, 107),
-                                            new ColorItem("Cameo pink", 239, 187, 204),
-                                            new ColorItem("Camouflage green", 120, 134, 107),
-                                            new ColorItem("Canary yellow", 255, 239, 0),
-                                            new ColorItem("Candy apple red", 255, 8, 0),
-                                            new ColorItem("Candy pink", 228, 113, 122),
-                                            new ColorItem("Caput mortuum", 89, 39, 32),
-                                            new ColorItem("Cardinal", 196, 30, 58),
-                                            new ColorItem("Caribbean green", 0, 204, 153),
-                                            new ColorItem("Carmine", 150, 0, 24),
-                                            new ColorItem("Carmine (M&P)", 215, 0, 64),
-                                            new ColorItem("Carmine pink", 235, 76, 66),
-                                            new ColorItem("Carmine red", 255, 0, 56),
-                                            new ColorItem("Carnation pink", 255, 166, 201),
-                                            new ColorItem("Carnelian", 179, 27, 27),
-                                            new ColorItem("Carolina blue", 86, 160, 211),
-                                            new ColorItem("Carrot orange", 237, 145, 33),
-                                            new ColorItem("Castleton green", 0, 86, 63),
-                                            new ColorItem("Catalina blue", 6, 42, 120),
-                                            new ColorItem("Catawba", 112, 54, 66),
-                                            new ColorItem("Cedar Chest", 201, 90, 73),
-                                            new ColorItem("Ceil", 146, 161, 207),
-                                            new ColorItem("Celadon", 172, 225, 175),
-                                            new ColorItem("Celadon blue", 0, 123, 167),
-                                            new ColorItem("Celadon green", 47, 132, 124),
-                                            new ColorItem("Celeste", 178, 255, 255),
-                                            new ColorItem("Celestial blue", 73, 151, 208),
-                                            new ColorItem("Cerise", 222, 49, 99),
-                                            new ColorItem("Cerise pink", 236, 59, 131),
-                                            new ColorItem("Cerulean blue", 42, 82, 190),
-                                            new ColorItem("Cerulean frost", 109, 155, 195),
-                                            new ColorItem("CG Blue", 0, 122, 165),
-                                            new ColorItem("CG Red", 224, 60, 49),
-                                            new ColorItem("Chamoisee", 160, 120, 90),
-                                            new ColorItem("Champagne", 247, 231, 206),
-                                            new ColorItem("Charcoal", 54, 69, 79),
-                                            new ColorItem("Charleston green", 35, 43, 43),
-                                            new ColorItem("Charm pink", 230, 143, 172),
-                                            new ColorItem("Chartreuse (traditional)", 223, 255, 0),
-                                            new ColorItem("Cherry blossom pink", 255, 183, 197),
-                                            new ColorItem("Chestnut", 149, 69, 53),
-                                            new ColorItem("China pink", 222, 111, 161),
-                                            new ColorItem("China rose", 168, 81, 110),
-                                            new ColorItem("Chinese red", 170, 56, 30),
-                                            new ColorItem("Chinese violet", 133, 96, 136),
-                                            new ColorItem("Chocolate (traditional)", 123, 63, 0),
-                                            new ColorItem("Chrome yellow", 255, 167, 0),
-                                            new ColorItem("Cinereous", 152, 129, 123),
-                                            new ColorItem("Cinnabar", 227, 66, 52),
-                                            new ColorItem("Citrine", 228, 208, 10),
-                                            new ColorItem("Citron", 159, 169, 31),
-                                            new ColorItem("Claret", 127, 23, 52),
-                                            new ColorItem("Classic rose", 251, 204, 231),
-                                            new ColorItem("Cobalt blue", 0, 71, 171),
-                                            new ColorItem("Coconut", 150, 90, 62),
-                                            new ColorItem("Coffee", 111, 78, 55),
-                                            new ColorItem("Columbia blue", 196, 216, 226),
-                                            new ColorItem("Congo pink", 248, 131, 121),
-                                            new ColorItem("Cool grey", 140, 146, 172),
-                                            new ColorItem("Copper", 184, 115, 51),
-                                            new ColorItem("Copper (Crayola)", 218, 138, 103),
-                                            new ColorItem("Copper penny", 173, 111, 105),
-                                            new ColorItem("Copper red", 203, 109, 81),
-                                            new ColorItem("Copper rose", 153, 102, 102),
-                                            new ColorItem("Coquelicot", 255, 56, 0),
-                                            new ColorItem("Coral red", 255, 64, 64),
-                                            new ColorItem("Cordovan", 137, 63, 69),
-                                            new ColorItem("Corn", 251, 236, 93),
-                                            new ColorItem("Cosmic latte", 255, 248, 231),
-                                            new ColorItem("Coyote brown", 129, 97, 62),
-                                            new ColorItem("Cotton candy", 255, 188, 217),
-                                            new ColorItem("Cream", 255, 253, 208),
-                                            new ColorItem("Crimson glory", 190, 0, 50),
-                                            new ColorItem("Crimson red", 153, 0, 0),
-                                            new ColorItem("Cyan azure", 78, 130, 180),
-                                            new ColorItem("Cyan-blue azure", 70, 130, 191),
-                                            new ColorItem("Cyan cobalt blue", 40, 88, 156),
-                                            new ColorItem("Cyan cornflower blue", 24, 139, 194),
-                                            new ColorItem("Cyan (process)", 0, 183, 235),
-                                            new ColorItem("Cyber grape", 88, 66, 124),
-                                            new ColorItem("Cyber yellow", 255, 211, 0),
-                                            new ColorItem("Daffodil", 255, 255, 49),
-                                            new ColorItem("Dandelion", 240, 225, 48),
-                                            new ColorItem("Dark blue-gray", 102, 102, 153),
-                                            new ColorItem("Dark brown", 101, 67, 33),
-                                            new ColorItem("Dark brown-tangelo", 136, 101, 78),
-                                            new ColorItem("Dark byzantium", 93, 57, 84),
-                                            new ColorItem("Dark candy apple red", 164, 0, 0),
-                                            new ColorItem("Dark cerulean", 8, 69, 126),
-                                            new ColorItem("Dark chestnut", 152, 105, 96),
-                                            new ColorItem("Dark coral", 205, 91, 69),
-                                            new ColorItem("Dark electric blue", 83, 104, 120),
-                                            new ColorItem("Dark green", 1, 50, 32),
-                                            new ColorItem("Dark imperial blue", 0, 65, 106),
-                                            new ColorItem("Dark jungle green", 26, 36, 33),
-                                            new ColorItem("Dark lava", 72, 60, 50),
-                                            new ColorItem("Dark lavender", 115, 79, 150),
-                                            new ColorItem("Dark liver", 83, 75, 79),
-                                            new ColorItem("Dark liver (horses)", 84, 61, 55),
-                                            new ColorItem("Dark midnight blue", 0, 51, 102),
-                                            new ColorItem("Dark moss green", 74, 93, 35),
-                                            new ColorItem("Dark pastel blue", 119, 158, 203),
-                                            new ColorItem("Dark pastel green", 3, 192, 60),
-                                            new ColorItem("Dark pastel purple", 150, 111, 214),
-                                            new ColorItem("Dark pastel red", 194, 59, 34),
-                                            new ColorItem("Dark pink", 231, 84, 128),
-                                            new ColorItem("Dark powder blue", 0, 51, 153),
-                                            new ColorItem("Dark puce", 79, 58, 60),
-                                            new ColorItem("Dark raspberry", 135, 38, 87),
-                                            new ColorItem("Dark scarlet", 86, 3, 25),
-                                            new ColorItem("Dark sienna", 60, 20, 20),
-                                            new ColorItem("Dark sky blue", 140, 190, 214),
-                                            new ColorItem("Dark spring green", 23, 114, 69),
-                                            new ColorItem("Dark tan", 145, 129, 81),
-                                            new ColorItem("Dark tangerine", 255, 168, 18),
-                                            new ColorItem("Dark terra cotta", 204, 78, 92),
-                                            new ColorItem("Dark vanilla", 209, 190, 168),
-                                            new ColorItem("Dark yellow", 155, 135, 12),
-                                            new ColorItem("Dartmouth green", 0, 112, 60),
-                                            new ColorItem("Davy's grey", 85, 85, 85),
-                                            new ColorItem("Debian red", 215, 10, 83),
-                                            new ColorItem("Deep aquamarine", 64, 130, 109),
-                                            new ColorItem("Deep carmine", 169, 32, 62),
-                                            new ColorItem("Deep carmine pink", 239, 48, 56),
-                                            new ColorItem("Deep carrot orange", 233, 105, 44),
-                                            new ColorItem("Deep cerise", 218, 50, 135),
-                                            new ColorItem("Deep champagne", 250, 214, 165),
-                                            new ColorItem("Deep chestnut", 185, 78, 72),
-                                            new ColorItem("Deep coffee", 112, 66, 65),
-                                            new ColorItem("Deep fuchsia", 193, 84, 193),
-                                            new ColorItem("Deep Green", 5, 102, 8),
-                                            new ColorItem("Deep green-cyan turquoise", 14, 124, 97),
-                                            new ColorItem("Deep jungle green", 0, 75, 73),
-                                            new ColorItem("Deep koamaru", 51, 51, 102),
-                                            new ColorItem("Deep lemon", 245, 199, 26),
-                                            new ColorItem("Deep lilac", 153, 85, 187),
-                                            new ColorItem("Deep magenta", 204, 0, 204),
-                                            new ColorItem("Deep maroon", 130, 0, 0),
-                                            new ColorItem("Deep mauve", 212, 115, 212),
-                                            new ColorItem("Deep moss green", 53, 94, 59),
-                                            new ColorItem("Deep peach", 255, 203, 164),
-                                            new ColorItem("Deep puce", 169, 92, 104),
-                                            new ColorItem("Deep Red", 133, 1, 1),
-                                            new ColorItem("Deep ruby", 132, 63, 91),
-                                            new ColorItem("Deep saffron", 255, 153, 51),
-                                            new ColorItem("Deep Space Sparkle", 74, 100, 108),
-                                            new ColorItem("Deep Taupe", 126, 94, 96),
-                                            new ColorItem("Deep Tuscan red", 102, 66, 77),
-                                            new ColorItem("Deep violet", 51, 0, 102),
-                                            new ColorItem("Deer", 186, 135, 89),
-                                            new ColorItem("Denim", 21, 96, 189),
-                                            new ColorItem("Desaturated cyan", 102, 153, 153),
-                                            new ColorItem("Desert sand", 237, 201, 175),
-                                            new ColorItem("Desire", 234, 60, 83),
-                                            new ColorItem("Diamond", 185, 242, 255),
-                                            new ColorItem("Dirt", 155, 118, 83),
-                                            new ColorItem("Dogwood rose", 215, 24, 104),
-                                            new ColorItem("Dollar bill", 133, 187, 101),
-                                            new ColorItem("Donkey brown", 102, 76, 40),
-                                            new ColorItem("Duke blue", 0, 0, 156),
-                                            new ColorItem("Dust storm", 229, 204, 201),
-                                            new ColorItem("Dutch white", 239, 223, 187),
-                                            new ColorItem("Earth yellow", 225, 169, 95),
-                                            new ColorItem("Ebony", 85, 93, 80),
-                                            new ColorItem("Ecru", 194, 178, 128),
-                                            new ColorItem("Eerie black", 27, 27, 27),
-                                            new ColorItem("Eggplant", 97, 64, 81),
-                                            new ColorItem("Eggshell", 240, 234, 214),
-                                            new ColorItem("Egyptian blue", 16, 52, 166),
-                                            new ColorItem("Electric blue", 125, 249, 255),
-                                            new ColorItem("Electric crimson", 255, 0, 63),
-                                            new ColorItem("Electric indigo", 111, 0, 255),
-                                            new ColorItem("Electric lime", 204, 255, 0),
-                                            new ColorItem("Electric purple", 191, 0, 255),
-                                            new ColorItem("Electric ultramarine", 63, 0, 255),
-                                            new ColorItem("Electric violet", 143, 0, 255),
-                                            new ColorItem("Electric yellow", 255, 255, 51),
-                                            new ColorItem("Emerald", 80, 200, 120),
-                                            new ColorItem("Eminence", 108, 48, 130),
-                                            new ColorItem("English lavender", 180, 131, 149),
-                                            new ColorItem("English red", 171, 75, 82),
-                                            new ColorItem("English violet", 86, 60, 92),
-                                            new ColorItem("Eton blue", 150, 200, 162),
-                                            new ColorItem("Eucalyptus", 68, 215, 168),
-                                            new ColorItem("Falu red", 128, 24, 24),
-                                            new ColorItem("Fandango", 181, 51, 137),
-                                            new ColorItem("Fandango pink", 222, 82, 133),
-                                            new ColorItem("Fashion fuchsia", 244, 0, 161),
-                                            new ColorItem("Fawn", 229, 170, 112),
-                                            new ColorItem("Feldgrau", 77, 93, 83),
-                                            new ColorItem("Feldspar", 253, 213, 177),
-                                            new ColorItem("Fern green", 79, 121, 66),
-                                            new ColorItem("Ferrari Red", 255, 40, 0),
-                                            new ColorItem("Field drab", 108, 84, 30),
-                                            new ColorItem("Fire engine red", 206, 32, 41),
-                                            new ColorItem("Flame", 226, 88, 34),
-                                            new ColorItem("Flamingo pink", 252, 142, 172),
-                                            new ColorItem("Flavescent", 247, 233, 142),
-                                            new ColorItem("Flax", 238, 220, 130),
-                                            new ColorItem("Flirt", 162, 0, 109),
-                                            new ColorItem("Folly", 255, 0, 79),
-                                            new ColorItem("Forest green (traditional)", 1, 68, 33),
-                                            new ColorItem("French bistre", 133, 109, 77),
-                                            new ColorItem("French blue", 0, 114, 187),
-                                            new ColorItem("French fuchsia", 253, 63, 146),
-                                            new ColorItem("French lilac", 134, 96, 142),
-                                            new ColorItem("French lime", 158, 253, 56),
-                                            new ColorItem("French pink", 253, 108, 158),
-                                            new ColorItem("French plum", 129, 20, 83),
-                                            new ColorItem("French puce", 78, 22, 9),
-                                            new ColorItem("French raspberry", 199, 44, 72),
-                                            new ColorItem("French rose", 246, 74, 138),
-                                            new ColorItem("French sky blue", 119, 181, 254),
-                                            new ColorItem("French violet", 136, 6, 206),
-                                            new ColorItem("French wine", 172, 30, 68),
-                                            new ColorItem("Fresh Air", 166, 231, 255),
-                                            new ColorItem("Fuchsia pink", 255, 119, 255),
-                                            new ColorItem("Fuchsia purple", 204, 57, 123),
-                                            new ColorItem("Fuchsia rose", 199, 67, 117),
-                                            new ColorItem("Fulvous", 228, 132, 0),
-                                            new ColorItem("Fuzzy Wuzzy", 204, 102, 102),
-                                            new ColorItem("Gamboge", 228, 155, 15),
-                                            new ColorItem("Gamboge orange (brown)", 153, 102, 0),
-                                            new ColorItem("Generic viridian", 0, 127, 102),
-                                            new ColorItem("Giants orange", 254, 90, 29),
-                                            new ColorItem("Grussrel", 176, 101, 0),
-                                            new ColorItem("Glaucous", 96, 130, 182),
-                                            new ColorItem("Glitter", 230, 232, 250),
-                                            new ColorItem("GO green", 0, 171, 102),
-                                            new ColorItem("Gold (metallic)", 212, 175, 55),
-                                            new ColorItem("Gold Fusion", 133, 117, 78),
-                                            new ColorItem("Golden brown", 153, 101, 21),
-                                            new ColorItem("Golden poppy", 252, 194, 0),
-                                            new ColorItem("Golden yellow", 255, 223, 0),
-                                            new ColorItem("Granny Smith Apple", 168, 228, 160),
-                                            new ColorItem("Grape", 111, 45, 168),
-                                            new ColorItem("Gray (X11 gray)", 190, 190, 190),
-                                            new ColorItem("Gray-asparagus", 70, 89, 69),
-                                            new ColorItem("Green (Crayola)", 28, 172, 120),
-                                            new ColorItem("Green (Munsell)", 0, 168, 119),
-                                            new ColorItem("Green (NCS)", 0, 159, 107),
-                                            new ColorItem("Green (Pantone)", 0, 173, 67),
-                                            new ColorItem("Green (pigment)", 0, 165, 80),
-                                            new ColorItem("Green (RYB)", 102, 176, 50),
-                                            new ColorItem("Green-blue", 17, 100, 180),
-                                            new ColorItem("Green-cyan", 0, 153, 102),
-                                            new ColorItem("Grizzly", 136, 88, 24),
-                                            new ColorItem("Grullo", 169, 154, 134),
-                                            new ColorItem("Halayà úbe", 102, 56, 84),
-                                            new ColorItem("Han blue", 68, 108, 207),
-                                            new ColorItem("Han purple", 82, 24, 250),
-                                            new ColorItem("Harlequin", 63, 255, 0),
-                                            new ColorItem("Harlequin green", 70, 203, 24),
-                                            new ColorItem("Harvard crimson", 201, 0, 22),
-                                            new ColorItem("Harvest gold", 218, 145, 0),
-                                            new ColorItem("Heliotrope", 223, 115, 255),
-                                            new ColorItem("Heliotrope gray", 170, 152, 169),
-                                            new ColorItem("Heliotrope magenta", 170, 0, 187),
-                                            new ColorItem("Honolulu blue", 0, 109, 176),
-                                            new ColorItem("Hooker's green", 73, 121, 107),
-                                            new ColorItem("Hot magenta", 255, 29, 206),
-                                            new ColorItem("Iceberg", 113, 166, 210),
-                                            new ColorItem("Icterine", 252, 247, 94),
-                                            new ColorItem("Illuminating Emerald", 49, 145, 119),
-                                            new ColorItem("Imperial", 96, 47, 107),
-                                            new ColorItem("Imperial blue", 0, 35, 149),
-                                            new ColorItem("Imperial purple", 102, 2, 60),
-                                            new ColorItem("Imperial red", 237, 41, 57),
-                                            new ColorItem("Inchworm", 178, 236, 93),
-                                            new ColorItem("Independence", 76, 81, 109),
-                                            new ColorItem("India green", 19, 136, 8),
-                                            new ColorItem("Indian yellow", 227, 168, 87),
-                                            new ColorItem("Indigo dye", 9, 31, 146),
-                                            new ColorItem("International Klein Blue", 0, 47, 167),
-                                            new ColorItem("International orange (aerospace)", 255, 79, 0),
-                                            new ColorItem("International orange (engineering)", 186, 22, 12),
-                                            new ColorItem("International orange (Golden Gate Bridge)", 192, 54, 44),
-                                            new ColorItem("Iris", 90, 79, 207),
-                                            new ColorItem("Irresistible", 179, 68, 108),
-                                            new ColorItem("Isabelline", 244, 240, 236),
-                                            new ColorItem("Islamic green", 0, 144, 0),
-                                            new ColorItem("Jade", 0, 168, 107),
-                                            new ColorItem("Japanese carmine", 157, 41, 51),
-                                            new ColorItem("Japanese indigo", 38, 67, 72),
-                                            new ColorItem("Japanese violet", 91, 50, 86),
-                                            new ColorItem("Jasmine", 248, 222, 126),
-                                            new ColorItem("Jasper", 215, 59, 62),
-                                            new ColorItem("Jazzberry jam", 165, 11, 94),
-                                            new ColorItem("Jelly Bean", 218, 97, 78),
-                                            new ColorItem("Jet", 52, 52, 52),
-                                            new ColorItem("Jonquil", 244, 202, 22),
-                                            new ColorItem("Jordy blue", 138, 185, 241),
-                                            new ColorItem("June bud", 189, 218, 87),
-                                            new ColorItem("Jungle green", 41, 171, 135),
-                                            new ColorItem("Kelly green", 76, 187, 23),
-                                            new ColorItem("Kenyan copper", 124, 28, 5),
-                                            new ColorItem("Keppel", 58, 176, 158),
-                                            new ColorItem("Jawad/Chicken Color (HTML/CSS) (Khaki)", 195, 176, 145),
-                                            new ColorItem("Kobe", 136, 45, 23),
-                                            new ColorItem("Kobi", 231, 159, 196),
-                                            new ColorItem("Kombu green", 53, 66, 48),
-                                            new ColorItem("KU Crimson", 232, 0, 13),
-                                            new ColorItem("La Salle Green", 8, 120, 48),
-                                            new ColorItem("Languid lavender", 214, 202, 221),
-                                            new ColorItem("Lapis lazuli", 38, 97, 156),
-                                            new ColorItem("Laser Lemon", 255, 255, 102),
-                                            new ColorItem("Laurel green", 169, 186, 157),
-                                            new ColorItem("Lava", 207, 16, 32),
-                                            new ColorItem("Lavender (floral)", 181, 126, 220),
-                                            new ColorItem("Lavender blue", 204, 204, 255),
-                                            new ColorItem("Lavender gray", 196, 195, 208),
-                                            new ColorItem("Lavender indigo", 148, 87, 235),
-                                            new ColorItem("Lavender pink", 251, 174, 210),
-                                            new ColorItem("Lavender purple", 150, 123, 182),
-                                            new ColorItem("Lavender rose", 251, 160, 227),
-                                            new ColorItem("Lemon", 255, 247, 0),
-                                            new ColorItem("Lemon curry", 204, 160, 29),
-                                            new ColorItem("Lemon glacier", 253, 255, 0),
-                                            new ColorItem("Lemon lime", 227, 255, 0),
-                                            new ColorItem("Lemon meringue", 246, 234, 190),
-                                            new ColorItem("Lemon yellow", 255, 244, 79),
-                                            new ColorItem("Lenurple", 186, 147, 216),
-                                            new ColorItem("Licorice", 26, 17, 16),
-                                            new ColorItem("Liberty", 84, 90, 167),
-                                            new ColorItem("Light brilliant red", 254, 46, 46),
-                                            new ColorItem("Light brown", 181, 101, 29),
-                                            new ColorItem("Light carmine pink", 230, 103, 113),
-                                            new ColorItem("Light cobalt blue", 136, 172, 224),
-                                            new ColorItem("Light cornflower blue", 147, 204, 234),
-                                            new ColorItem("Light crimson", 245, 105, 145),
-                                            new ColorItem("Light deep pink", 255, 92, 205),
-                                            new ColorItem("Light French beige", 200, 173, 127),
-                                            new ColorItem("Light fuchsia pink", 249, 132, 239),
-                                            new ColorItem("Light grayish magenta", 204, 153, 204),
-                                            new ColorItem("Light hot pink", 255, 179, 222),
-                                            new ColorItem("Light medium orchid", 211, 155, 203),
-                                            new ColorItem("Light moss green", 173, 223, 173),
-                                            new ColorItem("Light orchid", 230, 168, 215),
-                                            new ColorItem("Light pastel purple", 177, 156, 217),
-                                            new ColorItem("Light salmon pink", 255, 153, 153),
-                                            new ColorItem("Light taupe", 179, 139, 109),
-                                            new ColorItem("Lilac", 200, 162, 200),
-                                            new ColorItem("Limerick", 157, 194, 9),
-                                            new ColorItem("Lincoln green", 25, 89, 5),
-                                            new ColorItem("Little boy blue", 108, 160, 220),
-                                            new ColorItem("Liver", 103, 76, 71),
-                                            new ColorItem("Liver (dogs)", 184, 109, 41),
-                                            new ColorItem("Liver (organ)", 108, 46, 31),
-                                            new ColorItem("Liver chestnut", 152, 116, 86),
-                                            new ColorItem("Lumber", 255, 228, 205),
-                                            new ColorItem("Lust", 230, 32, 32),
-                                            new ColorItem("Magenta (dye)", 202, 31, 123),
-                                            new ColorItem("Magenta (Pantone)", 208, 65, 126),
-                                            new ColorItem("Magenta (process)", 255, 0, 144),
-                                            new ColorItem("Magenta haze", 159, 69, 118),
-                                            new ColorItem("Magenta-pink", 204, 51, 139),
-                                            new ColorItem("Magic mint", 170, 240, 209),
-                                            new ColorItem("Magnolia", 248, 244, 255),
-                                            new ColorItem("Mahogany", 192, 64, 0),
-                                            new ColorItem("Majorelle Blue", 96, 80, 220),
-                                            new ColorItem("Malachite", 11, 218, 81),
-                                            new ColorItem("Manatee", 151, 154, 170),
-                                            new ColorItem("Mango Tango", 255, 130, 67),
-                                            new ColorItem("Mantis", 116, 195, 101),
-                                            new ColorItem("Mardi Gras", 136, 0, 133),
-                                            new ColorItem("Maroon (X11)", 176, 48, 96),
-                                            new ColorItem("Mauve", 224, 176, 255),
-                                            new ColorItem("Mauve taupe", 145, 95, 109),
-                                            new ColorItem("Mauvelous", 239, 152, 170),
-                                            new ColorItem("May green", 76, 145, 65),
-                                            new ColorItem("Maya blue", 115, 194, 251),
-                                            new ColorItem("Meat brown", 229, 183, 59),
-                                            new ColorItem("Medium aquamarine", 102, 221, 170),
-                                            new ColorItem("Medium candy apple red", 226, 6, 44),
-                                            new ColorItem("Medium carmine", 175, 64, 53),
-                                            new ColorItem("Medium champagne", 243, 229, 171),
-                                            new ColorItem("Medium electric blue", 3, 80, 150),
-                                            new ColorItem("Medium jungle green", 28, 53, 45),
-                                            new ColorItem("Medium lavender magenta", 221, 160, 221),
-                                            new ColorItem("Medium Persian blue", 0, 103, 165),
-                                            new ColorItem("Medium red-violet", 187, 51, 133),
-                                            new ColorItem("Medium ruby", 170, 64, 105),
-                                            new ColorItem("Medium sky blue", 128, 218, 235),
-                                            new ColorItem("Medium spring bud", 201, 220, 135),
-                                            new ColorItem("Medium vermilion", 217, 96, 59),
-                                            new ColorItem("Mellow apricot", 248, 184, 120),
-                                            new ColorItem("Melon", 253, 188, 180),
-                                            new ColorItem("Metallic Seaweed", 10, 126, 140),
-                                            new ColorItem("Metallic Sunburst", 156, 124, 56),
-                                            new ColorItem("Mexican pink", 228, 0, 124),
-                                            new ColorItem("Midnight green (eagle green)", 0, 73, 83),
-                                            new ColorItem("Mikado yellow", 255, 196, 12),
-                                            new ColorItem("Mindaro", 227, 249, 136),
-                                            new ColorItem("Mint", 62, 180, 137),
-                                            new ColorItem("Mint green", 152, 255, 152),
-                                            new ColorItem("Moonstone blue", 115, 169, 194),
-                                            new ColorItem("Mordant red 19", 174, 12, 0),
-                                            new ColorItem("Moss green", 138, 154, 91),
-                                            new ColorItem("Mountain Meadow", 48, 186, 143),
-                                            new ColorItem("Mountbatten pink", 153, 122, 141),
-                                            new ColorItem("MSU Green", 24, 69, 59),
-                                            new ColorItem("Mughal green", 48, 96, 48),
-                                            new ColorItem("Mulberry", 197, 75, 140),
-                                            new ColorItem("Mustard", 255, 219, 88),
-                                            new ColorItem("Myrtle green", 49, 120, 115),
-                                            new ColorItem("", 246, 173, 198),
-                                            new ColorItem("Napier green", 42, 128, 0),
-                                            new ColorItem("Naples yellow", 250, 218, 94),
-                                            new ColorItem("Neon Carrot", 255, 163, 67),
-                                            new ColorItem("Neon fuchsia", 254, 65, 100),
-                                            new ColorItem("Neon green", 57, 255, 20),
-                                            new ColorItem("New Car", 33, 79, 198),
-                                            new ColorItem("New York pink", 215, 131, 127),
-                                            new ColorItem("Non-photo blue", 164, 221, 237),
-                                            new ColorItem("North Texas Green", 5, 144, 51),
-                                            new ColorItem("Nyanza", 233, 255, 219),
-                                            new ColorItem("Ocean Boat Blue", 0, 119, 190),
-                                            new ColorItem("Ochre", 204, 119, 34),
-                                            new ColorItem("Old burgundy", 67, 48, 46),
-                                            new ColorItem("Old gold", 207, 181, 59),
-                                            new ColorItem("Old lavender", 121, 104, 120),
-                                            new ColorItem("Old mauve", 103, 49, 71),
-                                            new ColorItem("Old moss green", 134, 126, 54),
-                                            new ColorItem("Old rose", 192, 128, 129),
-                                            new ColorItem("Olive Drab #7", 60, 52, 31),
-                                            new ColorItem("Olivine", 154, 185, 115),
-                                            new ColorItem("Onyx", 53, 56, 57),
-                                            new ColorItem("Opera mauve", 183, 132, 167),
-                                            new ColorItem("Orange (color wheel)", 255, 127, 0),
-                                            new ColorItem("Orange (Crayola)", 255, 117, 56),
-                                            new ColorItem("Orange (Pantone)", 255, 88, 0),
-                                            new ColorItem("Orange (RYB)", 251, 153, 2),
-                                            new ColorItem("Orange peel", 255, 159, 0),
-                                            new ColorItem("Orchid pink", 242, 189, 205),
-                                            new ColorItem("Orioles orange", 251, 79, 20),
-                                            new ColorItem("Outer Space", 65, 74, 76),
-                                            new ColorItem("Outrageous Orange", 255, 110, 74),
-                                            new ColorItem("Oxford Blue", 0, 33, 71),
-                                            new ColorItem("Pakistan green", 0, 102, 0),
-                                            new ColorItem("Palatinate blue", 39, 59, 226),
-                                            new ColorItem("Palatinate purple", 104, 40, 96),
-                                            new ColorItem("Pale brown", 152, 118, 84),
-                                            new ColorItem("Pale cerulean", 155, 196, 226),
-                                            new ColorItem("Pale chestnut", 221, 173, 175),
-                                            new ColorItem("Pale cornflower blue", 171, 205, 239),
-                                            new ColorItem("Pale cyan", 135, 211, 248),
-                                            new ColorItem("Pale gold", 230, 190, 138),
-                                            new ColorItem("Pale lavender", 220, 208, 255),
-                                            new ColorItem("Pale magenta", 249, 132, 229),
-                                            new ColorItem("Pale magenta-pink", 255, 153, 204),
-                                            new ColorItem("Pale pink", 250, 218, 221),
-                                            new ColorItem("Pale robin egg blue", 150, 222, 209),
-                                            new ColorItem("Pale silver", 201, 192, 187),
-                                            new ColorItem("Pale spring bud", 236, 235, 189),
-                                            new ColorItem("Pale taupe", 188, 152, 126),
-                                            new ColorItem("Pale violet", 204, 153, 255),
-                                            new ColorItem("Pansy purple", 120, 24, 74),
-                                            new ColorItem("Paolo Veronese green", 0, 155, 125),
-                                            new ColorItem("Paradise pink", 230, 62, 98),
-                                            new ColorItem("Pastel blue", 174, 198, 207),
-                                            new ColorItem("Pastel brown", 131, 105, 83),
-                                            new ColorItem("Pastel gray", 207, 207, 196),
-                                            new ColorItem("Pastel green", 119, 221, 119),
-                                            new ColorItem("Pastel magenta", 244, 154, 194),
-                                            new ColorItem("Pastel orange", 255, 179, 71),
-                                            new ColorItem("Pastel pink", 222, 165, 164),
-                                            new ColorItem("Pastel purple", 179, 158, 181),
-                                            new ColorItem("Pastel red", 255, 105, 97),
-                                            new ColorItem("Pastel violet", 203, 153, 201),
-                                            new ColorItem("Pastel yellow", 253, 253, 150),
-                                            new ColorItem("Peach", 255, 229, 180),
-                                            new ColorItem("Peach-orange", 255, 204, 153),
-                                            new ColorItem("Peach-yellow", 250, 223, 173),
-                                            new ColorItem("Pear", 209, 226, 49),
-                                            new ColorItem("Pearl", 234, 224, 200),
-                                            new ColorItem("Pearl Aqua", 136, 216, 192),
-                                            new ColorItem("Pearly purple", 183, 104, 162),
-                                            new ColorItem("Peridot", 230, 226, 0),
-                                            new ColorItem("Persian blue", 28, 57, 187),
-                                            new ColorItem("Persian green", 0, 166, 147),
-                                            new ColorItem("Persian indigo", 50, 18, 122),
-                                            new ColorItem("Persian orange", 217, 144, 88),
-                                            new ColorItem("Persian pink", 247, 127, 190),
-                                            new ColorItem("Persian plum", 112, 28, 28),
-                                            new ColorItem("Persian red", 204, 51, 51),
-                                            new ColorItem("Persian rose", 254, 40, 162),
-                                            new ColorItem("Persimmon", 236, 88, 0),
-                                            new ColorItem("Phlox", 223, 0, 255),
-                                            new ColorItem("Phthalo blue", 0, 15, 137),
-                                            new ColorItem("Phthalo green", 18, 53, 36),
-                                            new ColorItem("Picton blue", 69, 177, 232),
-                                            new ColorItem("Pictorial carmine", 195, 11, 78),
-                                            new ColorItem("Piggy pink", 253, 221, 230),
-                                            new ColorItem("Pine green", 1, 121, 111),
-                                            new ColorItem("Pink (Pantone)", 215, 72, 148),
-                                            new ColorItem("Pink lace", 255, 221, 244),
-                                            new ColorItem("Pink lavender", 216, 178, 209),
-                                            new ColorItem("Pink pearl", 231, 172, 207),
-                                            new ColorItem("Pink raspberry", 152, 0, 54),
-                                            new ColorItem("Pink Sherbet", 247, 143, 167),
-                                            new ColorItem("Pistachio", 147, 197, 114),
-                                            new ColorItem("Platinum", 229, 228, 226),
-                                            new ColorItem("Popstar", 190, 79, 98),
-                                            new ColorItem("Portland Orange", 255, 90, 54),
-                                            new ColorItem("Princeton orange", 245, 128, 37),
-                                            new ColorItem("Prussian blue", 0, 49, 83),
-                                            new ColorItem("Puce", 204, 136, 153),
-                                            new ColorItem("Puce red", 114, 47, 55),
-                                            new ColorItem("Pullman Brown (UPS Brown)", 100, 65, 23),
-                                            new ColorItem("Pullman Green", 59, 51, 28),
-                                            new ColorItem("Pumpkin", 255, 117, 24),
-                                            new ColorItem("Purple (Munsell)", 159, 0, 197),
-                                            new ColorItem("Purple (X11)", 160, 32, 240),
-                                            new ColorItem("Purple Heart", 105, 53, 156),
-                                            new ColorItem("Purple mountain majesty", 150, 120, 182),
-                                            new ColorItem("Purple navy", 78, 81, 128),
-                                            new ColorItem("Purple pizzazz", 254, 78, 218),
-                                            new ColorItem("Purple taupe", 80, 64, 77),
-                                            new ColorItem("Purpureus", 154, 78, 174),
-                                            new ColorItem("Quartz", 81, 72, 79),
-                                            new ColorItem("Queen blue", 67, 107, 149),
-                                            new ColorItem("Queen pink", 232, 204, 215),
-                                            new ColorItem("Quinacridone magenta", 142, 58, 89),
-                                            new ColorItem("Radical Red", 255, 53, 94),
-                                            new ColorItem("Rajah", 251, 171, 96),
-                                            new ColorItem("Raspberry", 227, 11, 93),
-                                            new ColorItem("Raspberry pink", 226, 80, 152),
-                                            new ColorItem("Raw umber", 130, 102, 68),
-                                            new ColorItem("Razzle dazzle rose", 255, 51, 204),
-                                            new ColorItem("Razzmatazz", 227, 37, 107),
-                                            new ColorItem("Razzmic Berry", 141, 78, 133),
-                                            new ColorItem("Rebecca Purple", 102, 51, 153),
-                                            new ColorItem("Red (Crayola)", 238, 32, 77),
-                                            new ColorItem("Red (Munsell)", 242, 0, 60),
-                                            new ColorItem("Red (NCS)", 196, 2, 51),
-                                            new ColorItem("Red (pigment)", 237, 28, 36),
-                                            new ColorItem("Red (RYB)", 254, 39, 18),
-                                            new ColorItem("Red devil", 134, 1, 17),
-                                            new ColorItem("Red-orange", 255, 83, 73),
-                                            new ColorItem("Red-purple", 228, 0, 120),
-                                            new ColorItem("Redwood", 164, 90, 82),
-                                            new ColorItem("Regalia", 82, 45, 128),
-                                            new ColorItem("Resolution blue", 0, 35, 135),
-                                            new ColorItem("Rhythm", 119, 118, 150),
-                                            new ColorItem("Rich black", 0, 64, 64),
-                                            new ColorItem("Rich brilliant lavender", 241, 167, 254),
-                                            new ColorItem("Rich electric blue", 8, 146, 208),
-                                            new ColorItem("Rich lavender", 167, 107, 207),
-                                            new ColorItem("Rich lilac", 182, 102, 210),
-                                            new ColorItem("Rifle green", 68, 76, 56),
-                                            new ColorItem("Robin egg blue", 0, 204, 204),
-                                            new ColorItem("Rocket metallic", 138, 127, 128),
-                                            new ColorItem("Roman silver", 131, 137, 150),
-                                            new ColorItem("Rose bonbon", 249, 66, 158),
-                                            new ColorItem("Rose ebony", 103, 72, 70),
-                                            new ColorItem("Rose gold", 183, 110, 121),
-                                            new ColorItem("Rose pink", 255, 102, 204),
-                                            new ColorItem("Rose red", 194, 30, 86),
-                                            new ColorItem("Rose taupe", 144, 93, 93),
-                                            new ColorItem("Rose vale", 171, 78, 82),
-                                            new ColorItem("Rosewood", 101, 0, 11),
-                                            new ColorItem("Rosso corsa", 212, 0, 0),
-                                            new ColorItem("Royal azure", 0, 56, 168),
-                                            new ColorItem("Royal blue", 0, 35, 102),
-                                            new ColorItem("Royal fuchsia", 202, 44, 146),
-                                            new ColorItem("Royal purple", 120, 81, 169),
-                                            new ColorItem("Ruber", 206, 70, 118),
-                                            new ColorItem("Rubine red", 209, 0, 86),
-                                            new ColorItem("Ruby", 224, 17, 95),
-                                            new ColorItem("Ruby red", 155, 17, 30),
-                                            new ColorItem("Ruddy", 255, 0, 40),
-                                            new ColorItem("Ruddy brown", 187, 101, 40),
-                                            new ColorItem("Ruddy pink", 225, 142, 150),
-                                            new ColorItem("Rufous", 168, 28, 7),
-                                            new ColorItem("Russet", 128, 70, 27),
-                                            new ColorItem("Russian green", 103, 146, 103),
-                                            new ColorItem("Russian violet", 50, 23, 77),
-                                            new ColorItem("Rust", 183, 65, 14),
-                                            new ColorItem("Rusty red", 218, 44, 67),
-                                            new ColorItem("Safety orange", 255, 120, 0),
-                                            new ColorItem("Safety orange (blaze orange)", 255, 103, 0),
-                                            new ColorItem("Safety yellow", 238, 210, 2),
-                                            new ColorItem("Saffron", 244, 196, 48),
-                                            new ColorItem("Sage", 188, 184, 138),
-                                            new ColorItem("St. Patrick's blue", 35, 41, 122),
-                                            new ColorItem("Salmon pink", 255, 145, 164),
-                                            new ColorItem("Sandstorm", 236, 213, 64),
-                                            new ColorItem("Sangria", 146, 0, 10),
-                                            new ColorItem("Sap green", 80, 125, 42),
-                                            new ColorItem("Sapphire", 15, 82, 186),
-                                            new ColorItem("Satin sheen gold", 203, 161, 53),
-                                            new ColorItem("Scarlet", 255, 36, 0),
-                                            new ColorItem("Tractor red", 253, 14, 53),
-                                            new ColorItem("School bus yellow", 255, 216, 0),
-                                            new ColorItem("Screamin' Green", 118, 255, 122),
-                                            new ColorItem("Sea blue", 0, 105, 148),
-                                            new ColorItem("Seal brown", 50, 20, 20),
-                                            new ColorItem("Selective yellow", 255, 186, 0),
-                                            new ColorItem("Sepia", 112, 66, 20),
-                                            new ColorItem("Shadow", 138, 121, 93),
-                                            new ColorItem("Shadow blue", 119, 139, 165),
-                                            new ColorItem("Shampoo", 255, 207, 241),
-                                            new ColorItem("Shamrock green", 0, 158, 96),
-                                            new ColorItem("Sheen Green", 143, 212, 0),
-                                            new ColorItem("Shimmering Blush", 217, 134, 149),
-                                            new ColorItem("Shocking pink", 252, 15, 192),
-                                            new ColorItem("Shocking pink (Crayola)", 255, 111, 255),
-                                            new ColorItem("Silver chalice", 172, 172, 172),
-                                            new ColorItem("Silver Lake blue", 93, 137, 186),
-                                            new ColorItem("Silver pink", 196, 174, 173),
-                                            new ColorItem("Silver sand", 191, 193, 194),
-                                            new ColorItem("Sinopia", 203, 65, 11),
-                                            new ColorItem("Skobeloff", 0, 116, 116),
-                                            new ColorItem("Sky magenta", 207, 113, 175),
-                                            new ColorItem("Smitten", 200, 65, 134),
-                                            new ColorItem("Smoke", 115, 130, 118),
-                                            new ColorItem("Smoky black", 16, 12, 8),
-                                            new ColorItem("Smoky Topaz", 147, 61, 65),
-                                            new ColorItem("Soap", 206, 200, 239),
-                                            new ColorItem("Solid pink", 137, 56, 67),
-                                            new ColorItem("Sonic silver", 117, 117, 117),
-                                            new ColorItem("Spartan Crimson", 158, 19, 22),
-                                            new ColorItem("Space cadet", 29, 41, 81),
-                                            new ColorItem("Spanish bistre", 128, 117, 50),
-                                            new ColorItem("Spanish blue", 0, 112, 184),
-                                            new ColorItem("Spanish carmine", 209, 0, 71),
-                                            new ColorItem("Spanish crimson", 229, 26, 76),
-                                            new ColorItem("Spanish gray", 152, 152, 152),
-                                            new ColorItem("Spanish green", 0, 145, 80),
-                                            new ColorItem("Spanish orange", 232, 97, 0),
-                                            new ColorItem("Spanish pink", 247, 191, 190),
-                                            new ColorItem("Spanish red", 230, 0, 38),
-                                            new ColorItem("Spanish violet", 76, 40, 130),
-                                            new ColorItem("Spanish viridian", 0, 127, 92),
-                                            new ColorItem("Spicy mix", 139, 95, 77),
-                                            new ColorItem("Spiro Disco Ball", 15, 192, 252),
-                                            new ColorItem("Spring bud", 167, 252, 0),
-                                            new ColorItem("Star command blue", 0, 123, 184),
-                                            new ColorItem("Steel pink", 204, 51, 204),
-                                            new ColorItem("Stormcloud", 79, 102, 106),
-                                            new ColorItem("Straw", 228, 217, 111),
-                                            new ColorItem("Strawberry", 252, 90, 141),
-                                            new ColorItem("Sunglow", 255, 204, 51),
-                                            new ColorItem("Sunray", 227, 171, 87),
-                                            new ColorItem("Sunset orange", 253, 94, 83),
-                                            new ColorItem("Super pink", 207, 107, 169),
-                                            new ColorItem("Tangelo", 249, 77, 0),
-                                            new ColorItem("Tangerine", 242, 133, 0),
-                                            new ColorItem("Tangerine yellow", 255, 204, 0),
-                                            new ColorItem("Taupe gray", 139, 133, 137),
-                                            new ColorItem("Tea green", 208, 240, 192),
-                                            new ColorItem("Teal blue", 54, 117, 136),
-                                            new ColorItem("Teal deer", 153, 230, 179),
-                                            new ColorItem("Teal green", 0, 130, 127),
-                                            new ColorItem("Telemagenta", 207, 52, 118),
-                                            new ColorItem("Tenné", 205, 87, 0),
-                                            new ColorItem("Terra cotta", 226, 114, 91),
-                                            new ColorItem("Tickle Me Pink", 252, 137, 172),
-                                            new ColorItem("Tiffany Blue", 10, 186, 181),
-                                            new ColorItem("Tiger's eye", 224, 141, 60),
-                                            new ColorItem("Timberwolf", 219, 215, 210),
-                                            new ColorItem("Titanium yellow", 238, 230, 0),
-                                            new ColorItem("Toolbox", 116, 108, 192),
-                                            new ColorItem("Topaz", 255, 200, 124),
-                                            new ColorItem("Tropical rain forest", 0, 117, 94),
-                                            new ColorItem("True Blue", 0, 115, 207),
-                                            new ColorItem("Tufts Blue", 65, 125, 193),
-                                            new ColorItem("Tulip", 255, 135, 141),
-                                            new ColorItem("Tumbleweed", 222, 170, 136),
-                                            new ColorItem("Turkish rose", 181, 114, 129),
-                                            new ColorItem("Turquoise blue", 0, 255, 239),
-                                            new ColorItem("Turquoise green", 160, 214, 180),
-                                            new ColorItem("Tuscan red", 124, 72, 72),
-                                            new ColorItem("Tuscany", 192, 153, 153),
-                                            new ColorItem("Twilight lavender", 138, 73, 107),
-                                            new ColorItem("UA blue", 0, 51, 170),
-                                            new ColorItem("UA red", 217, 0, 76),
-                                            new ColorItem("Ube", 136, 120, 195),
-                                            new ColorItem("UCLA Blue", 83, 104, 149),
-                                            new ColorItem("UCLA Gold", 255, 179, 0),
-                                            new ColorItem("UFO Green", 60, 208, 112),
-                                            new ColorItem("Ultramarine", 18, 10, 143),
-                                            new ColorItem("Ultramarine blue", 65, 102, 245),
-                                            new ColorItem("Ultra red", 252, 108, 133),
-                                            new ColorItem("Umber", 99, 81, 71),
-                                            new ColorItem("Unbleached silk", 255, 221, 202),
-                                            new ColorItem("United Nations blue", 91, 146, 229),
-                                            new ColorItem("University of California Gold", 183, 135, 39),
-                                            new ColorItem("UP Maroon", 123, 17, 19),
-                                            new ColorItem("Upsdell red", 174, 32, 41),
-                                            new ColorItem("Urobilin", 225, 173, 33),
-                                            new ColorItem("USAFA blue", 0, 79, 152),
-                                            new ColorItem("University of Tennessee Orange", 247, 127, 0),
-                                            new ColorItem("Utah Crimson", 211, 0, 63),
-                                            new ColorItem("Vanilla ice", 243, 143, 169),
-                                            new ColorItem("Vegas gold", 197, 179, 88),
-                                            new ColorItem("Venetian red", 200, 8, 21),
-                                            new ColorItem("Verdigris", 67, 179, 174),
-                                            new ColorItem("Vermilion", 217, 56, 30),
-                                            new ColorItem("Very light azure", 116, 187, 251),
-                                            new ColorItem("Very light blue", 102, 102, 255),
-                                            new ColorItem("Very light malachite green", 100, 233, 134),
-                                            new ColorItem("Very light tangelo", 255, 176, 119),
-                                            new ColorItem("Very pale orange", 255, 223, 191),
-                                            new ColorItem("Very pale yellow", 255, 255, 191),
-                                            new ColorItem("Violet (color wheel)", 127, 0, 255),
-                                            new ColorItem("Violet (RYB)", 134, 1, 175),
-                                            new ColorItem("Violet-blue", 50, 74, 178),
-                                            new ColorItem("Violet-red", 247, 83, 148),
-                                            new ColorItem("Viridian green", 0, 150, 152),
-                                            new ColorItem("Vista blue", 124, 158, 217),
-                                            new ColorItem("Vivid amber", 204, 153, 0),
-                                            new ColorItem("Vivid auburn", 146, 39, 36),
-                                            new ColorItem("Vivid burgundy", 159, 29, 53),
-                                            new ColorItem("Vivid cerise", 218, 29, 129),
-                                            new ColorItem("Vivid cerulean", 0, 170, 238),
-                                            new ColorItem("Vivid crimson", 204, 0, 51),
-                                            new ColorItem("Vivid gamboge", 255, 153, 0),
-                                            new ColorItem("Vivid lime green", 166, 214, 8),
-                                            new ColorItem("Vivid malachite", 0, 204, 51),
-                                            new ColorItem("Vivid mulberry", 184, 12, 227),
-                                            new ColorItem("Vivid orange", 255, 95, 0),
-                                            new ColorItem("Vivid orange peel", 255, 160, 0),
-                                            new ColorItem("Vivid orchid", 204, 0, 255),
-                                            new ColorItem("Vivid raspberry", 255, 0, 108),
-                                            new ColorItem("Vivid red", 247, 13, 26),
-                                            new ColorItem("Vivid red-tangelo", 223, 97, 36),
-                                            new ColorItem("Vivid sky blue", 0, 204, 255),
-                                            new ColorItem("Vivid tangelo", 240, 116, 39),
-                                            new ColorItem("Vivid tangerine", 255, 160, 137),
-                                            new ColorItem("Vivid vermilion", 229, 96, 36),
-                                            new ColorItem("Vivid violet", 159, 0, 255),
-                                            new ColorItem("Vivid yellow", 255, 227, 2),
-                                            new ColorItem("Warm black", 0, 66, 66),
-                                            new ColorItem("Waterspout", 164, 244, 249),
-                                            new ColorItem("Wenge", 100, 84, 82),
-                                            new ColorItem("Wild blue yonder", 162, 173, 208),
-                                            new ColorItem("Wild orchid", 212, 112, 162),
-                                            new ColorItem("Wild Strawberry", 255, 67, 164),
-                                            new ColorItem("Willpower orange", 253, 88, 0),
-                                            new ColorItem("Windsor tan", 167, 85, 2),
-                                            new ColorItem("Wisteria", 201, 160, 220),
-                                            new ColorItem("Xanadu", 115, 134, 120),
-                                            new ColorItem("Yale Blue", 15, 77, 146),
-                                            new ColorItem("Yankees blue", 28, 40, 65),
-                                            new ColorItem("Yellow (Crayola)", 252, 232, 131),
-                                            new ColorItem("Yellow (Munsell)", 239, 204, 0),
-                                            new ColorItem("Yellow (Pantone)", 254, 223, 0),
-                                            new ColorItem("Yellow (RYB)", 254, 254, 51),
-                                            new ColorItem("Yellow Orange", 255, 174, 66),
-                                            new ColorItem("Yellow rose", 255, 240, 0),
-                                            new ColorItem("Zaffre", 0, 20, 168),
-                                            new ColorItem("Zinnwaldite brown", 44, 22, 8),
-                                            new ColorItem("Zomp", 57, 167, 142)}; 
-  /* 
-   * The tree set below contains all of the colors in sorted order. 
-   * They are in the same order as the items array. This allows the
-   * colors to be obtained in order, from the first to the last. In
-   * practice, what is really needed (and done) is to return the
-   * next available color from the palette. Each entry in the set is an 
-   * index value of the color in the items array. Note that when a color 
-   * is pulled from this set, the set entry is removed. When the color is 
-   * returned to the pool, the set entry is added back. This means that 
-   * this tree set is the actual color palette pool.
-   */
-  final private TreeSet<Integer> itemsTree = new TreeSet<Integer>();
+  /**
+   * The value returned by the primitive get methods when no color is
+   * available. Colors from the pool always have the alpha channel set
+   * to 255, so this value (transparent black) is never a pool color.
+   */
+  public static final int NO_COLOR = 0;
+  /* The alpha channel value that is added to every color returned */
+  final private static int ALPHA = 255 << 24;
+  /* The magic number at the start of every pool snapshot ('CPST') */
+  final private static int SNAPSHOT_MAGIC = 0x43505354;
+  /* The version of the pool snapshot format written by this class */
+  final private static int SNAPSHOT_VERSION = 1;
+  /**
+   * The Scope values below restrict the colors that a search of the
+   * color palette may return. A search can look at all of the colors 
+   * of the palette, only at the free colors (still in the pool), or 
+   * only at the busy colors (pulled from the pool).
+   */
+  public enum Scope {
+    /** Search all of the colors, free or busy */
+    ALL, 
+    /** Search only the colors that are still in the pool */
+    FREE, 
+    /** Search only the colors that have been pulled from the pool */
+    BUSY
+  }
+  /**
+   * The Policy values below select the free color that is returned by
+   * the get next color methods.
+   */
+  public enum Policy {
+    /** 
+     * Return the lowest free color, which means the most popular colors
+     * are returned first. This is the default policy.
+     */
+    LOWEST, 
+    /** 
+     * Return the free color that is farthest (by CIE76 color difference) 
+     * from the closest busy color. If no color is busy, the lowest free 
+     * color is returned.
+     */
+    DISTINCT,
+    /** 
+     * Return the free color that is farthest from the closest busy color,
+     * like the distinct policy, but with the color difference measured 
+     * with normal vision and with simulated protanopia, deuteranopia and
+     * tritanopia, taking the smallest of the four. Colors that only 
+     * differ in ways that viewers with a color vision deficiency can not
+     * see (such as red and green) count as close together. If no color
+     * is busy, the lowest free color is returned.
+     */
+    CVD_SAFE
+  }
+  /**
+   * The RampSpace values below select the color space in which the steps
+   * of a color ramp are spread out (see {@link #ramp(String, String, int)}).
+   */
+  public enum RampSpace {
+    /** CIELAB, where equal steps are roughly equal CIE76 color differences */
+    LAB,
+    /** OKLab, which keeps hues more even than CIELAB, especially for blues */
+    OKLAB
+  }
+  /**
+   * The RgbPredicate interface is implemented by code that picks colors
+   * by RGB value. See {@link #exclude(RgbPredicate)}.
+   */
+  public interface RgbPredicate {
+    /**
+     * Check if an RGB value is wanted.
+     *
+     * @param rgb  the RGB value to be checked (without an alpha channel)
+     * @return     true if the RGB value is wanted
+     */
+    boolean test(int rgb);
+  }
+  /**
+   * The LeaseListener interface is implemented by code that wants to be 
+   * told when a leased color runs out and is returned to the pool. See
+   * {@link #setLeaseListener(LeaseListener)}.
+   */
+  public interface LeaseListener {
+    /**
+     * Called after a leased color has run out and has been returned to
+     * the color pool. The listener is called on the thread that was using
+     * the color palette when the lease was found to have run out.
+     *
+     * @param argb the color that was returned, in ARGB format
+     */
+    void leaseExpired(int argb);
+  }
   /* 
-   * The hash map below maps color names to color numbers. Color
-   * numbers are not RGB values (in this case), but index values
-   * for the original color items array. This map is required so 
-   * that colors can be pulled from the pool by name, rather than 
-   * just in next available color order. This map is never changed 
-   * (at all) once it is created. The key to this hash map is the 
-   * color name (a Java string). The value is the color number.
-   */
-  final private HashMap<String, Integer> itemsByName = 
-    new HashMap<String, Integer>();
+   * The two constants below contain all of the colors that go into the 
+   * pool, in pool order. The first is an array of the RGB values of the
+   * colors. The second is one string with the names of the colors, each
+   * name followed by a newline. Keeping the colors in this packed form 
+   * means that initializing this class only fills one int array and
+   * builds no objects for each color. The strings for the color names 
+   * are only built when they are needed. Note that the two lists must
+   * be kept in the same order.
+   */
+  final private static int itemsRgb[] = {
+    0xff0000,
+    0x008000,
+    0x0000ff,
+    0x00ffff,
+    0xff00ff,
+    0xffff00,
+    0x800000,
+    0x808000,
+    0x00ff00,
+    0x008080,
+    0x000080,
+    0x800080,
+    0xffffff,
+    0x000000,
+    0xc0c0c0,
+    0x808080,
+    0xf0f8ff,
+    0xfaebd7,
+    0x7fffd4,
+    0x007fff,
+    0xf5f5dc,
+    0xffe4c4,
+    0xffebcd,
+    0x8a2be2,
+    0xa52a2a,
+    0xdeb887,
+    0x5f9ea0,
+    0x7fff00,
+    0xd2691e,
+    0xff7f50,
+    0x6495ed,
+    0xfff8dc,
+    0xdc143c,
+    0x00008b,
+    0x008b8b,
+    0xb8860b,
+    0xa9a9a9,
+    0x006400,
+    0xbdb76b,
+    0x8b008b,
+    0x556b2f,
+    0xff8c00,
+    0x9932cc,
+    0x8b0000,
+    0xe9967a,
+    0x8fbc8f,
+    0x483d8b,
+    0x2f4f4f,
+    0x00ced1,
+    0x9400d3,
+    0xff1493,
+    0x00bfff,
+    0x696969,
+    0x1e90ff,
+    0xb22222,
+    0xfffaf0,
+    0x228b22,
+    0xdcdcdc,
+    0xf8f8ff,
+    0xffd700,
+    0xdaa520,
+    0xadff2f,
+    0xf0fff0,
+    0xff69b4,
+    0xcd5c5c,
+    0x4b0082,
+    0xfffff0,
+    0xf0e68c,
+    0xe6e6fa,
+    0xfff0f5,
+    0x7cfc00,
+    0xfffacd,
+    0xadd8e6,
+    0xf08080,
+    0xe0ffff,
+    0xfafad2,
+    0xd3d3d3,
+    0x90ee90,
+    0xffb6c1,
+    0xffa07a,
+    0x20b2aa,
+    0x87cefa,
+    0x778899,
+    0xb0c4de,
+    0xffffe0,
+    0x32cd32,
+    0xfaf0e6,
+    0x66cdaa,
+    0x0000cd,
+    0xba55d3,
+    0x9370db,
+    0x3cb371,
+    0x7b68ee,
+    0x00fa9a,
+    0x48d1cc,
+    0xc71585,
+    0x191970,
+    0xf5fffa,
+    0xffe4e1,
+    0xffe4b5,
+    0xffdead,
+    0xfdf5e6,
+    0x6b8e23,
+    0xffa500,
+    0xff4500,
+    0xda70d6,
+    0xeee8aa,
+    0x98fb98,
+    0xafeeee,
+    0xdb7093,
+    0xffefd5,
+    0xffdab9,
+    0xcd853f,
+    0xffc0cb,
+    0x8e4585,
+    0xb0e0e6,
+    0xbc8f8f,
+    0x4169e1,
+    0x8b4513,
+    0xfa8072,
+    0xf4a460,
+    0x2e8b57,
+    0xfff5ee,
+    0xa0522d,
+    0x87ceeb,
+    0x6a5acd,
+    0x708090,
+    0xfffafa,
+    0x00ff7f,
+    0x4682b4,
+    0xd2b48c,
+    0xd8bfd8,
+    0xff6347,
+    0x40e0d0,
+    0xee82ee,
+    0xf5deb3,
+    0xf5f5f5,
+    0x9acd32,
+    0xb0bf1a,
+    0x7cb9e8,
+    0xc9ffe5,
+    0xb284be,
+    0x5d8aa8,
+    0x00308f,
+    0x72a0c1,
+    0xaf002a,
+    0xe32636,
+    0xc46210,
+    0xefdecd,
+    0xe52b50,
+    0xf19cbb,
+    0xab274f,
+    0xd3212d,
+    0x3b7a57,
+    0xffbf00,
+    0xff7e00,
+    0xff033e,
+    0x9966cc,
+    0xa4c639,
+    0xf2f3f4,
+    0xcd9575,
+    0x665d1e,
+    0x915c83,
+    0x841b2d,
+    0x8db600,
+    0xfbceb1,
+    0x4b5320,
+    0x3b444b,
+    0x8f9779,
+    0xe9d66b,
+    0xb2beb5,
+    0x87a96b,
+    0xff9966,
+    0xfdee00,
+    0x6e7f80,
+    0x568203,
+    0xf0ffff,
+    0xdbe9f4,
+    0x89cff0,
+    0xa1caf1,
+    0xf4c2c2,
+    0xfefefa,
+    0xff91af,
+    0x21abcd,
+    0xfae7b5,
+    0xffe135,
+    0x006a4e,
+    0xe0218a,
+    0x7c0a02,
+    0x848482,
+    0x98777b,
+    0xbcd4e6,
+    0x9f8170,
+    0x2e5894,
+    0x9c2542,
+    0x3d2b1f,
+    0x967117,
+    0xcae00d,
+    0xbfff00,
+    0xfe6f5e,
+    0xbf4f51,
+    0x3d0c02,
+    0x253529,
+    0x3b3c36,
+    0xa57164,
+    0x318ce7,
+    0xace5ee,
+    0xfaf0be,
+    0x1f75fe,
+    0x0093af,
+    0x0087bd,
+    0x0018a8,
+    0x333399,
+    0x0247fe,
+    0xa2a2d0,
+    0x6699cc,
+    0x0d98ba,
+    0x553592,
+    0x126180,
+    0x5072a7,
+    0x4f86f7,
+    0x1c1cf0,
+    0xde5d83,
+    0x79443b,
+    0x0095b6,
+    0xe3dac9,
+    0xcc0000,
+    0x873260,
+    0x0070ff,
+    0xb5a642,
+    0xcb4154,
+    0x1dacd6,
+    0x66ff00,
+    0xbf94e4,
+    0xd891ef,
+    0xc32148,
+    0x1974d2,
+    0xff007f,
+    0x08e8de,
+    0xd19fe8,
+    0x3399ff,
+    0xf4bbff,
+    0xff55a3,
+    0xfb607f,
+    0x004225,
+    0xcd7f32,
+    0x737000,
+    0x964b00,
+    0x6b4423,
+    0xcc9966,
+    0x1b4d3e,
+    0xffc1cc,
+    0xe7feff,
+    0xf0dc82,
+    0x7bb661,
+    0x480607,
+    0x800020,
+    0xcc5500,
+    0xe97451,
+    0x8a3324,
+    0xbd33a4,
+    0x702963,
+    0x536872,
+    0x91a3b0,
+    0x006b3c,
+    0xed872d,
+    0xe30022,
+    0xfff600,
+    0xa67b5b,
+    0x4b3621,
+    0x1e4d2b,
+    0xa3c1ad,
+    0xc19a6b,
+    0xefbbcc,
+    0x78866b,
+    0xffef00,
+    0xff0800,
+    0xe4717a,
+    0x592720,
+    0xc41e3a,
+    0x00cc99,
+    0x960018,
+    0xd70040,
+    0xeb4c42,
+    0xff0038,
+    0xffa6c9,
+    0xb31b1b,
+    0x56a0d3,
+    0xed9121,
+    0x00563f,
+    0x062a78,
+    0x703642,
+    0xc95a49,
+    0x92a1cf,
+    0xace1af,
+    0x007ba7,
+    0x2f847c,
+    0xb2ffff,
+    0x4997d0,
+    0xde3163,
+    0xec3b83,
+    0x2a52be,
+    0x6d9bc3,
+    0x007aa5,
+    0xe03c31,
+    0xa0785a,
+    0xf7e7ce,
+    0x36454f,
+    0x232b2b,
+    0xe68fac,
+    0xdfff00,
+    0xffb7c5,
+    0x954535,
+    0xde6fa1,
+    0xa8516e,
+    0xaa381e,
+    0x856088,
+    0x7b3f00,
+    0xffa700,
+    0x98817b,
+    0xe34234,
+    0xe4d00a,
+    0x9fa91f,
+    0x7f1734,
+    0xfbcce7,
+    0x0047ab,
+    0x965a3e,
+    0x6f4e37,
+    0xc4d8e2,
+    0xf88379,
+    0x8c92ac,
+    0xb87333,
+    0xda8a67,
+    0xad6f69,
+    0xcb6d51,
+    0x996666,
+    0xff3800,
+    0xff4040,
+    0x893f45,
+    0xfbec5d,
+    0xfff8e7,
+    0x81613e,
+    0xffbcd9,
+    0xfffdd0,
+    0xbe0032,
+    0x990000,
+    0x4e82b4,
+    0x4682bf,
+    0x28589c,
+    0x188bc2,
+    0x00b7eb,
+    0x58427c,
+    0xffd300,
+    0xffff31,
+    0xf0e130,
+    0x666699,
+    0x654321,
+    0x88654e,
+    0x5d3954,
+    0xa40000,
+    0x08457e,
+    0x986960,
+    0xcd5b45,
+    0x536878,
+    0x013220,
+    0x00416a,
+    0x1a2421,
+    0x483c32,
+    0x734f96,
+    0x534b4f,
+    0x543d37,
+    0x003366,
+    0x4a5d23,
+    0x779ecb,
+    0x03c03c,
+    0x966fd6,
+    0xc23b22,
+    0xe75480,
+    0x003399,
+    0x4f3a3c,
+    0x872657,
+    0x560319,
+    0x3c1414,
+    0x8cbed6,
+    0x177245,
+    0x918151,
+    0xffa812,
+    0xcc4e5c,
+    0xd1bea8,
+    0x9b870c,
+    0x00703c,
+    0x555555,
+    0xd70a53,
+    0x40826d,
+    0xa9203e,
+    0xef3038,
+    0xe9692c,
+    0xda3287,
+    0xfad6a5,
+    0xb94e48,
+    0x704241,
+    0xc154c1,
+    0x056608,
+    0x0e7c61,
+    0x004b49,
+    0x333366,
+    0xf5c71a,
+    0x9955bb,
+    0xcc00cc,
+    0x820000,
+    0xd473d4,
+    0x355e3b,
+    0xffcba4,
+    0xa95c68,
+    0x850101,
+    0x843f5b,
+    0xff9933,
+    0x4a646c,
+    0x7e5e60,
+    0x66424d,
+    0x330066,
+    0xba8759,
+    0x1560bd,
+    0x669999,
+    0xedc9af,
+    0xea3c53,
+    0xb9f2ff,
+    0x9b7653,
+    0xd71868,
+    0x85bb65,
+    0x664c28,
+    0x00009c,
+    0xe5ccc9,
+    0xefdfbb,
+    0xe1a95f,
+    0x555d50,
+    0xc2b280,
+    0x1b1b1b,
+    0x614051,
+    0xf0ead6,
+    0x1034a6,
+    0x7df9ff,
+    0xff003f,
+    0x6f00ff,
+    0xccff00,
+    0xbf00ff,
+    0x3f00ff,
+    0x8f00ff,
+    0xffff33,
+    0x50c878,
+    0x6c3082,
+    0xb48395,
+    0xab4b52,
+    0x563c5c,
+    0x96c8a2,
+    0x44d7a8,
+    0x801818,
+    0xb53389,
+    0xde5285,
+    0xf400a1,
+    0xe5aa70,
+    0x4d5d53,
+    0xfdd5b1,
+    0x4f7942,
+    0xff2800,
+    0x6c541e,
+    0xce2029,
+    0xe25822,
+    0xfc8eac,
+    0xf7e98e,
+    0xeedc82,
+    0xa2006d,
+    0xff004f,
+    0x014421,
+    0x856d4d,
+    0x0072bb,
+    0xfd3f92,
+    0x86608e,
+    0x9efd38,
+    0xfd6c9e,
+    0x811453,
+    0x4e1609,
+    0xc72c48,
+    0xf64a8a,
+    0x77b5fe,
+    0x8806ce,
+    0xac1e44,
+    0xa6e7ff,
+    0xff77ff,
+    0xcc397b,
+    0xc74375,
+    0xe48400,
+    0xcc6666,
+    0xe49b0f,
+    0x996600,
+    0x007f66,
+    0xfe5a1d,
+    0xb06500,
+    0x6082b6,
+    0xe6e8fa,
+    0x00ab66,
+    0xd4af37,
+    0x85754e,
+    0x996515,
+    0xfcc200,
+    0xffdf00,
+    0xa8e4a0,
+    0x6f2da8,
+    0xbebebe,
+    0x465945,
+    0x1cac78,
+    0x00a877,
+    0x009f6b,
+    0x00ad43,
+    0x00a550,
+    0x66b032,
+    0x1164b4,
+    0x009966,
+    0x885818,
+    0xa99a86,
+    0x663854,
+    0x446ccf,
+    0x5218fa,
+    0x3fff00,
+    0x46cb18,
+    0xc90016,
+    0xda9100,
+    0xdf73ff,
+    0xaa98a9,
+    0xaa00bb,
+    0x006db0,
+    0x49796b,
+    0xff1dce,
+    0x71a6d2,
+    0xfcf75e,
+    0x319177,
+    0x602f6b,
+    0x002395,
+    0x66023c,
+    0xed2939,
+    0xb2ec5d,
+    0x4c516d,
+    0x138808,
+    0xe3a857,
+    0x091f92,
+    0x002fa7,
+    0xff4f00,
+    0xba160c,
+    0xc0362c,
+    0x5a4fcf,
+    0xb3446c,
+    0xf4f0ec,
+    0x009000,
+    0x00a86b,
+    0x9d2933,
+    0x264348,
+    0x5b3256,
+    0xf8de7e,
+    0xd73b3e,
+    0xa50b5e,
+    0xda614e,
+    0x343434,
+    0xf4ca16,
+    0x8ab9f1,
+    0xbdda57,
+    0x29ab87,
+    0x4cbb17,
+    0x7c1c05,
+    0x3ab09e,
+    0xc3b091,
+    0x882d17,
+    0xe79fc4,
+    0x354230,
+    0xe8000d,
+    0x087830,
+    0xd6cadd,
+    0x26619c,
+    0xffff66,
+    0xa9ba9d,
+    0xcf1020,
+    0xb57edc,
+    0xccccff,
+    0xc4c3d0,
+    0x9457eb,
+    0xfbaed2,
+    0x967bb6,
+    0xfba0e3,
+    0xfff700,
+    0xcca01d,
+    0xfdff00,
+    0xe3ff00,
+    0xf6eabe,
+    0xfff44f,
+    0xba93d8,
+    0x1a1110,
+    0x545aa7,
+    0xfe2e2e,
+    0xb5651d,
+    0xe66771,
+    0x88ace0,
+    0x93ccea,
+    0xf56991,
+    0xff5ccd,
+    0xc8ad7f,
+    0xf984ef,
+    0xcc99cc,
+    0xffb3de,
+    0xd39bcb,
+    0xaddfad,
+    0xe6a8d7,
+    0xb19cd9,
+    0xff9999,
+    0xb38b6d,
+    0xc8a2c8,
+    0x9dc209,
+    0x195905,
+    0x6ca0dc,
+    0x674c47,
+    0xb86d29,
+    0x6c2e1f,
+    0x987456,
+    0xffe4cd,
+    0xe62020,
+    0xca1f7b,
+    0xd0417e,
+    0xff0090,
+    0x9f4576,
+    0xcc338b,
+    0xaaf0d1,
+    0xf8f4ff,
+    0xc04000,
+    0x6050dc,
+    0x0bda51,
+    0x979aaa,
+    0xff8243,
+    0x74c365,
+    0x880085,
+    0xb03060,
+    0xe0b0ff,
+    0x915f6d,
+    0xef98aa,
+    0x4c9141,
+    0x73c2fb,
+    0xe5b73b,
+    0x66ddaa,
+    0xe2062c,
+    0xaf4035,
+    0xf3e5ab,
+    0x035096,
+    0x1c352d,
+    0xdda0dd,
+    0x0067a5,
+    0xbb3385,
+    0xaa4069,
+    0x80daeb,
+    0xc9dc87,
+    0xd9603b,
+    0xf8b878,
+    0xfdbcb4,
+    0x0a7e8c,
+    0x9c7c38,
+    0xe4007c,
+    0x004953,
+    0xffc40c,
+    0xe3f988,
+    0x3eb489,
+    0x98ff98,
+    0x73a9c2,
+    0xae0c00,
+    0x8a9a5b,
+    0x30ba8f,
+    0x997a8d,
+    0x18453b,
+    0x306030,
+    0xc54b8c,
+    0xffdb58,
+    0x317873,
+    0xf6adc6,
+    0x2a8000,
+    0xfada5e,
+    0xffa343,
+    0xfe4164,
+    0x39ff14,
+    0x214fc6,
+    0xd7837f,
+    0xa4dded,
+    0x059033,
+    0xe9ffdb,
+    0x0077be,
+    0xcc7722,
+    0x43302e,
+    0xcfb53b,
+    0x796878,
+    0x673147,
+    0x867e36,
+    0xc08081,
+    0x3c341f,
+    0x9ab973,
+    0x353839,
+    0xb784a7,
+    0xff7f00,
+    0xff7538,
+    0xff5800,
+    0xfb9902,
+    0xff9f00,
+    0xf2bdcd,
+    0xfb4f14,
+    0x414a4c,
+    0xff6e4a,
+    0x002147,
+    0x006600,
+    0x273be2,
+    0x682860,
+    0x987654,
+    0x9bc4e2,
+    0xddadaf,
+    0xabcdef,
+    0x87d3f8,
+    0xe6be8a,
+    0xdcd0ff,
+    0xf984e5,
+    0xff99cc,
+    0xfadadd,
+    0x96ded1,
+    0xc9c0bb,
+    0xecebbd,
+    0xbc987e,
+    0xcc99ff,
+    0x78184a,
+    0x009b7d,
+    0xe63e62,
+    0xaec6cf,
+    0x836953,
+    0xcfcfc4,
+    0x77dd77,
+    0xf49ac2,
+    0xffb347,
+    0xdea5a4,
+    0xb39eb5,
+    0xff6961,
+    0xcb99c9,
+    0xfdfd96,
+    0xffe5b4,
+    0xffcc99,
+    0xfadfad,
+    0xd1e231,
+    0xeae0c8,
+    0x88d8c0,
+    0xb768a2,
+    0xe6e200,
+    0x1c39bb,
+    0x00a693,
+    0x32127a,
+    0xd99058,
+    0xf77fbe,
+    0x701c1c,
+    0xcc3333,
+    0xfe28a2,
+    0xec5800,
+    0xdf00ff,
+    0x000f89,
+    0x123524,
+    0x45b1e8,
+    0xc30b4e,
+    0xfddde6,
+    0x01796f,
+    0xd74894,
+    0xffddf4,
+    0xd8b2d1,
+    0xe7accf,
+    0x980036,
+    0xf78fa7,
+    0x93c572,
+    0xe5e4e2,
+    0xbe4f62,
+    0xff5a36,
+    0xf58025,
+    0x003153,
+    0xcc8899,
+    0x722f37,
+    0x644117,
+    0x3b331c,
+    0xff7518,
+    0x9f00c5,
+    0xa020f0,
+    0x69359c,
+    0x9678b6,
+    0x4e5180,
+    0xfe4eda,
+    0x50404d,
+    0x9a4eae,
+    0x51484f,
+    0x436b95,
+    0xe8ccd7,
+    0x8e3a59,
+    0xff355e,
+    0xfbab60,
+    0xe30b5d,
+    0xe25098,
+    0x826644,
+    0xff33cc,
+    0xe3256b,
+    0x8d4e85,
+    0x663399,
+    0xee204d,
+    0xf2003c,
+    0xc40233,
+    0xed1c24,
+    0xfe2712,
+    0x860111,
+    0xff5349,
+    0xe40078,
+    0xa45a52,
+    0x522d80,
+    0x002387,
+    0x777696,
+    0x004040,
+    0xf1a7fe,
+    0x0892d0,
+    0xa76bcf,
+    0xb666d2,
+    0x444c38,
+    0x00cccc,
+    0x8a7f80,
+    0x838996,
+    0xf9429e,
+    0x674846,
+    0xb76e79,
+    0xff66cc,
+    0xc21e56,
+    0x905d5d,
+    0xab4e52,
+    0x65000b,
+    0xd40000,
+    0x0038a8,
+    0x002366,
+    0xca2c92,
+    0x7851a9,
+    0xce4676,
+    0xd10056,
+    0xe0115f,
+    0x9b111e,
+    0xff0028,
+    0xbb6528,
+    0xe18e96,
+    0xa81c07,
+    0x80461b,
+    0x679267,
+    0x32174d,
+    0xb7410e,
+    0xda2c43,
+    0xff7800,
+    0xff6700,
+    0xeed202,
+    0xf4c430,
+    0xbcb88a,
+    0x23297a,
+    0xff91a4,
+    0xecd540,
+    0x92000a,
+    0x507d2a,
+    0x0f52ba,
+    0xcba135,
+    0xff2400,
+    0xfd0e35,
+    0xffd800,
+    0x76ff7a,
+    0x006994,
+    0x321414,
+    0xffba00,
+    0x704214,
+    0x8a795d,
+    0x778ba5,
+    0xffcff1,
+    0x009e60,
+    0x8fd400,
+    0xd98695,
+    0xfc0fc0,
+    0xff6fff,
+    0xacacac,
+    0x5d89ba,
+    0xc4aead,
+    0xbfc1c2,
+    0xcb410b,
+    0x007474,
+    0xcf71af,
+    0xc84186,
+    0x738276,
+    0x100c08,
+    0x933d41,
+    0xcec8ef,
+    0x893843,
+    0x757575,
+    0x9e1316,
+    0x1d2951,
+    0x807532,
+    0x0070b8,
+    0xd10047,
+    0xe51a4c,
+    0x989898,
+    0x009150,
+    0xe86100,
+    0xf7bfbe,
+    0xe60026,
+    0x4c2882,
+    0x007f5c,
+    0x8b5f4d,
+    0x0fc0fc,
+    0xa7fc00,
+    0x007bb8,
+    0xcc33cc,
+    0x4f666a,
+    0xe4d96f,
+    0xfc5a8d,
+    0xffcc33,
+    0xe3ab57,
+    0xfd5e53,
+    0xcf6ba9,
+    0xf94d00,
+    0xf28500,
+    0xffcc00,
+    0x8b8589,
+    0xd0f0c0,
+    0x367588,
+    0x99e6b3,
+    0x00827f,
+    0xcf3476,
+    0xcd5700,
+    0xe2725b,
+    0xfc89ac,
+    0x0abab5,
+    0xe08d3c,
+    0xdbd7d2,
+    0xeee600,
+    0x746cc0,
+    0xffc87c,
+    0x00755e,
+    0x0073cf,
+    0x417dc1,
+    0xff878d,
+    0xdeaa88,
+    0xb57281,
+    0x00ffef,
+    0xa0d6b4,
+    0x7c4848,
+    0xc09999,
+    0x8a496b,
+    0x0033aa,
+    0xd9004c,
+    0x8878c3,
+    0x536895,
+    0xffb300,
+    0x3cd070,
+    0x120a8f,
+    0x4166f5,
+    0xfc6c85,
+    0x635147,
+    0xffddca,
+    0x5b92e5,
+    0xb78727,
+    0x7b1113,
+    0xae2029,
+    0xe1ad21,
+    0x004f98,
+    0xf77f00,
+    0xd3003f,
+    0xf38fa9,
+    0xc5b358,
+    0xc80815,
+    0x43b3ae,
+    0xd9381e,
+    0x74bbfb,
+    0x6666ff,
+    0x64e986,
+    0xffb077,
+    0xffdfbf,
+    0xffffbf,
+    0x7f00ff,
+    0x8601af,
+    0x324ab2,
+    0xf75394,
+    0x009698,
+    0x7c9ed9,
+    0xcc9900,
+    0x922724,
+    0x9f1d35,
+    0xda1d81,
+    0x00aaee,
+    0xcc0033,
+    0xff9900,
+    0xa6d608,
+    0x00cc33,
+    0xb80ce3,
+    0xff5f00,
+    0xffa000,
+    0xcc00ff,
+    0xff006c,
+    0xf70d1a,
+    0xdf6124,
+    0x00ccff,
+    0xf07427,
+    0xffa089,
+    0xe56024,
+    0x9f00ff,
+    0xffe302,
+    0x004242,
+    0xa4f4f9,
+    0x645452,
+    0xa2add0,
+    0xd470a2,
+    0xff43a4,
+    0xfd5800,
+    0xa75502,
+    0xc9a0dc,
+    0x738678,
+    0x0f4d92,
+    0x1c2841,
+    0xfce883,
+    0xefcc00,
+    0xfedf00,
+    0xfefe33,
+    0xffae42,
+    0xfff000,
+    0x0014a8,
+    0x2c1608,
+    0x39a78e};
+  final private static String itemsNames = 
+    "Red\n" +
+    "Green\n" +
+    "Blue\n" +
+    "Cyan\n" +
+    "Magenta\n" +
+    "Yellow\n" +
+    "Maroon\n" +
+    "Olive\n" +
+    "Lime\n" +
+    "Teal\n" +
+    "Navy\n" +
+    "Purple\n" +
+    "White\n" +
+    "Black\n" +
+    "Silver\n" +
+    "Gray\n" +
+    "AliceBlue\n" +
+    "AntiqueWhite\n" +
+    "Aquamarine\n" +
+    "Azure\n" +
+    "Beige\n" +
+    "Bisque\n" +
+    "BlanchedAlmond\n" +
+    "BlueViolet\n" +
+    "Brown\n" +
+    "BurlyWood\n" +
+    "CadetBlue\n" +
+    "Chartreuse\n" +
+    "Chocolate\n" +
+    "Coral\n" +
+    "CornflowerBlue\n" +
+    "Cornsilk\n" +
+    "Crimson\n" +
+    "DarkBlue\n" +
+    "DarkCyan\n" +
+    "DarkGoldenRod\n" +
+    "DarkGray\n" +
+    "DarkGreen\n" +
+    "DarkKhaki\n" +
+    "DarkMagenta\n" +
+    "DarkOliveGreen\n" +
+    "DarkOrange\n" +
+    "DarkOrchid\n" +
+    "DarkRed\n" +
+    "DarkSalmon\n" +
+    "DarkSeaGreen\n" +
+    "DarkSlateBlue\n" +
+    "DarkSlateGray\n" +
+    "DarkTurquoise\n" +
+    "DarkViolet\n" +
+    "DeepPink\n" +
+    "DeepSkyBlue\n" +
+    "DimGray\n" +
+    "DodgerBlue\n" +
+    "FireBrick\n" +
+    "FloralWhite\n" +
+    "ForestGreen\n" +
+    "Gainsboro\n" +
+    "GhostWhite\n" +
+    "Gold\n" +
+    "GoldenRod\n" +
+    "GreenYellow\n" +
+    "HoneyDew\n" +
+    "HotPink\n" +
+    "IndianRed\n" +
+    "Indigo\n" +
+    "Ivory\n" +
+    "Khaki\n" +
+    "Lavender\n" +
+    "LavenderBlush\n" +
+    "LawnGreen\n" +
+    "LemonChiffon\n" +
+    "LightBlue\n" +
+    "LightCoral\n" +
+    "LightCyan\n" +
+    "LightGoldenRodYellow\n" +
+    "LightGray\n" +
+    "LightGreen\n" +
+    "LightPink\n" +
+    "LightSalmon\n" +
+    "LightSeaGreen\n" +
+    "LightSkyBlue\n" +
+    "LightSlateGray\n" +
+    "LightSteelBlue\n" +
+    "LightYellow\n" +
+    "LimeGreen\n" +
+    "Linen\n" +
+    "MediumAquaMarine\n" +
+    "MediumBlue\n" +
+    "MediumOrchid\n" +
+    "MediumPurple\n" +
+    "MediumSeaGreen\n" +
+    "MediumSlateBlue\n" +
+    "MediumSpringGreen\n" +
+    "MediumTurquoise\n" +
+    "MediumVioletRed\n" +
+    "MidnightBlue\n" +
+    "MintCream\n" +
+    "MistyRose\n" +
+    "Moccasin\n" +
+    "NavajoWhite\n" +
+    "OldLace\n" +
+    "OliveDrab\n" +
+    "Orange\n" +
+    "OrangeRed\n" +
+    "Orchid\n" +
+    "PaleGoldenRod\n" +
+    "PaleGreen\n" +
+    "PaleTurquoise\n" +
+    "PaleVioletRed\n" +
+    "PapayaWhip\n" +
+    "PeachPuff\n" +
+    "Peru\n" +
+    "Pink\n" +
+    "Plum\n" +
+    "PowderBlue\n" +
+    "RosyBrown\n" +
+    "RoyalBlue\n" +
+    "SaddleBrown\n" +
+    "Salmon\n" +
+    "SandyBrown\n" +
+    "SeaGreen\n" +
+    "SeaShell\n" +
+    "Sienna\n" +
+    "SkyBlue\n" +
+    "SlateBlue\n" +
+    "SlateGray\n" +
+    "Snow\n" +
+    "SpringGreen\n" +
+    "SteelBlue\n" +
+    "Tan\n" +
+    "Thistle\n" +
+    "Tomato\n" +
+    "Turquoise\n" +
+    "Violet\n" +
+    "Wheat\n" +
+    "WhiteSmoke\n" +
+    "YellowGreen\n" +
+    "Acid green\n" +
+    "Aero\n" +
+    "Aero blue\n" +
+    "African violet\n" +
+    "Air Force blue (RAF)\n" +
+    "Air Force blue (USAF)\n" +
+    "Air superiority blue\n" +
+    "Alabama crimson\n" +
+    "Alizarin crimson\n" +
+    "Alloy orange\n" +
+    "Almond\n" +
+    "Amaranth\n" +
+    "Amaranth pink\n" +
+    "Amaranth purple\n" +
+    "Amaranth red\n" +
+    "Amazon\n" +
+    "Amber\n" +
+    "Amber (SAE/ECE)\n" +
+    "American rose\n" +
+    "Amethyst\n" +
+    "Android green\n" +
+    "Anti-flash white\n" +
+    "Antique brass\n" +
+    "Antique bronze\n" +
+    "Antique fuchsia\n" +
+    "Antique ruby\n" +
+    "Apple green\n" +
+    "Apricot\n" +
+    "Army green\n" +
+    "Arsenic\n" +
+    "Artichoke\n" +
+    "Arylide yellow\n" +
+    "Ash grey\n" +
+    "Asparagus\n" +
+    "Atomic tangerine\n" +
+    "Aureolin\n" +
+    "AuroMetalSaurus\n" +
+    "Avocado\n" +
+    "Azure (web color)\n" +
+    "Azureish white\n" +
+    "Baby blue\n" +
+    "Baby blue eyes\n" +
+    "Baby pink\n" +
+    "Baby powder\n" +
+    "Baker-Miller pink\n" +
+    "Ball blue\n" +
+    "Banana Mania\n" +
+    "Banana yellow\n" +
+    "Bangladesh green\n" +
+    "Barbie pink\n" +
+    "Barn red\n" +
+    "Battleship grey\n" +
+    "Bazaar\n" +
+    "Beau blue\n" +
+    "Beaver\n" +
+    "B'dazzled blue\n" +
+    "Big dip o’ruby\n" +
+    "Bistre\n" +
+    "Bistre brown\n" +
+    "Bitter lemon\n" +
+    "Bitter lime\n" +
+    "Bittersweet\n" +
+    "Bittersweet shimmer\n" +
+    "Black bean\n" +
+    "Black leather jacket\n" +
+    "Black olive\n" +
+    "Blast-off bronze\n" +
+    "Bleu de France\n" +
+    "Blizzard Blue\n" +
+    "Blond\n" +
+    "Blue (Crayola)\n" +
+    "Blue (Munsell)\n" +
+    "Blue (NCS)\n" +
+    "Blue (Pantone)\n" +
+    "Blue (pigment)\n" +
+    "Blue (RYB)\n" +
+    "Blue Bell\n" +
+    "Blue-gray\n" +
+    "Blue-green\n" +
+    "Blue-magenta violet\n" +
+    "Blue sapphire\n" +
+    "Blue yonder\n" +
+    "Blueberry\n" +
+    "Bluebonnet\n" +
+    "Blush\n" +
+    "Bole\n" +
+    "Bondi blue\n" +
+    "Bone\n" +
+    "Boston University Red\n" +
+    "Boysenberry\n" +
+    "Brandeis blue\n" +
+    "Brass\n" +
+    "Brick red\n" +
+    "Bright cerulean\n" +
+    "Bright green\n" +
+    "Bright lavender\n" +
+    "Bright lilac\n" +
+    "Bright maroon\n" +
+    "Bright navy blue\n" +
+    "Bright pink\n" +
+    "Bright turquoise\n" +
+    "Bright ube\n" +
+    "Brilliant azure\n" +
+    "Brilliant lavender\n" +
+    "Brilliant rose\n" +
+    "Brink pink\n" +
+    "British racing green\n" +
+    "Bronze\n" +
+    "Bronze Yellow\n" +
+    "Brown (traditional)\n" +
+    "Brown-nose\n" +
+    "Brown Yellow\n" +
+    "Brunswick green\n" +
+    "Bubble gum\n" +
+    "Bubbles\n" +
+    "Buff\n" +
+    "Bud green\n" +
+    "Bulgarian rose\n" +
+    "Burgundy\n" +
+    "Burnt orange\n" +
+    "Burnt sienna\n" +
+    "Burnt umber\n" +
+    "Byzantine\n" +
+    "Byzantium\n" +
+    "Cadet\n" +
+    "Cadet grey\n" +
+    "Cadmium green\n" +
+    "Cadmium orange\n" +
+    "Cadmium red\n" +
+    "Cadmium yellow\n" +
+    "Café au lait\n" +
+    "Café noir\n" +
+    "Cal Poly green\n" +
+    "Cambridge Blue\n" +
+    "Camel\n" +
+    "Cameo pink\n" +
+    "Camouflage green\n" +
+    "Canary yellow\n" +
+    "Candy apple red\n" +
+    "Candy pink\n" +
+    "Caput mortuum\n" +
+    "Cardinal\n" +
+    "Caribbean green\n" +
+    "Carmine\n" +
+    "Carmine (M&P)\n" +
+    "Carmine pink\n" +
+    "Carmine red\n" +
+    "Carnation pink\n" +
+    "Carnelian\n" +
+    "Carolina blue\n" +
+    "Carrot orange\n" +
+    "Castleton green\n" +
+    "Catalina blue\n" +
+    "Catawba\n" +
+    "Cedar Chest\n" +
+    "Ceil\n" +
+    "Celadon\n" +
+    "Celadon blue\n" +
+    "Celadon green\n" +
+    "Celeste\n" +
+    "Celestial blue\n" +
+    "Cerise\n" +
+    "Cerise pink\n" +
+    "Cerulean blue\n" +
+    "Cerulean frost\n" +
+    "CG Blue\n" +
+    "CG Red\n" +
+    "Chamoisee\n" +
+    "Champagne\n" +
+    "Charcoal\n" +
+    "Charleston green\n" +
+    "Charm pink\n" +
+    "Chartreuse (traditional)\n" +
+    "Cherry blossom pink\n" +
+    "Chestnut\n" +
+    "China pink\n" +
+    "China rose\n" +
+    "Chinese red\n" +
+    "Chinese violet\n" +
+    "Chocolate (traditional)\n" +
+    "Chrome yellow\n" +
+    "Cinereous\n" +
+    "Cinnabar\n" +
+    "Citrine\n" +
+    "Citron\n" +
+    "Claret\n" +
+    "Classic rose\n" +
+    "Cobalt blue\n" +
+    "Coconut\n" +
+    "Coffee\n" +
+    "Columbia blue\n" +
+    "Congo pink\n" +
+    "Cool grey\n" +
+    "Copper\n" +
+    "Copper (Crayola)\n" +
+    "Copper penny\n" +
+    "Copper red\n" +
+    "Copper rose\n" +
+    "Coquelicot\n" +
+    "Coral red\n" +
+    "Cordovan\n" +
+    "Corn\n" +
+    "Cosmic latte\n" +
+    "Coyote brown\n" +
+    "Cotton candy\n" +
+    "Cream\n" +
+    "Crimson glory\n" +
+    "Crimson red\n" +
+    "Cyan azure\n" +
+    "Cyan-blue azure\n" +
+    "Cyan cobalt blue\n" +
+    "Cyan cornflower blue\n" +
+    "Cyan (process)\n" +
+    "Cyber grape\n" +
+    "Cyber yellow\n" +
+    "Daffodil\n" +
+    "Dandelion\n" +
+    "Dark blue-gray\n" +
+    "Dark brown\n" +
+    "Dark brown-tangelo\n" +
+    "Dark byzantium\n" +
+    "Dark candy apple red\n" +
+    "Dark cerulean\n" +
+    "Dark chestnut\n" +
+    "Dark coral\n" +
+    "Dark electric blue\n" +
+    "Dark green\n" +
+    "Dark imperial blue\n" +
+    "Dark jungle green\n" +
+    "Dark lava\n" +
+    "Dark lavender\n" +
+    "Dark liver\n" +
+    "Dark liver (horses)\n" +
+    "Dark midnight blue\n" +
+    "Dark moss green\n" +
+    "Dark pastel blue\n" +
+    "Dark pastel green\n" +
+    "Dark pastel purple\n" +
+    "Dark pastel red\n" +
+    "Dark pink\n" +
+    "Dark powder blue\n" +
+    "Dark puce\n" +
+    "Dark raspberry\n" +
+    "Dark scarlet\n" +
+    "Dark sienna\n" +
+    "Dark sky blue\n" +
+    "Dark spring green\n" +
+    "Dark tan\n" +
+    "Dark tangerine\n" +
+    "Dark terra cotta\n" +
+    "Dark vanilla\n" +
+    "Dark yellow\n" +
+    "Dartmouth green\n" +
+    "Davy's grey\n" +
+    "Debian red\n" +
+    "Deep aquamarine\n" +
+    "Deep carmine\n" +
+    "Deep carmine pink\n" +
+    "Deep carrot orange\n" +
+    "Deep cerise\n" +
+    "Deep champagne\n" +
+    "Deep chestnut\n" +
+    "Deep coffee\n" +
+    "Deep fuchsia\n" +
+    "Deep Green\n" +
+    "Deep green-cyan turquoise\n" +
+    "Deep jungle green\n" +
+    "Deep koamaru\n" +
+    "Deep lemon\n" +
+    "Deep lilac\n" +
+    "Deep magenta\n" +
+    "Deep maroon\n" +
+    "Deep mauve\n" +
+    "Deep moss green\n" +
+    "Deep peach\n" +
+    "Deep puce\n" +
+    "Deep Red\n" +
+    "Deep ruby\n" +
+    "Deep saffron\n" +
+    "Deep Space Sparkle\n" +
+    "Deep Taupe\n" +
+    "Deep Tuscan red\n" +
+    "Deep violet\n" +
+    "Deer\n" +
+    "Denim\n" +
+    "Desaturated cyan\n" +
+    "Desert sand\n" +
+    "Desire\n" +
+    "Diamond\n" +
+    "Dirt\n" +
+    "Dogwood rose\n" +
+    "Dollar bill\n" +
+    "Donkey brown\n" +
+    "Duke blue\n" +
+    "Dust storm\n" +
+    "Dutch white\n" +
+    "Earth yellow\n" +
+    "Ebony\n" +
+    "Ecru\n" +
+    "Eerie black\n" +
+    "Eggplant\n" +
+    "Eggshell\n" +
+    "Egyptian blue\n" +
+    "Electric blue\n" +
+    "Electric crimson\n" +
+    "Electric indigo\n" +
+    "Electric lime\n" +
+    "Electric purple\n" +
+    "Electric ultramarine\n" +
+    "Electric violet\n" +
+    "Electric yellow\n" +
+    "Emerald\n" +
+    "Eminence\n" +
+    "English lavender\n" +
+    "English red\n" +
+    "English violet\n" +
+    "Eton blue\n" +
+    "Eucalyptus\n" +
+    "Falu red\n" +
+    "Fandango\n" +
+    "Fandango pink\n" +
+    "Fashion fuchsia\n" +
+    "Fawn\n" +
+    "Feldgrau\n" +
+    "Feldspar\n" +
+    "Fern green\n" +
+    "Ferrari Red\n" +
+    "Field drab\n" +
+    "Fire engine red\n" +
+    "Flame\n" +
+    "Flamingo pink\n" +
+    "Flavescent\n" +
+    "Flax\n" +
+    "Flirt\n" +
+    "Folly\n" +
+    "Forest green (traditional)\n" +
+    "French bistre\n" +
+    "French blue\n" +
+    "French fuchsia\n" +
+    "French lilac\n" +
+    "French lime\n" +
+    "French pink\n" +
+    "French plum\n" +
+    "French puce\n" +
+    "French raspberry\n" +
+    "French rose\n" +
+    "French sky blue\n" +
+    "French violet\n" +
+    "French wine\n" +
+    "Fresh Air\n" +
+    "Fuchsia pink\n" +
+    "Fuchsia purple\n" +
+    "Fuchsia rose\n" +
+    "Fulvous\n" +
+    "Fuzzy Wuzzy\n" +
+    "Gamboge\n" +
+    "Gamboge orange (brown)\n" +
+    "Generic viridian\n" +
+    "Giants orange\n" +
+    "Grussrel\n" +
+    "Glaucous\n" +
+    "Glitter\n" +
+    "GO green\n" +
+    "Gold (metallic)\n" +
+    "Gold Fusion\n" +
+    "Golden brown\n" +
+    "Golden poppy\n" +
+    "Golden yellow\n" +
+    "Granny Smith Apple\n" +
+    "Grape\n" +
+    "Gray (X11 gray)\n" +
+    "Gray-asparagus\n" +
+    "Green (Crayola)\n" +
+    "Green (Munsell)\n" +
+    "Green (NCS)\n" +
+    "Green (Pantone)\n" +
+    "Green (pigment)\n" +
+    "Green (RYB)\n" +
+    "Green-blue\n" +
+    "Green-cyan\n" +
+    "Grizzly\n" +
+    "Grullo\n" +
+    "Halayà úbe\n" +
+    "Han blue\n" +
+    "Han purple\n" +
+    "Harlequin\n" +
+    "Harlequin green\n" +
+    "Harvard crimson\n" +
+    "Harvest gold\n" +
+    "Heliotrope\n" +
+    "Heliotrope gray\n" +
+    "Heliotrope magenta\n" +
+    "Honolulu blue\n" +
+    "Hooker's green\n" +
+    "Hot magenta\n" +
+    "Iceberg\n" +
+    "Icterine\n" +
+    "Illuminating Emerald\n" +
+    "Imperial\n" +
+    "Imperial blue\n" +
+    "Imperial purple\n" +
+    "Imperial red\n" +
+    "Inchworm\n" +
+    "Independence\n" +
+    "India green\n" +
+    "Indian yellow\n" +
+    "Indigo dye\n" +
+    "International Klein Blue\n" +
+    "International orange (aerospace)\n" +
+    "International orange (engineering)\n" +
+    "International orange (Golden Gate Bridge)\n" +
+    "Iris\n" +
+    "Irresistible\n" +
+    "Isabelline\n" +
+    "Islamic green\n" +
+    "Jade\n" +
+    "Japanese carmine\n" +
+    "Japanese indigo\n" +
+    "Japanese violet\n" +
+    "Jasmine\n" +
+    "Jasper\n" +
+    "Jazzberry jam\n" +
+    "Jelly Bean\n" +
+    "Jet\n" +
+    "Jonquil\n" +
+    "Jordy blue\n" +
+    "June bud\n" +
+    "Jungle green\n" +
+    "Kelly green\n" +
+    "Kenyan copper\n" +
+    "Keppel\n" +
+    "Jawad/Chicken Color (HTML/CSS) (Khaki)\n" +
+    "Kobe\n" +
+    "Kobi\n" +
+    "Kombu green\n" +
+    "KU Crimson\n" +
+    "La Salle Green\n" +
+    "Languid lavender\n" +
+    "Lapis lazuli\n" +
+    "Laser Lemon\n" +
+    "Laurel green\n" +
+    "Lava\n" +
+    "Lavender (floral)\n" +
+    "Lavender blue\n" +
+    "Lavender gray\n" +
+    "Lavender indigo\n" +
+    "Lavender pink\n" +
+    "Lavender purple\n" +
+    "Lavender rose\n" +
+    "Lemon\n" +
+    "Lemon curry\n" +
+    "Lemon glacier\n" +
+    "Lemon lime\n" +
+    "Lemon meringue\n" +
+    "Lemon yellow\n" +
+    "Lenurple\n" +
+    "Licorice\n" +
+    "Liberty\n" +
+    "Light brilliant red\n" +
+    "Light brown\n" +
+    "Light carmine pink\n" +
+    "Light cobalt blue\n" +
+    "Light cornflower blue\n" +
+    "Light crimson\n" +
+    "Light deep pink\n" +
+    "Light French beige\n" +
+    "Light fuchsia pink\n" +
+    "Light grayish magenta\n" +
+    "Light hot pink\n" +
+    "Light medium orchid\n" +
+    "Light moss green\n" +
+    "Light orchid\n" +
+    "Light pastel purple\n" +
+    "Light salmon pink\n" +
+    "Light taupe\n" +
+    "Lilac\n" +
+    "Limerick\n" +
+    "Lincoln green\n" +
+    "Little boy blue\n" +
+    "Liver\n" +
+    "Liver (dogs)\n" +
+    "Liver (organ)\n" +
+    "Liver chestnut\n" +
+    "Lumber\n" +
+    "Lust\n" +
+    "Magenta (dye)\n" +
+    "Magenta (Pantone)\n" +
+    "Magenta (process)\n" +
+    "Magenta haze\n" +
+    "Magenta-pink\n" +
+    "Magic mint\n" +
+    "Magnolia\n" +
+    "Mahogany\n" +
+    "Majorelle Blue\n" +
+    "Malachite\n" +
+    "Manatee\n" +
+    "Mango Tango\n" +
+    "Mantis\n" +
+    "Mardi Gras\n" +
+    "Maroon (X11)\n" +
+    "Mauve\n" +
+    "Mauve taupe\n" +
+    "Mauvelous\n" +
+    "May green\n" +
+    "Maya blue\n" +
+    "Meat brown\n" +
+    "Medium aquamarine\n" +
+    "Medium candy apple red\n" +
+    "Medium carmine\n" +
+    "Medium champagne\n" +
+    "Medium electric blue\n" +
+    "Medium jungle green\n" +
+    "Medium lavender magenta\n" +
+    "Medium Persian blue\n" +
+    "Medium red-violet\n" +
+    "Medium ruby\n" +
+    "Medium sky blue\n" +
+    "Medium spring bud\n" +
+    "Medium vermilion\n" +
+    "Mellow apricot\n" +
+    "Melon\n" +
+    "Metallic Seaweed\n" +
+    "Metallic Sunburst\n" +
+    "Mexican pink\n" +
+    "Midnight green (eagle green)\n" +
+    "Mikado yellow\n" +
+    "Mindaro\n" +
+    "Mint\n" +
+    "Mint green\n" +
+    "Moonstone blue\n" +
+    "Mordant red 19\n" +
+    "Moss green\n" +
+    "Mountain Meadow\n" +
+    "Mountbatten pink\n" +
+    "MSU Green\n" +
+    "Mughal green\n" +
+    "Mulberry\n" +
+    "Mustard\n" +
+    "Myrtle green\n" +
+    "\n" +
+    "Napier green\n" +
+    "Naples yellow\n" +
+    "Neon Carrot\n" +
+    "Neon fuchsia\n" +
+    "Neon green\n" +
+    "New Car\n" +
+    "New York pink\n" +
+    "Non-photo blue\n" +
+    "North Texas Green\n" +
+    "Nyanza\n" +
+    "Ocean Boat Blue\n" +
+    "Ochre\n" +
+    "Old burgundy\n" +
+    "Old gold\n" +
+    "Old lavender\n" +
+    "Old mauve\n" +
+    "Old moss green\n" +
+    "Old rose\n" +
+    "Olive Drab #7\n" +
+    "Olivine\n" +
+    "Onyx\n" +
+    "Opera mauve\n" +
+    "Orange (color wheel)\n" +
+    "Orange (Crayola)\n" +
+    "Orange (Pantone)\n" +
+    "Orange (RYB)\n" +
+    "Orange peel\n" +
+    "Orchid pink\n" +
+    "Orioles orange\n" +
+    "Outer Space\n" +
+    "Outrageous Orange\n" +
+    "Oxford Blue\n" +
+    "Pakistan green\n" +
+    "Palatinate blue\n" +
+    "Palatinate purple\n" +
+    "Pale brown\n" +
+    "Pale cerulean\n" +
+    "Pale chestnut\n" +
+    "Pale cornflower blue\n" +
+    "Pale cyan\n" +
+    "Pale gold\n" +
+    "Pale lavender\n" +
+    "Pale magenta\n" +
+    "Pale magenta-pink\n" +
+    "Pale pink\n" +
+    "Pale robin egg blue\n" +
+    "Pale silver\n" +
+    "Pale spring bud\n" +
+    "Pale taupe\n" +
+    "Pale violet\n" +
+    "Pansy purple\n" +
+    "Paolo Veronese green\n" +
+    "Paradise pink\n" +
+    "Pastel blue\n" +
+    "Pastel brown\n" +
+    "Pastel gray\n" +
+    "Pastel green\n" +
+    "Pastel magenta\n" +
+    "Pastel orange\n" +
+    "Pastel pink\n" +
+    "Pastel purple\n" +
+    "Pastel red\n" +
+    "Pastel violet\n" +
+    "Pastel yellow\n" +
+    "Peach\n" +
+    "Peach-orange\n" +
+    "Peach-yellow\n" +
+    "Pear\n" +
+    "Pearl\n" +
+    "Pearl Aqua\n" +
+    "Pearly purple\n" +
+    "Peridot\n" +
+    "Persian blue\n" +
+    "Persian green\n" +
+    "Persian indigo\n" +
+    "Persian orange\n" +
+    "Persian pink\n" +
+    "Persian plum\n" +
+    "Persian red\n" +
+    "Persian rose\n" +
+    "Persimmon\n" +
+    "Phlox\n" +
+    "Phthalo blue\n" +
+    "Phthalo green\n" +
+    "Picton blue\n" +
+    "Pictorial carmine\n" +
+    "Piggy pink\n" +
+    "Pine green\n" +
+    "Pink (Pantone)\n" +
+    "Pink lace\n" +
+    "Pink lavender\n" +
+    "Pink pearl\n" +
+    "Pink raspberry\n" +
+    "Pink Sherbet\n" +
+    "Pistachio\n" +
+    "Platinum\n" +
+    "Popstar\n" +
+    "Portland Orange\n" +
+    "Princeton orange\n" +
+    "Prussian blue\n" +
+    "Puce\n" +
+    "Puce red\n" +
+    "Pullman Brown (UPS Brown)\n" +
+    "Pullman Green\n" +
+    "Pumpkin\n" +
+    "Purple (Munsell)\n" +
+    "Purple (X11)\n" +
+    "Purple Heart\n" +
+    "Purple mountain majesty\n" +
+    "Purple navy\n" +
+    "Purple pizzazz\n" +
+    "Purple taupe\n" +
+    "Purpureus\n" +
+    "Quartz\n" +
+    "Queen blue\n" +
+    "Queen pink\n" +
+    "Quinacridone magenta\n" +
+    "Radical Red\n" +
+    "Rajah\n" +
+    "Raspberry\n" +
+    "Raspberry pink\n" +
+    "Raw umber\n" +
+    "Razzle dazzle rose\n" +
+    "Razzmatazz\n" +
+    "Razzmic Berry\n" +
+    "Rebecca Purple\n" +
+    "Red (Crayola)\n" +
+    "Red (Munsell)\n" +
+    "Red (NCS)\n" +
+    "Red (pigment)\n" +
+    "Red (RYB)\n" +
+    "Red devil\n" +
+    "Red-orange\n" +
+    "Red-purple\n" +
+    "Redwood\n" +
+    "Regalia\n" +
+    "Resolution blue\n" +
+    "Rhythm\n" +
+    "Rich black\n" +
+    "Rich brilliant lavender\n" +
+    "Rich electric blue\n" +
+    "Rich lavender\n" +
+    "Rich lilac\n" +
+    "Rifle green\n" +
+    "Robin egg blue\n" +
+    "Rocket metallic\n" +
+    "Roman silver\n" +
+    "Rose bonbon\n" +
+    "Rose ebony\n" +
+    "Rose gold\n" +
+    "Rose pink\n" +
+    "Rose red\n" +
+    "Rose taupe\n" +
+    "Rose vale\n" +
+    "Rosewood\n" +
+    "Rosso corsa\n" +
+    "Royal azure\n" +
+    "Royal blue\n" +
+    "Royal fuchsia\n" +
+    "Royal purple\n" +
+    "Ruber\n" +
+    "Rubine red\n" +
+    "Ruby\n" +
+    "Ruby red\n" +
+    "Ruddy\n" +
+    "Ruddy brown\n" +
+    "Ruddy pink\n" +
+    "Rufous\n" +
+    "Russet\n" +
+    "Russian green\n" +
+    "Russian violet\n" +
+    "Rust\n" +
+    "Rusty red\n" +
+    "Safety orange\n" +
+    "Safety orange (blaze orange)\n" +
+    "Safety yellow\n" +
+    "Saffron\n" +
+    "Sage\n" +
+    "St. Patrick's blue\n" +
+    "Salmon pink\n" +
+    "Sandstorm\n" +
+    "Sangria\n" +
+    "Sap green\n" +
+    "Sapphire\n" +
+    "Satin sheen gold\n" +
+    "Scarlet\n" +
+    "Tractor red\n" +
+    "School bus yellow\n" +
+    "Screamin' Green\n" +
+    "Sea blue\n" +
+    "Seal brown\n" +
+    "Selective yellow\n" +
+    "Sepia\n" +
+    "Shadow\n" +
+    "Shadow blue\n" +
+    "Shampoo\n" +
+    "Shamrock green\n" +
+    "Sheen Green\n" +
+    "Shimmering Blush\n" +
+    "Shocking pink\n" +
+    "Shocking pink (Crayola)\n" +
+    "Silver chalice\n" +
+    "Silver Lake blue\n" +
+    "Silver pink\n" +
+    "Silver sand\n" +
+    "Sinopia\n" +
+    "Skobeloff\n" +
+    "Sky magenta\n" +
+    "Smitten\n" +
+    "Smoke\n" +
+    "Smoky black\n" +
+    "Smoky Topaz\n" +
+    "Soap\n" +
+    "Solid pink\n" +
+    "Sonic silver\n" +
+    "Spartan Crimson\n" +
+    "Space cadet\n" +
+    "Spanish bistre\n" +
+    "Spanish blue\n" +
+    "Spanish carmine\n" +
+    "Spanish crimson\n" +
+    "Spanish gray\n" +
+    "Spanish green\n" +
+    "Spanish orange\n" +
+    "Spanish pink\n" +
+    "Spanish red\n" +
+    "Spanish violet\n" +
+    "Spanish viridian\n" +
+    "Spicy mix\n" +
+    "Spiro Disco Ball\n" +
+    "Spring bud\n" +
+    "Star command blue\n" +
+    "Steel pink\n" +
+    "Stormcloud\n" +
+    "Straw\n" +
+    "Strawberry\n" +
+    "Sunglow\n" +
+    "Sunray\n" +
+    "Sunset orange\n" +
+    "Super pink\n" +
+    "Tangelo\n" +
+    "Tangerine\n" +
+    "Tangerine yellow\n" +
+    "Taupe gray\n" +
+    "Tea green\n" +
+    "Teal blue\n" +
+    "Teal deer\n" +
+    "Teal green\n" +
+    "Telemagenta\n" +
+    "Tenné\n" +
+    "Terra cotta\n" +
+    "Tickle Me Pink\n" +
+    "Tiffany Blue\n" +
+    "Tiger's eye\n" +
+    "Timberwolf\n" +
+    "Titanium yellow\n" +
+    "Toolbox\n" +
+    "Topaz\n" +
+    "Tropical rain forest\n" +
+    "True Blue\n" +
+    "Tufts Blue\n" +
+    "Tulip\n" +
+    "Tumbleweed\n" +
+    "Turkish rose\n" +
+    "Turquoise blue\n" +
+    "Turquoise green\n" +
+    "Tuscan red\n" +
+    "Tuscany\n" +
+    "Twilight lavender\n" +
+    "UA blue\n" +
+    "UA red\n" +
+    "Ube\n" +
+    "UCLA Blue\n" +
+    "UCLA Gold\n" +
+    "UFO Green\n" +
+    "Ultramarine\n" +
+    "Ultramarine blue\n" +
+    "Ultra red\n" +
+    "Umber\n" +
+    "Unbleached silk\n" +
+    "United Nations blue\n" +
+    "University of California Gold\n" +
+    "UP Maroon\n" +
+    "Upsdell red\n" +
+    "Urobilin\n" +
+    "USAFA blue\n" +
+    "University of Tennessee Orange\n" +
+    "Utah Crimson\n" +
+    "Vanilla ice\n" +
+    "Vegas gold\n" +
+    "Venetian red\n" +
+    "Verdigris\n" +
+    "Vermilion\n" +
+    "Very light azure\n" +
+    "Very light blue\n" +
+    "Very light malachite green\n" +
+    "Very light tangelo\n" +
+    "Very pale orange\n" +
+    "Very pale yellow\n" +
+    "Violet (color wheel)\n" +
+    "Violet (RYB)\n" +
+    "Violet-blue\n" +
+    "Violet-red\n" +
+    "Viridian green\n" +
+    "Vista blue\n" +
+    "Vivid amber\n" +
+    "Vivid auburn\n" +
+    "Vivid burgundy\n" +
+    "Vivid cerise\n" +
+    "Vivid cerulean\n" +
+    "Vivid crimson\n" +
+    "Vivid gamboge\n" +
+    "Vivid lime green\n" +
+    "Vivid malachite\n" +
+    "Vivid mulberry\n" +
+    "Vivid orange\n" +
+    "Vivid orange peel\n" +
+    "Vivid orchid\n" +
+    "Vivid raspberry\n" +
+    "Vivid red\n" +
+    "Vivid red-tangelo\n" +
+    "Vivid sky blue\n" +
+    "Vivid tangelo\n" +
+    "Vivid tangerine\n" +
+    "Vivid vermilion\n" +
+    "Vivid violet\n" +
+    "Vivid yellow\n" +
+    "Warm black\n" +
+    "Waterspout\n" +
+    "Wenge\n" +
+    "Wild blue yonder\n" +
+    "Wild orchid\n" +
+    "Wild Strawberry\n" +
+    "Willpower orange\n" +
+    "Windsor tan\n" +
+    "Wisteria\n" +
+    "Xanadu\n" +
+    "Yale Blue\n" +
+    "Yankees blue\n" +
+    "Yellow (Crayola)\n" +
+    "Yellow (Munsell)\n" +
+    "Yellow (Pantone)\n" +
+    "Yellow (RYB)\n" +
+    "Yellow Orange\n" +
+    "Yellow rose\n" +
+    "Zaffre\n" +
+    "Zinnwaldite brown\n" +
+    "Zomp\n";
   /*
-   * The hash map below maps color RGB values to color numbers. Color
-   * numbers are not RGB values (in this case), but index values
-   * for the original color items array. This map is required so 
-   * that colors can be returned to the color pool, by RGB value. 
-   * This is important because when a color is pulled from the 
-   * color pool, all the caller gets is the RGB value. This means 
-   * that the caller can only return the color back to the pool 
-   * using the RGB value. This map is never changed (at all) once 
-   * it is created. The key to this hash map is the RGB value. The 
-   * value is the color number.
-   */
-  final private HashMap<Integer, Integer> itemsByRgb = 
-      new HashMap<Integer, Integer>();
+   * The color table below is built from the two constants above when 
+   * this class is loaded. It holds the RGB values and the two maps that 
+   * turn color names and RGB values into color numbers. Color numbers are
+   * not RGB values (in this case), but index values for the two lists of 
+   * colors above. The name map is required so that colors can be pulled
+   * from the pool by name, rather than just in next available color order.
+   * The RGB map is required so that colors can be returned to the color 
+   * pool, by RGB value. This is important because when a color is pulled 
+   * from the color pool, all the caller gets is the RGB value. The color 
+   * table is never changed (at all) once it is created, so it is shared by 
+   * all of the instances of this class. The duplicate RGB value check is 
+   * run when the color table is built. The name map (and the duplicate 
+   * color name check) is only built the first time a color name is used.
+   */
+  final static ColorTable itemsTable = new ColorTable(itemsRgb, itemsNames);
+  /* The color table used by this instance */
+  final private ColorTable table;
+  /* 
+   * The bitmap below contains all of the free colors. Each bit in the 
+   * bitmap is the index value of a color in the color table. This allows
+   * the colors to be obtained in order, from the first to the last. In
+   * practice, what is really needed (and done) is to return the next 
+   * available color from the palette, which is the lowest bit that is
+   * set. Note that when a color is pulled from the pool, the bit is 
+   * cleared. When the color is returned to the pool, the bit is set 
+   * again. This means that this bitmap is the actual color palette pool.
+   */
+  final private ColorBitmap itemsFree;
+  /* The policy used to pick the next free color */
+  private Policy policy = Policy.LOWEST;
+  /* 
+   * The tracker below keeps the distance from each color to the closest
+   * busy color. It is only used (and only kept up to date) when the 
+   * policy is the distinct policy or the CVD safe policy. Otherwise it
+   * is null.
+   */
+  private DistinctTracker tracker;
+  /* 
+   * The timing wheel below holds the colors that have been leased (pulled
+   * from the pool for a limited time). It is built the first time a color
+   * is leased. Otherwise it is null.
+   */
+  private LeaseWheel leases;
+  /* The listener told about leases that run out, or null */
+  private LeaseListener leaseListener;
+  /* The number of leased colors returned to the pool because they ran out */
+  private long leasesReclaimed;
+  /* 
+   * The array below holds the number of holders of each color, by color
+   * number. It is only used in shared mode, where a busy color can be
+   * pulled from the pool by name again. Otherwise it is null.
+   */
+  private int refs[];
+  /* 
+   * The bitmap below holds the colors that have been excluded (taken 
+   * out of circulation for good). Excluded colors are never returned to 
+   * the pool, not even by a reset. It is null until a color is excluded.
+   */
+  private ColorBitmap excluded;
+  /* The number of times the set of colors that are not excluded has changed */
+  private int setVersion;
+  /* 
+   * The number of times each color occurs in one call of the put back
+   * all method, built the first time it is needed. Every count is zero
+   * between calls.
+   */
+  private int returned[];
+  /* The bitmap words used by range searches, built the first time they are needed */
+  private long mask[];
+  private long scratch[];
   /**
    * The constructor below is used to create instances of this class.
    * It can be invoked any number of times as need be. Note that the
-   * constructor loads the color pool (the color tree) with all of 
+   * constructor loads the color pool (the color bitmap) with all of 
    * the colors. Colors are then pulled from the pool and returned
-   * to the pool, as need be. The two hash maps are never modified
-   * after they are built in this constructor.
-   * 
-   * @exception  IllegalArgumentException if a duplicate color is 
-   *             detected
-   * @exception  IllegalArgumentException if a duplicate RGB value  
-   *             is detected
+   * to the pool, as need be. The RGB values are checked for 
+   * duplicates once, when this class is loaded. The color names are
+   * checked once as well, the first time any color palette uses a 
+   * color name (when the shared name index is built). So the only 
+   * state built here is the color bitmap.
    */  
   public ColorPalette() {     
-    /* Build the items tree map */
-    for(int i = 0; i < items.length; i++)
-      itemsTree.add(i);
-    /* Build the color name to color index mapping. Note that duplicate
-     * color names are not allowed and should not occur. 
-     */
-    for(int i = 0; i < items.length; i++) {
-      if (itemsByName.containsKey(items[i].name)) {
-        throw new IllegalArgumentException("Color name already exists in pool - " +
-                                           items[i].name);        
-      }
-      itemsByName.put(items[i].name, i);
-    }
-    /* Build the color RGB value to color index mapping. Note that duplicate
-     * RGB values are not allowed and should not occur.
-     */
-    for(int i = 0; i < items.length; i++) {
-      if (itemsByRgb.containsKey(items[i].rgb)) {
-        throw new IllegalArgumentException("RGB value already exists in pool - " +
-                                           String.format("0x%06x", items[i].rgb ));        
-      }
-      itemsByRgb.put(items[i].rgb, i);   
-    }
+    this(itemsTable);
+  }
+  /*
+   * This constructor creates a color palette for any color table. The
+   * color pool is loaded with all of the colors of the table.
+   */
+  private ColorPalette(ColorTable colors) {
+    table = colors;
+    itemsFree = new ColorBitmap(table.size, true);
+  }
+  /*
+   * This constructor creates a copy of another color palette. The color
+   * table is shared. The color pool, the policy, the color tracker (if
+   * any), the leases (if any), the holder counts (if any) and the 
+   * excluded colors are copied. The lease listener is not.
+   */
+  private ColorPalette(ColorPalette other) {
+    table = other.table;
+    itemsFree = new ColorBitmap(other.itemsFree);
+    policy = other.policy;
+    if (other.tracker != null)
+      tracker = new DistinctTracker(other.tracker);
+    if (other.leases != null)
+      leases = new LeaseWheel(other.leases);
+    if (other.refs != null)
+      refs = other.refs.clone();
+    if (other.excluded != null)
+      excluded = new ColorBitmap(other.excluded);
+    setVersion = other.setVersion;
+  }
+  /** 
+   * Create a color palette from a CSV file. Each line of the file is a 
+   * color, either as "name,r,g,b" (channel values from 0 to 255) or as 
+   * "name,#rrggbb". Names may be quoted with double quotes. Blank lines
+   * and lines that start with '#' are skipped. The first color line is 
+   * also skipped if it is not a color (a header line). The colors go 
+   * into the pool in file order. The file is read as a stream and is 
+   * not held in memory as a whole.
+   * 
+   * @param in   the reader for the CSV file
+   * @return     a new color palette with all of the colors free
+   * @exception  IOException if the file can not be read or is not valid
+   * @exception  IllegalArgumentException if a duplicate color name or
+   *             a duplicate RGB value is found
+   */
+  public static ColorPalette fromCsv(Reader in) throws IOException {
+    return new ColorPalette(ColorTableIO.readCsv(in));
+  }
+  /** 
+   * Create a color palette from a JSON file. The file is either an array
+   * of objects, each with a "name" member and a "hex" member ("#rrggbb")
+   * or "r", "g" and "b" members, or one object that maps color names to 
+   * colors ("#rrggbb" strings or [r, g, b] arrays). The colors go into 
+   * the pool in file order. The file is read as a stream and is not held
+   * in memory as a whole.
+   * 
+   * @param in   the reader for the JSON file
+   * @return     a new color palette with all of the colors free
+   * @exception  IOException if the file can not be read or is not valid
+   * @exception  IllegalArgumentException if a duplicate color name or
+   *             a duplicate RGB value is found
+   */
+  public static ColorPalette fromJson(Reader in) throws IOException {
+    return new ColorPalette(ColorTableIO.readJson(in));
+  }
+  /** 
+   * Create a color palette from a GIMP palette (GPL) file. The colors go 
+   * into the pool in file order. Colors without a name are named after 
+   * their RGB value ("#rrggbb"). The file is read as a stream and is not
+   * held in memory as a whole.
+   * 
+   * @param in   the reader for the GIMP palette file
+   * @return     a new color palette with all of the colors free
+   * @exception  IOException if the file can not be read or is not valid
+   * @exception  IllegalArgumentException if a duplicate color name or
+   *             a duplicate RGB value is found
+   */
+  public static ColorPalette fromGpl(Reader in) throws IOException {
+    return new ColorPalette(ColorTableIO.readGpl(in));
+  }
+  /** 
+   * Create a color palette from a file written by {@link #writeBinary}.
+   * The file is memory-mapped and the colors are copied out of it in 
+   * bulk, so even very large palettes load in a few milliseconds. Both
+   * duplicate checks are run right away, the same way as for the text
+   * formats.
+   * 
+   * @param file the binary palette file
+   * @return     a new color palette with all of the colors free
+   * @exception  IOException if the file can not be read or is not a 
+   *             binary palette file
+   * @exception  IllegalArgumentException if a duplicate color name or
+   *             a duplicate RGB value is found
+   */
+  public static ColorPalette fromBinary(File file) throws IOException {
+    return new ColorPalette(ColorTableIO.readBinary(file));
+  }
+  /** 
+   * Write the colors of this color palette (not the state of the pool) 
+   * in a compact binary format that can be read back (memory-mapped) 
+   * with {@link #fromBinary}. The stream is flushed but not closed.
+   * 
+   * @param out  the stream the colors are written to
+   * @exception  IOException if the colors can not be written
+   */
+  public void writeBinary(OutputStream out) throws IOException {
+    ColorTableIO.writeBinary(table, out);
+  }
+  /** 
+   * Create a copy of this color palette. The copy starts out with the 
+   * same free and busy colors and the same policy as this palette, but
+   * after that the two palettes are independent. The list of colors is
+   * shared, so the cost of a copy is one copy of the free color bitmap
+   * (plus the distance arrays when the policy is not the lowest policy).
+   * This makes it cheap to try out a set of allocations on a copy and 
+   * keep or drop the result. Leased colors are leased in the copy as 
+   * well, until the same times, but the lease listener is not copied.
+   * 
+   * @return     a copy of this color palette
+   */
+  public ColorPalette copy() {
+    return new ColorPalette(this);
+  }
+  /** 
+   * Write the state of the color pool (which colors are free and which
+   * are busy) as a compact binary snapshot. The snapshot holds a format
+   * version, a fingerprint of the list of colors and the free color 
+   * bitmap, so it is a few hundred bytes for the built-in colors. The
+   * policy and the leases are not part of the snapshot (leased colors
+   * are saved as busy colors). The stream is flushed but not closed.
+   * 
+   * @param out  the stream the snapshot is written to
+   * @exception  NullPointerException if the stream is null
+   * @exception  IOException if the snapshot can not be written
+   * @see        #restoreSnapshot(InputStream)
+   */
+  public void writeSnapshot(OutputStream out) throws IOException {
+    DataOutputStream  data;
+    if (out == null)
+      throw new NullPointerException("Null stream passed " + 
+                                     "to write snapshot routine");
+    data = new DataOutputStream(out);
+    data.writeInt(SNAPSHOT_MAGIC);
+    data.writeInt(SNAPSHOT_VERSION);
+    data.writeLong(table.fingerprint());
+    data.writeInt(table.size);
+    for(int i = 0; i < itemsFree.words.length; i++)
+      data.writeLong(itemsFree.words[i]);
+    data.flush();
+  }
+  /** 
+   * Restore the state of the color pool from a snapshot written by 
+   * {@link #writeSnapshot(OutputStream)}. The snapshot must have been
+   * written by a color palette with the same list of colors. The free
+   * color bitmap is loaded as a whole, so the cost depends on the 
+   * number of words in the bitmap, not on the number of colors. If the
+   * policy is not the lowest policy, the color distances are rebuilt. All
+   * leases are dropped, so colors that were leased stay busy unless they
+   * are free in the snapshot. In shared mode, each busy color is given
+   * one holder. Excluded colors stay out of the pool. The pool is not 
+   * changed if an exception is thrown. Only the snapshot is read from 
+   * the stream and the stream is not closed.
+   * 
+   * @param in   the stream the snapshot is read from
+   * @exception  NullPointerException if the stream is null
+   * @exception  IOException if the snapshot can not be read or is not
+   *             a valid snapshot
+   * @exception  IllegalArgumentException if the snapshot was written
+   *             for a different list of colors
+   * @see        #writeSnapshot(OutputStream)
+   */
+  public void restoreSnapshot(InputStream in) throws IOException {
+    DataInputStream   data;
+    int               version;
+    long              saved[];
+    if (in == null)
+      throw new NullPointerException("Null stream passed " + 
+                                     "to restore snapshot routine");
+    data = new DataInputStream(in);
+    if (data.readInt() != SNAPSHOT_MAGIC)
+      throw new IOException("Stream does not hold a color pool snapshot");
+    version = data.readInt();
+    if (version != SNAPSHOT_VERSION)
+      throw new IOException("Unsupported color pool snapshot version - " + version);
+    if (data.readLong() != table.fingerprint() || data.readInt() != table.size)
+      throw new IllegalArgumentException("Color pool snapshot was written for " +
+                                         "a different list of colors");
+    saved = new long[itemsFree.words.length];
+    for(int i = 0; i < saved.length; i++)
+      saved[i] = data.readLong();
+    if (!itemsFree.load(saved))
+      throw new IOException("Color pool snapshot has invalid color bits");
+    if (excluded != null)
+      itemsFree.removeAll(excluded);
+    leases = null;
+    if (refs != null)
+      countHolders();
+    if (tracker != null)
+      tracker.reset(itemsFree);
   }
   /** 
    * Get the number of colors left in the color pool. The number
@@ -1180,7 +2536,8 @@ public final class ColorPalette {
    * @see     int
    */
   public int colorsLeft() {
-    return itemsTree.size();  
+    expire();
+    return itemsFree.size();  
   }
   /** 
    * Get a free color by name from the color palette pool 
@@ -1188,40 +2545,28 @@ public final class ColorPalette {
    * Note that the alpha channel of the returned value will
    * always be set to 255. 
    * <p>
+   * In shared mode (see {@link #setShared(boolean)}) a busy color is
+   * returned as well (unless it is leased), and gets one more holder.
+   * <p>
    * This method can be used to prevent specific colors from being
    * returned by a get call (of either kind) from the color pool.
    * This method should be called with the name of each color that
-   * is not wanted. The return values should be ignored.
+   * is not wanted. The return values should be ignored. To keep colors
+   * out of the pool for good, even across a {@link #reset()}, use 
+   * {@link #exclude(Collection)} instead.
    * 
    * @param name name of the color to be retrieved from the color pool
    * @return     the color in ARGB format 
    * @exception  NullPointerException if the color name String is null
    * @exception  NoSuchElementException if the color name is unknown
-   * @see        Integer
+   * @see        #colorByName(String)
    */
   public Integer getName(String name) {
-    Integer   rgb;
-    Integer   index;
-    /*
-     * Check the values passed by the caller
-     */
-    if (name == null) 
-      throw new NullPointerException("Null color name value passed " + 
-                                     "to get color by name routine");
-    /* Check if the color name is valid or not */
-    index = itemsByName.get(name);
-    if (index == null)
-      throw new NoSuchElementException("Unknown color name passed to " +
-                                       "get color by name - " + name);
-    /* 
-     * Check if the color is available or not. Return null if the color
-     * is not available.
-     */
-    if (!itemsTree.contains(index))
+    int       argb;
+    argb = colorByName(name);
+    if (argb == NO_COLOR)
       return null;
-    rgb = items[index].rgb;
-    itemsTree.remove(index);
-    return rgb | (255 << 24);
+    return argb;
   }
   /** 
    * Get the next free color from the color palette pool or return 
@@ -1229,17 +2574,14 @@ public final class ColorPalette {
    * of the returned value will always be set to 255.
    * 
    * @return     the next color in ARGB format 
-   * @see        Integer
+   * @see        #nextColor()
    */
   public Integer getNext() {
-    Integer   first;
-    Integer   rgb;
-    if (itemsTree.isEmpty())
+    int       argb;
+    argb = nextColor();
+    if (argb == NO_COLOR)
       return null;
-    first = itemsTree.first();
-    rgb = items[first].rgb;
-    itemsTree.remove(first);
-    return rgb | (255 << 24);
+    return argb;
   }
   /** 
    * Return a color that is currently in use, back into the color 
@@ -1253,54 +2595,1296 @@ public final class ColorPalette {
    *             color pool
    * @exception  UnsupportedOperationException if the color is already 
    *             in the color pool
-   * @see        Integer
+   * @see        #release(int)
    */
   public void putBack(Integer rgb) {
-    Integer   index;
     /*
      * Check the values passed by the caller
      */
     if (rgb == null) 
       throw new NullPointerException("Null RGB value passed " + 
                                      "to put back routine");
+    release(rgb);
+  }  
+  /** 
+   * Get a free color by name from the color palette pool or return
+   * {@link #NO_COLOR} if the color is not available. This method
+   * is the same as {@link #getName(String)}, except that the color
+   * is returned as a primitive int value. Note that the alpha channel 
+   * of the returned value will always be set to 255, so a color 
+   * from the pool can never be equal to {@link #NO_COLOR}. In shared 
+   * mode (see {@link #setShared(boolean)}) a busy color is returned 
+   * as well (unless it is leased), and gets one more holder.
+   * 
+   * @param name name of the color to be retrieved from the color pool
+   * @return     the color in ARGB format or {@link #NO_COLOR}
+   * @exception  NullPointerException if the color name String is null
+   * @exception  NoSuchElementException if the color name is unknown
+   * @see        #getName(String)
+   */
+  public int colorByName(String name) {
+    int       index;
+    /*
+     * Check the values passed by the caller
+     */
+    if (name == null) 
+      throw new NullPointerException("Null color name value passed " + 
+                                     "to get color by name routine");
+    expire();
+    /* Check if the color name is valid or not */
+    index = table.indexOfName(name);
+    if (index < 0)
+      throw new NoSuchElementException("Unknown color name passed to " +
+                                       "get color by name - " + name);
+    return claim(index);
+  }
+  /** 
+   * Get the next free color from the color palette pool or return 
+   * {@link #NO_COLOR} if none are available. This method is the same 
+   * as {@link #getNext()}, except that the color is returned as a 
+   * primitive int value. Note that the alpha channel of the returned 
+   * value will always be set to 255.
+   * 
+   * @return     the next color in ARGB format or {@link #NO_COLOR}
+   * @see        #getNext()
+   */
+  public int nextColor() {
+    int       first;
+    expire();
+    first = pick();
+    if (first < 0)
+      return NO_COLOR;
+    take(first);
+    return table.rgb[first] | ALPHA;
+  }
+  /** 
+   * Return a color that is currently in use, back into the color 
+   * pool. This method is the same as {@link #putBack(Integer)}, 
+   * except that the color is passed as a primitive int value. The 
+   * alpha value of the returned color is always ignored. In shared 
+   * mode the color only goes back into the pool when its last holder
+   * returns it. Returning an excluded color does nothing (see 
+   * {@link #exclude(Collection)}).
+   *  
+   * @param argb the color to be returned to the color pool 
+   * @exception  NoSuchElementException if the color was never in the
+   *             color pool
+   * @exception  UnsupportedOperationException if the color is already 
+   *             in the color pool
+   * @see        #putBack(Integer)
+   */
+  public void release(int argb) {
+    int       rgb;
+    int       index;
     /* Strip off the alpha channel value */
-    rgb &= 0xffffff;
+    rgb = argb & 0xffffff;
     /* 
      * Get the index value associated with the RGB value that is 
      * going to be returned to the palette pool. If there is no
      * index value, then the RGB value is invalid. 
      */
-    index = itemsByRgb.get(rgb);
-    if (index == null) 
+    index = table.indexOfRgb(rgb);
+    if (index < 0) 
       throw new NoSuchElementException("Unknown RGB value passed to " +
                                        "put back routine - " + 
                                        String.format("0x%06x", rgb));  
-    if (itemsTree.contains(index))
+    if (isExcluded(index))
+      return;
+    if (itemsFree.contains(index))
       throw new UnsupportedOperationException("Color value already exists in pool - " +
                                               String.format("0x%06x", rgb)); 
-    itemsTree.add(index);
+    drop(index);
   }  
-}
-/*
- * The ColorItem class is used to keep track of one color. It is only used
- * internally by the ColorPalette class. It should not be used for any other
- * purpose.
- */
-final class ColorItem {
-  public final String  name;
-  public final int     rgb;
-  public final short   r;
-  public final short   g;
-  public final short   b;
+  /** 
+   * Get up to count free colors from the color palette pool, in the
+   * same order as repeated calls to {@link #nextColor()} would return 
+   * them. The colors are stored in the output array, starting at index
+   * zero. The number of colors actually supplied is returned. This 
+   * number will be less than count if the pool does not have enough
+   * free colors. The entries of the output array past the colors
+   * supplied are never changed. Note that the alpha channel of each 
+   * returned value will always be set to 255.
+   * 
+   * @param count the number of colors wanted
+   * @param out   the array that receives the colors in ARGB format
+   * @return      the number of colors stored in the output array
+   * @exception   NullPointerException if the output array is null
+   * @exception   IllegalArgumentException if count is negative or
+   *              larger than the output array
+   */
+  public int getNext(int count, int out[]) {
+    int       taken;
+    int       index;
+    /*
+     * Check the values passed by the caller
+     */
+    if (out == null) 
+      throw new NullPointerException("Null output array passed " + 
+                                     "to get next colors routine");
+    if (count < 0 || count > out.length)
+      throw new IllegalArgumentException("Invalid color count passed to " +
+                                         "get next colors routine - " + count);
+    expire();
+    /* 
+     * The lowest free colors can all be taken in one pass. The other
+     * policies pick (and take) one color at a time.
+     */
+    if (tracker == null) {
+      taken = itemsFree.removeFirst(count, out);
+      if (refs != null) {
+        for(int i = 0; i < taken; i++)
+          refs[out[i]] = 1;
+      }
+    }
+    else {
+      /* Only store a color once it is known, so nothing past it changes */
+      for(taken = 0; taken < count; taken++) {
+        index = pick();
+        if (index < 0)
+          break;
+        take(index);
+        out[taken] = index;
+      }
+    }
+    for(int i = 0; i < taken; i++)
+      out[i] = table.rgb[out[i]] | ALPHA;
+    return taken;
+  }
+  /** 
+   * Get the lowest free color that can be read on a given background
+   * color, or {@link #NO_COLOR} if there is no such color. A color can 
+   * be read if its WCAG contrast ratio with the background color is at 
+   * least the given ratio (see {@link ColorDistance#contrastRatio(int, int)}).
+   * Contrast ratios run from 1 (no contrast) to 21 (black on white). The
+   * WCAG asks for 4.5 for text and 3 for large text and graphics. The
+   * policy is not used. The colors are kept sorted by luminance, so the 
+   * colors with enough contrast are found with two binary searches and 
+   * one pass over the words of the free color bitmap, not with a pass 
+   * over the colors. The alpha channel of the background color is 
+   * ignored. Note that the alpha channel of the returned value will
+   * always be set to 255.
+   * 
+   * @param backgroundRgb the background color
+   * @param minContrast   the lowest contrast ratio allowed
+   * @return              the color in ARGB format or {@link #NO_COLOR}
+   * @exception           IllegalArgumentException if the contrast ratio
+   *                      is less than 1 (or is not a number)
+   */
+  public int getNext(int backgroundRgb, double minContrast) {
+    RangeIndex  index;
+    double      background;
+    int         darker;
+    int         lighter;
+    int         found;
+    if (!(minContrast >= 1))
+      throw new IllegalArgumentException("Invalid contrast ratio passed to " +
+                                         "get next color routine - " + minContrast);
+    expire();
+    index = table.luminanceIndex();
+    if (mask == null)
+      mask = new long[itemsFree.words.length];
+    /* 
+     * The colors with enough contrast are the darkest colors up to one 
+     * luminance and the lightest colors from another luminance 
+     */
+    background = ColorSpaces.luminance(backgroundRgb);
+    darker = index.countAtMost((background + 0.05) / minContrast - 0.05);
+    lighter = index.countBelow(minContrast * (background + 0.05) - 0.05);
+    Arrays.fill(mask, 0);
+    index.addRange(0, darker, mask);
+    index.addRange(Math.max(darker, lighter), index.size(), mask);
+    found = -1;
+    for(int w = 0; w < mask.length && found < 0; w++) {
+      if ((mask[w] & itemsFree.words[w]) != 0)
+        found = (w << 6) + Long.numberOfTrailingZeros(mask[w] & itemsFree.words[w]);
+    }
+    if (found < 0)
+      return NO_COLOR;
+    take(found);
+    return table.rgb[found] | ALPHA;
+  }
+  /** 
+   * Get a free color with a hue, saturation and brightness in a range, or
+   * {@link #NO_COLOR} if there is no such color. The color is picked by 
+   * the current policy, out of the free colors in the range. The colors 
+   * are kept sorted by hue, by saturation and by brightness, so the 
+   * colors in the range are found with a few binary searches and a few 
+   * passes over the words of the free color bitmap, not with a pass over
+   * the colors. Note that the alpha channel of the returned value will 
+   * always be set to 255.
+   * 
+   * @param range the range of hue, saturation and brightness
+   * @return      the color in ARGB format or {@link #NO_COLOR}
+   * @exception   NullPointerException if the range is null
+   * @see         #freeColorsIn(HsbRange, int[])
+   */
+  public int getNext(HsbRange range) {
+    int         found = -1;
+    if (range == null)
+      throw new NullPointerException("Null HSB range passed " + 
+                                     "to get next color routine");
+    expire();
+    freeMask(range);
+    if (tracker != null)
+      found = tracker.farthest(mask);
+    else {
+      for(int w = 0; w < mask.length && found < 0; w++) {
+        if (mask[w] != 0)
+          found = (w << 6) + Long.numberOfTrailingZeros(mask[w]);
+      }
+    }
+    if (found < 0)
+      return NO_COLOR;
+    take(found);
+    return table.rgb[found] | ALPHA;
+  }
+  /** 
+   * Get the free colors with a hue, saturation and brightness in a range,
+   * without pulling them from the pool. The colors are stored in the 
+   * output array in color order (the order used by the lowest policy), 
+   * until the array is full. The number of colors stored is returned. 
+   * Note that the alpha channel of each color will always be set to 255.
+   * 
+   * @param range the range of hue, saturation and brightness
+   * @param out   the array that receives the colors in ARGB format
+   * @return      the number of colors stored in the output array
+   * @exception   NullPointerException if the range or the output array
+   *              is null
+   * @see         #getNext(HsbRange)
+   */
+  public int freeColorsIn(HsbRange range, int out[]) {
+    int         found = 0;
+    long        word;
+    if (range == null)
+      throw new NullPointerException("Null HSB range passed " + 
+                                     "to free colors routine");
+    if (out == null)
+      throw new NullPointerException("Null output array passed " + 
+                                     "to free colors routine");
+    expire();
+    freeMask(range);
+    for(int w = 0; w < mask.length && found < out.length; w++) {
+      for(word = mask[w]; word != 0 && found < out.length; word &= word - 1)
+        out[found++] = table.rgb[(w << 6) + Long.numberOfTrailingZeros(word)] | ALPHA;
+    }
+    return found;
+  }
+  /** 
+   * Get the free colors with a hue, saturation and brightness in a range,
+   * without pulling them from the pool. This method is the same as 
+   * {@link #freeColorsIn(HsbRange, int[])}, except that it returns a new
+   * array that holds every such color.
+   * 
+   * @param range the range of hue, saturation and brightness
+   * @return      the colors in ARGB format
+   * @exception   NullPointerException if the range is null
+   */
+  public int[] freeColorsIn(HsbRange range) {
+    int         count = 0;
+    int         out[];
+    if (range == null)
+      throw new NullPointerException("Null HSB range passed " + 
+                                     "to free colors routine");
+    expire();
+    freeMask(range);
+    for(int w = 0; w < mask.length; w++)
+      count += Long.bitCount(mask[w]);
+    out = new int[count];
+    freeColorsIn(range, out);
+    return out;
+  }
+  /** 
+   * Get a set of free colors by name from the color palette pool. The
+   * color for each name is stored in the output array at the same index
+   * as the name. If a color is not available (busy), then {@link #NO_COLOR} 
+   * is stored instead. Every name is checked before any color is pulled
+   * from the pool, so an exception leaves the pool unchanged. A name 
+   * that occurs more than once only gets the color the first time. The 
+   * number of colors actually supplied is returned. In shared mode busy
+   * colors are supplied as well (once for each time the name occurs) 
+   * and get one more holder each time.
+   * 
+   * @param names the names of the colors to be retrieved from the pool
+   * @param out   the array that receives the colors in ARGB format
+   * @return      the number of colors pulled from the pool
+   * @exception   NullPointerException if either array or any of the 
+   *              color names is null
+   * @exception   IllegalArgumentException if the output array is 
+   *              shorter than the array of names
+   * @exception   NoSuchElementException if any color name is unknown
+   * @see         #colorByName(String)
+   */
+  public int getNames(String names[], int out[]) {
+    int       index;
+    int       taken = 0;
+    /*
+     * Check the values passed by the caller
+     */
+    if (names == null || out == null) 
+      throw new NullPointerException("Null array passed " + 
+                                     "to get colors by name routine");
+    if (out.length < names.length)
+      throw new IllegalArgumentException("Output array passed to get colors " +
+                                         "by name routine is too short - " + 
+                                         out.length);
+    /* 
+     * Check every color name, saving the color numbers in the output
+     * array, before any color is pulled from the pool
+     */
+    for(int i = 0; i < names.length; i++) {
+      if (names[i] == null) 
+        throw new NullPointerException("Null color name value passed " + 
+                                       "to get colors by name routine");
+      index = table.indexOfName(names[i]);
+      if (index < 0)
+        throw new NoSuchElementException("Unknown color name passed to " +
+                                         "get colors by name - " + names[i]);
+      out[i] = index;
+    }
+    /* Pull each available color from the pool */
+    expire();
+    for(int i = 0; i < names.length; i++) {
+      out[i] = claim(out[i]);
+      if (out[i] != NO_COLOR)
+        taken++;
+    }
+    return taken;
+  }
+  /** 
+   * Return a set of colors that are currently in use, back into the 
+   * color pool. The alpha value of each returned color is always 
+   * ignored. Every color is checked before the pool is changed, so an
+   * exception leaves the pool unchanged. A color can not be returned
+   * to the color pool more than once, even in the same call. In shared
+   * mode a color can occur once for each of its holders. Each occurrence
+   * drops one holder, just like {@link #release(int)}.
+   *  
+   * @param argb the array holding the colors to be returned
+   * @param off  the index of the first color in the array
+   * @param len  the number of colors to be returned
+   * @exception  NullPointerException if the color array is null
+   * @exception  IndexOutOfBoundsException if the offset or length
+   *             is outside the bounds of the color array
+   * @exception  NoSuchElementException if any color was never in the
+   *             color pool
+   * @exception  UnsupportedOperationException if any color is already 
+   *             in the color pool
+   * @see        #release(int)
+   */
+  public void putBackAll(int argb[], int off, int len) {
+    int       rgb;
+    int       index;
+    /*
+     * Check the values passed by the caller
+     */
+    if (argb == null) 
+      throw new NullPointerException("Null RGB array passed " + 
+                                     "to put back all routine");
+    if (off < 0 || len < 0 || len > argb.length - off)
+      throw new IndexOutOfBoundsException("Invalid range passed to put " +
+                                          "back all routine - " + off + 
+                                          ", " + len);
+    /*
+     * Check every color before the pool is changed. A color is counted 
+     * each time it occurs, so that a color given more times than it has
+     * holders is found. The counts are set back to zero before any 
+     * exception is thrown and once the colors have been checked. 
+     * Excluded colors are skipped.
+     */
+    if (returned == null)
+      returned = new int[table.size];
+    try {
+      for(int i = off; i < off + len; i++) {
+        rgb = argb[i] & 0xffffff;
+        index = table.indexOfRgb(rgb);
+        if (index < 0)
+          throw new NoSuchElementException("Unknown RGB value passed to " +
+                                           "put back all routine - " + 
+                                           String.format("0x%06x", rgb));  
+        if (isExcluded(index))
+          continue;
+        if (itemsFree.contains(index) || ++returned[index] > (refs == null ? 1 : refs[index]))
+          throw new UnsupportedOperationException("Color value already exists in pool - " +
+                                                  String.format("0x%06x", rgb)); 
+      }
+    }
+    finally {
+      for(int i = off; i < off + len; i++) {
+        index = table.indexOfRgb(argb[i] & 0xffffff);
+        if (index >= 0)
+          returned[index] = 0;
+      }
+    }
+    /* Drop one holder for each color, the same way as the release method */
+    for(int i = off; i < off + len; i++) {
+      index = table.indexOfRgb(argb[i] & 0xffffff);
+      if (!isExcluded(index))
+        drop(index);
+    }
+  }  
+  /** 
+   * Get the color of the palette that is closest to an arbitrary RGB
+   * value. Closeness is measured as straight line distance in RGB space.
+   * The alpha channel of the value passed is ignored and the alpha 
+   * channel of the returned value will always be set to 255. The color
+   * is not pulled from the pool.
+   * 
+   * @param rgb  the RGB value to be matched
+   * @return     the closest color in ARGB format
+   * @see        #nearestColor(int, Scope)
+   */
+  public int nearestColor(int rgb) {
+    return nearestColor(rgb, Scope.ALL);
+  }
+  /** 
+   * Get the color of the palette that is closest to an arbitrary RGB
+   * value, looking only at the colors in a given scope. If there are 
+   * no colors in the scope, then {@link #NO_COLOR} is returned. The 
+   * color is not pulled from the pool.
+   * 
+   * @param rgb   the RGB value to be matched
+   * @param scope the colors to be searched
+   * @return      the closest color in ARGB format or {@link #NO_COLOR}
+   * @exception   NullPointerException if the scope is null
+   * @see         #nearestColor(int, Scope, ColorDistance.Metric)
+   */
+  public int nearestColor(int rgb, Scope scope) {
+    return nearestColor(rgb, scope, ColorDistance.Metric.RGB);
+  }
+  /** 
+   * Get the color of the palette that is closest to an arbitrary RGB
+   * value, looking only at the colors in a given scope and measuring
+   * closeness with a given metric. If there are no colors in the scope, 
+   * then {@link #NO_COLOR} is returned. The color is not pulled from 
+   * the pool.
+   * 
+   * @param rgb    the RGB value to be matched
+   * @param scope  the colors to be searched
+   * @param metric the way closeness is measured
+   * @return       the closest color in ARGB format or {@link #NO_COLOR}
+   * @exception    NullPointerException if the scope or metric is null
+   */
+  public int nearestColor(int rgb, Scope scope, ColorDistance.Metric metric) {
+    int       index;
+    index = nearestIndex(rgb, scope, metric);
+    if (index < 0)
+      return NO_COLOR;
+    return table.rgb[index] | ALPHA;
+  }
+  /** 
+   * Get the name of the color of the palette that is closest to an 
+   * arbitrary RGB value. The alpha channel of the value passed is 
+   * ignored. The color is not pulled from the pool.
+   * 
+   * @param rgb  the RGB value to be matched
+   * @return     the name of the closest color
+   * @see        #nearestName(int, Scope)
+   */
+  public String nearestName(int rgb) {
+    return nearestName(rgb, Scope.ALL);
+  }
+  /** 
+   * Get the name of the color of the palette that is closest to an 
+   * arbitrary RGB value, looking only at the colors in a given scope.
+   * If there are no colors in the scope, then a null value is returned.
+   * The color is not pulled from the pool.
+   * 
+   * @param rgb   the RGB value to be matched
+   * @param scope the colors to be searched
+   * @return      the name of the closest color or null
+   * @exception   NullPointerException if the scope is null
+   * @see         #nearestName(int, Scope, ColorDistance.Metric)
+   */
+  public String nearestName(int rgb, Scope scope) {
+    return nearestName(rgb, scope, ColorDistance.Metric.RGB);
+  }
+  /** 
+   * Get the name of the color of the palette that is closest to an 
+   * arbitrary RGB value, looking only at the colors in a given scope
+   * and measuring closeness with a given metric. If there are no colors
+   * in the scope, then a null value is returned. The color is not pulled
+   * from the pool.
+   * 
+   * @param rgb    the RGB value to be matched
+   * @param scope  the colors to be searched
+   * @param metric the way closeness is measured
+   * @return       the name of the closest color or null
+   * @exception    NullPointerException if the scope or metric is null
+   */
+  public String nearestName(int rgb, Scope scope, ColorDistance.Metric metric) {
+    int       index;
+    index = nearestIndex(rgb, scope, metric);
+    if (index < 0)
+      return null;
+    return table.name(index);
+  }
+  /*
+   * Get the color number of the color closest to an RGB value, in a 
+   * given scope, or -1 if there are no colors in the scope. The RGB and
+   * CIE76 searches use the k-d trees of the color table. There is no
+   * way to prune a CIEDE2000 search with a k-d tree (CIEDE2000 is not a 
+   * distance in any fixed space), so the CIEDE2000 search checks every 
+   * color in the scope against the precomputed CIELAB values.
+   */
+  private int nearestIndex(int rgb, Scope scope, ColorDistance.Metric metric) {
+    long      words[];
+    float     lab[];
+    float     point[];
+    int       best = -1;
+    double    bestDistance = Double.MAX_VALUE;
+    double    d;
+    if (scope == null || metric == null)
+      throw new NullPointerException("Null scope or metric value passed " + 
+                                     "to nearest color routine");
+    words = scope == Scope.ALL ? null : itemsFree.words;
+    switch (metric) {
+      case RGB:
+        return table.rgbTree().nearest((rgb >> 16) & 0xff, (rgb >> 8) & 0xff, rgb & 0xff,
+                                       words, scope == Scope.FREE);
+      case DELTA_E76:
+        point = ColorDistance.toLab(rgb);
+        return table.labTree().nearest(point[0], point[1], point[2], 
+                                       words, scope == Scope.FREE);
+      default:
+        point = ColorDistance.toLab(rgb);
+        lab = table.lab();
+        for(int i = 0; i < table.size; i++) {
+          if (scope != Scope.ALL && itemsFree.contains(i) != (scope == Scope.FREE))
+            continue;
+          d = ColorDistance.deltaE2000(point[0], point[1], point[2], 
+                                       lab[i * 3], lab[i * 3 + 1], lab[i * 3 + 2]);
+          if (d < bestDistance) {
+            best = i;
+            bestDistance = d;
+          }
+        }
+        return best;
+    }
+  }
+  /** 
+   * Get the free colors within a CIE76 color difference of an RGB value,
+   * closest first, without pulling them from the pool. At most limit 
+   * colors are returned. If there are more, the closest ones are kept. 
+   * Colors that are equally close are returned in color order. The search
+   * uses the CIELAB k-d tree of the palette and skips busy colors as it 
+   * goes, so only the colors near the RGB value are looked at and only 
+   * the colors returned are sorted. The alpha channel of the RGB value is
+   * ignored. Note that the alpha channel of each returned color will 
+   * always be set to 255.
+   * 
+   * @param rgb    the RGB value to search around
+   * @param deltaE the largest CIE76 color difference allowed
+   * @param limit  the largest number of colors wanted
+   * @return       the colors in ARGB format, closest first
+   * @exception    IllegalArgumentException if the color difference or
+   *               the limit is negative (or the color difference is not
+   *               a number)
+   * @see          #kNearestFree(int, int)
+   */
+  public int[] freeColorsWithin(int rgb, double deltaE, int limit) {
+    if (!(deltaE >= 0))
+      throw new IllegalArgumentException("Invalid color difference passed to " +
+                                         "free colors within routine - " + deltaE);
+    if (limit < 0)
+      throw new IllegalArgumentException("Invalid color count passed to " +
+                                         "free colors within routine - " + limit);
+    return nearestFree(rgb, deltaE * deltaE, limit);
+  }
+  /** 
+   * Get the k free colors closest (by CIE76 color difference) to an RGB 
+   * value, closest first, without pulling them from the pool. If there 
+   * are fewer than k free colors, every free color is returned. This is
+   * the same as {@link #freeColorsWithin(int, double, int)} with no limit
+   * on the color difference. The alpha channel of the RGB value is 
+   * ignored. Note that the alpha channel of each returned color will 
+   * always be set to 255.
+   * 
+   * @param rgb  the RGB value to search around
+   * @param k    the number of colors wanted
+   * @return     the colors in ARGB format, closest first
+   * @exception  IllegalArgumentException if k is negative
+   */
+  public int[] kNearestFree(int rgb, int k) {
+    if (k < 0)
+      throw new IllegalArgumentException("Invalid color count passed to " +
+                                         "nearest free colors routine - " + k);
+    return nearestFree(rgb, Double.MAX_VALUE, k);
+  }
   /*
-   * This constructor builds an instance of a color item from
-   * the color name and the RGB values
+   * Get up to a number of free colors within a squared CIE76 color
+   * difference of an RGB value, closest first
+   */
+  private int[] nearestFree(int rgb, double maxDistance, int limit) {
+    float     point[] = new float[3];
+    float     distances[];
+    int       out[];
+    int       found;
+    expire();
+    limit = Math.min(limit, itemsFree.size());
+    out = new int[limit];
+    distances = new float[limit];
+    ColorSpaces.toLab(rgb, point, 0);
+    found = table.labTree().nearest(point[0], point[1], point[2], itemsFree.words, true,
+                                    (float) Math.min(maxDistance, Float.MAX_VALUE), 
+                                    limit, out, distances);
+    for(int i = 0; i < found; i++)
+      out[i] = table.rgb[out[i]] | ALPHA;
+    return found == limit ? out : Arrays.copyOf(out, found);
+  }
+  /** 
+   * Get a color ramp (a gradient) between two colors of the palette, such
+   * as a heat map scale or a legend. This is the same as calling 
+   * {@link #ramp(String, String, int, RampSpace, boolean)} with CIELAB
+   * steps and without pulling the colors from the pool.
+   * 
+   * @param fromName the name of the first color of the ramp
+   * @param toName   the name of the last color of the ramp
+   * @param steps    the number of colors in the ramp
+   * @return         the colors of the ramp in ARGB format
+   * @exception      NullPointerException if a color name is null
+   * @exception      NoSuchElementException if a color name is unknown
+   * @exception      IllegalArgumentException if the two names are the 
+   *                 same, or the number of steps is less than two or 
+   *                 more than the number of colors of the palette
+   */
+  public int[] ramp(String fromName, String toName, int steps) {
+    return ramp(fromName, toName, steps, RampSpace.LAB, false);
+  }
+  /** 
+   * Get a color ramp (a gradient) between two colors of the palette. The
+   * first and last colors of the ramp are the two named colors. The steps
+   * between them are spread evenly along the straight line between the 
+   * two colors, in CIELAB or OKLab, and each step is the closest color of
+   * the palette that is not already in the ramp. Every color of the ramp 
+   * is a named color of the palette and no color occurs twice. Ramps do
+   * not depend on which colors are free. The most recently used ramps are
+   * kept (and shared by every color palette with the same list of 
+   * colors), so asking for the same ramp every frame only costs two name
+   * lookups and a copy of the ramp.
+   * <p>
+   * If the reserve flag is set, the colors of the ramp are also pulled 
+   * from the pool, all of them or none of them. If any color of the ramp
+   * is busy (or excluded), nothing is pulled from the pool and a null
+   * value is returned. In shared mode busy colors get one more holder 
+   * instead. Note that the alpha channel of each returned color will
+   * always be set to 255.
+   * 
+   * @param fromName the name of the first color of the ramp
+   * @param toName   the name of the last color of the ramp
+   * @param steps    the number of colors in the ramp
+   * @param space    the color space in which the steps are spread out
+   * @param reserve  true to pull the colors of the ramp from the pool
+   * @return         the colors of the ramp in ARGB format or null
+   * @exception      NullPointerException if a color name or the color 
+   *                 space is null
+   * @exception      NoSuchElementException if a color name is unknown
+   * @exception      IllegalArgumentException if the two names are the 
+   *                 same, or the number of steps is less than two or 
+   *                 more than the number of colors of the palette
+   */
+  public int[] ramp(String fromName, String toName, int steps, RampSpace space, 
+                    boolean reserve) {
+    int       from;
+    int       to;
+    int       ramp[];
+    int       out[];
+    if (fromName == null || toName == null || space == null)
+      throw new NullPointerException("Null color name or color space passed " + 
+                                     "to ramp routine");
+    from = table.indexOfName(fromName);
+    if (from < 0)
+      throw new NoSuchElementException("Unknown color name passed to " +
+                                       "ramp routine - " + fromName);
+    to = table.indexOfName(toName);
+    if (to < 0)
+      throw new NoSuchElementException("Unknown color name passed to " +
+                                       "ramp routine - " + toName);
+    if (from == to)
+      throw new IllegalArgumentException("Same color name passed twice to " +
+                                         "ramp routine - " + fromName);
+    if (steps < 2 || steps > table.size)
+      throw new IllegalArgumentException("Invalid number of steps passed to " +
+                                         "ramp routine - " + steps);
+    ramp = table.ramps().get(from, to, steps, space);
+    if (reserve) {
+      expire();
+      /* Check every color before any color is pulled from the pool */
+      for(int i = 0; i < steps; i++) {
+        if (claimable(ramp[i]) < 0)
+          return null;
+      }
+      for(int i = 0; i < steps; i++)
+        claim(ramp[i]);
+    }
+    out = new int[steps];
+    for(int i = 0; i < steps; i++)
+      out[i] = table.rgb[ramp[i]] | ALPHA;
+    return out;
+  }
+  /** 
+   * Count the colors of an image, such as a camera frame. Each pixel 
+   * counted adds one to the count of the closest color of this palette 
+   * (excluded colors are never counted). Only every step-th pixel is 
+   * counted. The colors with the highest counts can then be found with
+   * {@link ColorHistogram#top(int, int[])}. This method builds a new 
+   * {@link ColorQuantizer} for each call. Code that counts frame after 
+   * frame should keep one color quantizer (perhaps with a lookup table)
+   * and one histogram, and use 
+   * {@link ColorQuantizer#histogram(int[], int, ColorHistogram)}.
+   * 
+   * @param pixels the pixels of the image, in ARGB format
+   * @param step   the distance between the pixels counted
+   * @return       a histogram holding the counts
+   * @exception    NullPointerException if the pixel array is null
+   * @exception    IllegalArgumentException if the step is not positive
+   * @exception    IllegalStateException if every color of this color
+   *               palette has been excluded
+   */
+  public ColorHistogram histogram(int pixels[], int step) {
+    return new ColorQuantizer(this).histogram(pixels, step);
+  }
+  /** 
+   * Get the policy used to pick the color returned by the get next
+   * color methods.
+   * 
+   * @return     the current policy
+   */
+  public Policy getPolicy() {
+    return policy;
+  }
+  /** 
+   * Set the policy used to pick the color returned by the get next
+   * color methods. The policy can be changed at any time. Changing
+   * to the distinct policy costs one k-d tree search for each color
+   * of the palette. After that, each color pulled from the pool or
+   * returned to the pool costs (at most) one pass over the colors.
+   * The CVD safe policy measures distances four times (with normal
+   * vision and three kinds of color blindness), so the smallest of the
+   * four distances between each pair of colors is computed once for each
+   * list of colors, the first time it is needed (four bytes per pair, 
+   * about 4 MB for the default palette). After that, pulling a color
+   * or returning a color costs no more than with the distinct policy.
+   * Lists of more than 2048 colors skip the table and measure the four 
+   * distances as needed, which costs up to four times as much.
+   * 
+   * @param newPolicy the policy to be used
+   * @exception  NullPointerException if the policy is null
+   */
+  public void setPolicy(Policy newPolicy) {
+    if (newPolicy == null)
+      throw new NullPointerException("Null policy value passed " + 
+                                     "to set policy routine");
+    if (newPolicy == policy)
+      return;
+    policy = newPolicy;
+    if (policy == Policy.LOWEST)
+      tracker = null;
+    else
+      tracker = new DistinctTracker(table, itemsFree, policy == Policy.CVD_SAFE);
+  }
+  /** 
+   * Lease the next free color from the color palette pool for a limited
+   * time, or return {@link #NO_COLOR} if none are available. The color
+   * is picked the same way as by {@link #nextColor()}. If the lease is
+   * not renewed with {@link #renewLease(int, long)} and the color is not
+   * returned with {@link #release(int)} before the time runs out, the 
+   * color is returned to the pool by the color palette. This stops colors
+   * from leaking out of the pool when a client goes away without putting
+   * its colors back. Note that the alpha channel of the returned value 
+   * will always be set to 255.
+   * <p>
+   * Leases that have run out are found by a hashed timing wheel with a 
+   * resolution of 10 milliseconds. Leases are checked (and colors that
+   * have run out are returned) each time a color is pulled from the pool,
+   * each time the colors left are counted and each time
+   * {@link #expireLeases()} is called. No thread is started.
+   * <p>
+   * A lease belongs to the one holder of the color. Only a free color
+   * can be leased, and in shared mode a leased color can not be pulled
+   * from the pool again by name until the lease ends, so a lease never
+   * covers more than one holder.
+   * <p>
+   * Any length that is not negative is allowed. A lease whose end would
+   * be more than {@link Long#MAX_VALUE} milliseconds after the lease
+   * timer started (for example, a length of {@link Long#MAX_VALUE}) never
+   * runs out.
+   * 
+   * @param ttlMillis the length of the lease in milliseconds
+   * @return          the leased color in ARGB format or {@link #NO_COLOR}
+   * @exception       IllegalArgumentException if the length of the lease
+   *                  is negative
+   * @see             #leaseName(String, long)
+   */
+  public int leaseNext(long ttlMillis) {
+    int       argb;
+    checkLease(ttlMillis);
+    argb = nextColor();
+    if (argb != NO_COLOR)
+      lease(table.indexOfRgb(argb & 0xffffff), ttlMillis);
+    return argb;
+  }
+  /** 
+   * Lease a free color by name from the color palette pool for a limited
+   * time, or return {@link #NO_COLOR} if the color is not available. See
+   * {@link #leaseNext(long)} for the way leases work, including the 
+   * longest lease. Only a free color can be leased, so 
+   * {@link #NO_COLOR} is returned for a busy color in shared mode as 
+   * well. Note that the alpha channel of the returned value will always
+   * be set to 255.
+   * 
+   * @param name      name of the color to be leased from the color pool
+   * @param ttlMillis the length of the lease in milliseconds
+   * @return          the leased color in ARGB format or {@link #NO_COLOR}
+   * @exception       NullPointerException if the color name String is null
+   * @exception       NoSuchElementException if the color name is unknown
+   * @exception       IllegalArgumentException if the length of the lease
+   *                  is negative
+   * @see             #leaseNext(long)
+   */
+  public int leaseName(String name, long ttlMillis) {
+    int       index;
+    checkLease(ttlMillis);
+    if (name == null) 
+      throw new NullPointerException("Null color name value passed " + 
+                                     "to lease name routine");
+    expire();
+    index = table.indexOfName(name);
+    if (index < 0)
+      throw new NoSuchElementException("Unknown color name passed to " +
+                                       "lease name routine - " + name);
+    /* A busy color is never leased, so the lease has the only holder */
+    if (!itemsFree.contains(index))
+      return NO_COLOR;
+    take(index);
+    lease(index, ttlMillis);
+    return table.rgb[index] | ALPHA;
+  }
+  /** 
+   * Renew the lease on a leased color, so that it runs out a given time
+   * from now rather than at the time set before. True is returned if the
+   * lease was renewed. False is returned if the color is not leased, 
+   * which includes a color whose lease has already run out or whose
+   * holder has put it back. A length so long that the lease would end
+   * past the longest lease (see {@link #leaseNext(long)}) makes a lease
+   * that never runs out. The alpha value of the color is always ignored.
+   * 
+   * @param argb      the leased color
+   * @param ttlMillis the new length of the lease in milliseconds, 
+   *                  counted from now
+   * @return          true if the lease was renewed
+   * @exception       NoSuchElementException if the color was never in 
+   *                  the color pool
+   * @exception       IllegalArgumentException if the length of the lease
+   *                  is negative
+   */
+  public boolean renewLease(int argb, long ttlMillis) {
+    int       rgb;
+    int       index;
+    checkLease(ttlMillis);
+    rgb = argb & 0xffffff;
+    index = table.indexOfRgb(rgb);
+    if (index < 0) 
+      throw new NoSuchElementException("Unknown RGB value passed to " +
+                                       "renew lease routine - " + 
+                                       String.format("0x%06x", rgb));  
+    expire();
+    if (leases == null || !leases.isLeased(index))
+      return false;
+    leases.lease(index, leases.after(ttlMillis));
+    return true;
+  }
+  /** 
+   * Return every leased color whose lease has run out to the color pool
+   * right away. This is done anyway each time a color is pulled from the
+   * pool, so this method only needs to be called to make sure that the
+   * lease listener is told about leases that run out while the color 
+   * palette is not being used. The number of colors returned is returned.
+   * 
+   * @return     the number of colors returned to the pool
+   * @see        #setLeaseListener(LeaseListener)
+   */
+  public int expireLeases() {
+    return expire();
+  }
+  /** 
+   * Get the number of colors that are leased right now. Leases that have
+   * run out, but have not been found yet, are counted.
+   * 
+   * @return     the number of leased colors
+   */
+  public int leasesActive() {
+    return leases == null ? 0 : leases.active();
+  }
+  /** 
+   * Get the number of leased colors that have been returned to the pool
+   * because their leases ran out, since this color palette was created. 
+   * 
+   * @return     the number of colors returned because their leases ran out
    */
-  protected ColorItem(String colName, int colR, int colG, int colB) {
-    name = colName;
-    r = (short) colR;
-    g = (short) colG;
-    b = (short) colB;
-    rgb = (r << 16) + (g << 8) + b;
+  public long leasesReclaimed() {
+    return leasesReclaimed;
   }
-}
\ No newline at end of file
+  /** 
+   * Set the listener that is told each time a leased color runs out and 
+   * is returned to the pool. The listener is called after the color has
+   * been returned. Passing a null value removes the listener.
+   * 
+   * @param listener the listener to be told about leases that run out
+   */
+  public void setLeaseListener(LeaseListener listener) {
+    leaseListener = listener;
+  }
+  /** 
+   * Return every color to the color pool, except for the excluded colors.
+   * This is the same as creating a new color palette (and excluding the
+   * same colors again), but the cost depends on the number of words in 
+   * the free color bitmap, not on the number of colors, and no storage 
+   * is allocated. All leases are dropped and, in shared mode, all of the
+   * holders are dropped. The policy is not changed.
+   * 
+   * @see        #exclude(Collection)
+   */
+  public void reset() {
+    itemsFree.fill();
+    if (excluded != null)
+      itemsFree.removeAll(excluded);
+    if (leases != null && leases.active() > 0)
+      leases.clear();
+    if (refs != null)
+      Arrays.fill(refs, 0);
+    if (tracker != null)
+      tracker.reset(itemsFree);
+  }
+  /** 
+   * Take a set of colors out of circulation for good, by name. Excluded
+   * colors are never returned by any get or lease method. They are not
+   * returned to the pool when they are put back (which does nothing) or
+   * when the pool is reset. An excluded color that is busy right now 
+   * loses its lease and its holders. Every name is checked before any 
+   * color is excluded, so an exception leaves the palette unchanged. 
+   * With the distinct policy, excluded colors count as colors to keep
+   * away from, just like busy colors. The number of colors excluded by 
+   * this call (not counting colors that were already excluded) is 
+   * returned.
+   * 
+   * @param names the names of the colors to be excluded
+   * @return      the number of colors newly excluded
+   * @exception   NullPointerException if the collection or any of the 
+   *              color names is null
+   * @exception   NoSuchElementException if any color name is unknown
+   * @see         #exclude(RgbPredicate)
+   */
+  public int exclude(Collection<String> names) {
+    int       found = 0;
+    if (names == null)
+      throw new NullPointerException("Null collection passed " + 
+                                     "to exclude routine");
+    /* Check every color name before any color is excluded */
+    for(String name : names) {
+      if (name == null) 
+        throw new NullPointerException("Null color name value passed " + 
+                                       "to exclude routine");
+      if (table.indexOfName(name) < 0)
+        throw new NoSuchElementException("Unknown color name passed to " +
+                                         "exclude routine - " + name);
+    }
+    for(String name : names) {
+      if (exclude(table.indexOfName(name)))
+        found++;
+    }
+    return found;
+  }
+  /** 
+   * Take every color whose RGB value passes a test out of circulation for
+   * good. The test is called once for each color of the palette, with the
+   * RGB value of the color (without an alpha channel). See 
+   * {@link #exclude(Collection)} for what excluding a color means. The 
+   * number of colors excluded by this call (not counting colors that were
+   * already excluded) is returned.
+   * 
+   * @param test  the test that picks the colors to be excluded
+   * @return      the number of colors newly excluded
+   * @exception   NullPointerException if the test is null
+   */
+  public int exclude(RgbPredicate test) {
+    int       found = 0;
+    if (test == null)
+      throw new NullPointerException("Null test passed " + 
+                                     "to exclude routine");
+    for(int i = 0; i < table.size; i++) {
+      if (test.test(table.rgb[i]) && exclude(i))
+        found++;
+    }
+    return found;
+  }
+  /** 
+   * Turn shared mode on or off. In the default (exclusive) mode a busy
+   * color can not be pulled from the pool again until it is put back. 
+   * In shared mode a busy color can be pulled from the pool again by 
+   * name, by any number of holders, and it only goes back into the pool
+   * when every holder has put it back. A leased color is not shared, it
+   * keeps its one holder until the lease ends (see 
+   * {@link #leaseNext(long)}). The get next color methods never
+   * return a busy color, in either mode. The number of holders of each
+   * color is kept in one int array, with no map. Turning shared mode on
+   * gives each busy color (other than the excluded colors) one holder. 
+   * Turning it off forgets the number of holders, so each busy color 
+   * goes back into the pool the next time it is put back.
+   * 
+   * @param shared true for shared mode, false for exclusive mode
+   * @see          #holders(int)
+   */
+  public void setShared(boolean shared) {
+    if (shared == (refs != null))
+      return;
+    if (shared) {
+      refs = new int[table.size];
+      countHolders();
+    }
+    else
+      refs = null;
+  }
+  /** 
+   * Check if this color palette is in shared mode.
+   * 
+   * @return     true in shared mode, false in exclusive mode
+   * @see        #setShared(boolean)
+   */
+  public boolean isShared() {
+    return refs != null;
+  }
+  /** 
+   * Get the number of holders of a color. A free color or an excluded
+   * color has no holders.
+   * In exclusive mode a busy color always has one holder. The alpha 
+   * value of the color is always ignored.
+   * 
+   * @param argb the color to be checked
+   * @return     the number of holders of the color
+   * @exception  NoSuchElementException if the color was never in the
+   *             color pool
+   * @see        #setShared(boolean)
+   */
+  public int holders(int argb) {
+    int       rgb;
+    int       index;
+    rgb = argb & 0xffffff;
+    index = table.indexOfRgb(rgb);
+    if (index < 0) 
+      throw new NoSuchElementException("Unknown RGB value passed to " +
+                                       "holders routine - " + 
+                                       String.format("0x%06x", rgb));  
+    if (itemsFree.contains(index) || isExcluded(index))
+      return 0;
+    return refs == null ? 1 : refs[index];
+  }
+  /*
+   * Check the length of a lease passed by a caller
+   */
+  private static void checkLease(long ttlMillis) {
+    if (ttlMillis < 0)
+      throw new IllegalArgumentException("Invalid lease length passed to " +
+                                         "lease routine - " + ttlMillis);
+  }
+  /*
+   * Lease a color that has just been pulled from the pool, by color
+   * number. The timing wheel is built the first time a color is leased.
+   */
+  private void lease(int index, long ttlMillis) {
+    if (leases == null)
+      leases = new LeaseWheel(table.size);
+    leases.lease(index, leases.after(ttlMillis));
+  }
+  /*
+   * Return every leased color whose lease has run out to the pool and
+   * tell the lease listener (if any) about each one. A leased color has
+   * only one holder, even in shared mode, so each color whose lease runs
+   * out goes back into the pool. The number of colors returned is 
+   * returned. The listener is called after all of the colors are back,
+   * with its own copy of the color numbers, so the listener can use this
+   * color palette.
+   */
+  private int expire() {
+    int       found;
+    int       expired[];
+    if (leases == null || leases.active() == 0)
+      return 0;
+    found = leases.expire(leases.now());
+    if (found == 0)
+      return 0;
+    for(int i = 0; i < found; i++)
+      drop(leases.expired[i]);
+    leasesReclaimed += found;
+    if (leaseListener != null) {
+      expired = Arrays.copyOf(leases.expired, found);
+      for(int i = 0; i < found; i++)
+        leaseListener.leaseExpired(table.rgb[expired[i]] | ALPHA);
+    }
+    return found;
+  }
+  /*
+   * Get the color number of the free color that the current policy 
+   * picks next, or -1 if the pool is empty
+   */
+  private int pick() {
+    if (tracker == null)
+      return itemsFree.first();
+    return tracker.farthest(itemsFree);
+  }
+  /*
+   * Pull a free color from the pool, by color number
+   */
+  private void take(int index) {
+    itemsFree.remove(index);
+    if (refs != null)
+      refs[index] = 1;
+    if (tracker != null)
+      tracker.taken(index);
+  }
+  /*
+   * Drop one holder of a busy color, by color number. The color is 
+   * returned to the pool unless it is in shared mode and still has 
+   * other holders. A leased color only has one holder, the holder of
+   * the lease, so any lease on the color ends here as well.
+   */
+  private void drop(int index) {
+    if (leases != null)
+      leases.cancel(index);
+    if (refs != null && refs[index] > 1)
+      refs[index]--;
+    else
+      give(index);
+  }
+  /*
+   * Exclude a color, by color number. False is returned if the color was
+   * already excluded. The bitmap of excluded colors is built the first 
+   * time a color is excluded.
+   */
+  private boolean exclude(int index) {
+    if (excluded == null)
+      excluded = new ColorBitmap(table.size, false);
+    else if (excluded.contains(index))
+      return false;
+    excluded.add(index);
+    setVersion++;
+    if (itemsFree.contains(index))
+      take(index);
+    if (refs != null)
+      refs[index] = 0;
+    if (leases != null)
+      leases.cancel(index);
+    return true;
+  }
+  /*
+   * Set the range search words to the free colors in an HSB range
+   */
+  private void freeMask(HsbRange range) {
+    if (mask == null)
+      mask = new long[itemsFree.words.length];
+    if (scratch == null)
+      scratch = new long[itemsFree.words.length];
+    range.addColors(table, mask, scratch);
+    for(int w = 0; w < mask.length; w++)
+      mask[w] &= itemsFree.words[w];
+  }
+  /*
+   * Get the number of holders of a color that can be pulled from the pool
+   * right now, by color number, or -1 if the color can not be pulled from
+   * the pool. A free color has no holders. In shared mode a busy color 
+   * (other than an excluded or leased color) can always be pulled again.
+   */
+  int claimable(int index) {
+    if (itemsFree.contains(index))
+      return 0;
+    if (refs == null || isExcluded(index) || isLeased(index))
+      return -1;
+    return refs[index];
+  }
+  /*
+   * Set the words of a bitmap to the colors that may be pulled from the
+   * pool right now: the free colors and, in shared mode, every busy color
+   * that is not excluded or leased.
+   */
+  void claimableWords(long out[]) {
+    for(int w = 0; w < out.length; w++) {
+      out[w] = itemsFree.words[w];
+      if (refs != null)
+        out[w] |= excluded == null ? -1L : ~excluded.words[w];
+    }
+    /* Clear the bits past the last color */
+    if ((table.size & 63) != 0)
+      out[out.length - 1] &= (1L << (table.size & 63)) - 1;
+    if (refs != null && leases != null)
+      leases.removeLeased(out);
+  }
+  /*
+   * Pull a color from the pool by color number, or return no color if 
+   * the color is not available. In shared mode a busy color (other than
+   * an excluded or leased color) is available and just gets one more
+   * holder.
+   */
+  int claim(int index) {
+    if (!itemsFree.contains(index)) {
+      if (refs == null || isExcluded(index) || isLeased(index))
+        return NO_COLOR;
+      refs[index]++;
+    }
+    else
+      take(index);
+    return table.rgb[index] | ALPHA;
+  }
+  /*
+   * Get the color table used by this color palette
+   */
+  ColorTable colorTable() {
+    return table;
+  }
+  /*
+   * Get the number of times the set of colors that are not excluded has
+   * changed. Lookup structures built from that set can check this number
+   * to find out if they are out of date.
+   */
+  int setVersion() {
+    return setVersion;
+  }
+  /*
+   * Get a copy of the words of the bitmap of excluded colors, or null if
+   * no color has been excluded
+   */
+  long[] excludedWords() {
+    return excluded == null ? null : excluded.words.clone();
+  }
+  /*
+   * Check if a color is excluded, by color number
+   */
+  private boolean isExcluded(int index) {
+    return excluded != null && excluded.contains(index);
+  }
+  /*
+   * Check if a color is leased, by color number. A leased color has one
+   * holder, the holder of the lease, so it can not be shared.
+   */
+  private boolean isLeased(int index) {
+    return leases != null && leases.isLeased(index);
+  }
+  /*
+   * Give each busy color one holder and each free color none
+   */
+  private void countHolders() {
+    for(int i = 0; i < table.size; i++)
+      refs[i] = itemsFree.contains(i) || isExcluded(i) ? 0 : 1;
+  }
+  /*
+   * Return a busy color to the pool, by color number. Any lease on the
+   * color is dropped.
+   */
+  private void give(int index) {
+    itemsFree.add(index);
+    if (refs != null)
+      refs[index] = 0;
+    if (leases != null)
+      leases.cancel(index);
+    if (tracker != null)
+      tracker.given(index, itemsFree);
+  }
+}
@@ -0,0 +1,952 @@
+package colorpalette;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * The ColorQuantizer class maps images onto the colors of a color palette.
+ * Each pixel is replaced by the color of the palette that is closest to
+ * it (by straight line distance in RGB space). Images are arrays of ARGB
+ * values, such as the pixels array of a Processing image. Colors that
+ * have been excluded from the palette (see
+ * {@link ColorPalette#exclude(java.util.Collection)}) are never used.
+ * Whether a color is free or busy makes no difference.
+ * <p>
+ * Large images are split into parts that are mapped at the same time by
+ * the threads of an executor. If no executor is given, a fork/join pool
+ * shared by every color quantizer (with one thread for each processor)
+ * is used. The calling thread maps one of the parts itself and returns
+ * once every part is done. Small images are mapped on the calling thread
+ * only.
+ * <p>
+ * The closest color for each pixel is found with the RGB k-d tree of the
+ * palette. Each part keeps a small cache of the colors it has seen, so
+ * pixels with a color that was seen recently (which is most pixels in
+ * most images) need no search. For images that are mapped over and over,
+ * a lookup table from RGB values to colors can be used instead (see 
+ * {@link #setLookup(Lookup)}), so that each pixel costs one array load.
+ * The color palette must not be changed while an image is being mapped,
+ * but a color quantizer can be used by any number of threads at once.
+ *
+ * @author      ##author##
+ * @version     ##library.prettyVersion##
+ * @since       ##date##
+ */
+public final class ColorQuantizer {
+  /* The smallest number of pixels worth mapping on another thread */
+  final private static int MIN_PART = 1 << 14;
+  /* The size of the range of channel offsets used for ordered dithering */
+  final private static int ORDERED_SPREAD = 32;
+  /* 
+   * The channel offsets used for ordered dithering, from an 8 by 8 Bayer
+   * matrix. The offsets run from -16 to 15, which is about half the 
+   * distance between neighbouring colors of the built-in palette.
+   */
+  final private static int BAYER[] = new int[64];
+  static {
+    int   m;
+    for(int y = 0; y < 8; y++) {
+      for(int x = 0; x < 8; x++) {
+        /* Interleave the bits of x ^ y and y, in reverse order */
+        m = 0;
+        for(int bit = 0; bit < 3; bit++) {
+          m |= (((x ^ y) >> bit) & 1) << (5 - 2 * bit);
+          m |= ((y >> bit) & 1) << (4 - 2 * bit);
+        }
+        BAYER[y << 3 | x] = (2 * m + 1) * ORDERED_SPREAD / 128 - ORDERED_SPREAD / 2;
+      }
+    }
+  }
+  /* The number of bits in the color cache index and the size of the cache */
+  final private static int CACHE_BITS = 12;
+  final private static int CACHE_SIZE = 1 << CACHE_BITS;
+  /* The pool used when no executor is given, built the first time it is needed */
+  private static ForkJoinPool sharedPool;
+  /* The color palette whose colors are used */
+  final private ColorPalette palette;
+  /* The executor used to map the parts of an image, or null for the shared pool */
+  final private Executor executor;
+  /* The kind of lookup table used */
+  private Lookup lookup = Lookup.NONE;
+  /* 
+   * The lookup table below holds the color number for each key of the 
+   * lookup table, or -1 if the entry has not been filled yet. It is null
+   * if no lookup table is used.
+   */
+  private short entries[];
+  /* The set version of the color palette the lookup table was filled for */
+  private int entriesVersion;
+  /**
+   * The Lookup values below select the lookup table used to map pixels
+   * straight to colors, without a search. The table is indexed by the RGB
+   * value of a pixel, with some low bits of each channel dropped for the
+   * smaller tables. Each entry holds the closest color to the middle of
+   * the RGB values that share the entry, so the smaller tables can pick a
+   * color that is not quite the closest. Entries are filled the first time
+   * they are used, or all at once by {@link #buildLookup()}.
+   */
+  public enum Lookup {
+    /** No lookup table. Each pixel is searched for (the default) */
+    NONE(0, 0, 0),
+    /** 5 bits of red, 6 of green and 5 of blue (65536 entries, 128 KB) */
+    BITS_565(5, 6, 5),
+    /** 6 bits of each channel (262144 entries, 512 KB) */
+    BITS_666(6, 6, 6),
+    /** Every RGB value has its own entry (16777216 entries, 32 MB) */
+    BITS_888(8, 8, 8);
+    /* The number of bits kept from each channel */
+    final int   red;
+    final int   green;
+    final int   blue;
+    Lookup(int red, int green, int blue) {
+      this.red = red;
+      this.green = green;
+      this.blue = blue;
+    }
+    /*
+     * Get the number of entries of the lookup table
+     */
+    int size() {
+      return 1 << (red + green + blue);
+    }
+    /*
+     * Get the key (the entry number) of an RGB value
+     */
+    int key(int rgb) {
+      return ((rgb >> (24 - red)) & ((1 << red) - 1)) << (green + blue) |
+             ((rgb >> (16 - green)) & ((1 << green) - 1)) << blue |
+             ((rgb >> (8 - blue)) & ((1 << blue) - 1));
+    }
+    /*
+     * Get the RGB value in the middle of the RGB values that share a key.
+     * The bits kept from each channel are repeated in the dropped bits,
+     * so that the middle of the lowest and highest entries are black and
+     * white.
+     */
+    int middle(int key) {
+      int   r = (key >> (green + blue)) & ((1 << red) - 1);
+      int   g = (key >> blue) & ((1 << green) - 1);
+      int   b = key & ((1 << blue) - 1);
+      return expand(r, red) << 16 | expand(g, green) << 8 | expand(b, blue);
+    }
+    /*
+     * Widen a channel value with some bits to eight bits
+     */
+    private static int expand(int value, int bits) {
+      return (value << (8 - bits) | value >> (2 * bits - 8)) & 0xff;
+    }
+  }
+  /**
+   * The Dither values below select the way an image is dithered. Dithering
+   * mixes nearby colors of the palette to stand for the colors in between, 
+   * so smooth gradients do not turn into bands.
+   */
+  public enum Dither {
+    /** No dithering. Each pixel gets the closest color */
+    NONE,
+    /** 
+     * Ordered dithering with an 8 by 8 Bayer matrix. Each pixel is done on
+     * its own, so large images are split into strips that are dithered at
+     * the same time.
+     */
+    ORDERED,
+    /** 
+     * Floyd-Steinberg error diffusion, in serpentine order. The error of
+     * each pixel is carried to the pixels after it, so the image is done 
+     * on one thread, from the top row to the bottom row.
+     */
+    FLOYD_STEINBERG
+  }
+  /*
+   * The Part class maps one range of an image. The first exception thrown
+   * by any part is kept, so that it can be thrown again by the calling
+   * thread.
+   */
+  private static final class Part implements Runnable {
+    final Job             mapping;
+    final int             from;
+    final int             to;
+    final CountDownLatch  done;
+    Part(Job mapping, int from, int to, CountDownLatch done) {
+      this.mapping = mapping;
+      this.from = from;
+      this.to = to;
+      this.done = done;
+    }
+    public void run() {
+      try {
+        mapping.map(from, to);
+      }
+      catch (Throwable e) {
+        mapping.fail(e);
+      }
+      finally {
+        done.countDown();
+      }
+    }
+  }
+  /*
+   * The Job class is the base class for work that is split into parts.
+   * The bitmap words of the excluded colors are copied when the job is
+   * built, so every part sees the same colors. The first exception thrown
+   * by any part is kept.
+   */
+  private abstract static class Job {
+    final ColorTable        table;
+    final ColorKdTree       tree;
+    final long              excluded[];
+    final Lookup            lookup;
+    final short             entries[];
+    /* The shifts and masks that turn a pixel into a lookup table key */
+    final int               redShift, redMask;
+    final int               greenShift, greenMask;
+    final int               blueShift, blueMask;
+    volatile Throwable      failure;
+    Job(ColorPalette palette, Lookup lookup, short entries[]) {
+      this.table = palette.colorTable();
+      this.tree = table.rgbTree();
+      this.excluded = palette.excludedWords();
+      this.lookup = lookup;
+      this.entries = entries;
+      redShift = 24 - lookup.red - lookup.green - lookup.blue;
+      redMask = ((1 << lookup.red) - 1) << (lookup.green + lookup.blue);
+      greenShift = 16 - lookup.green - lookup.blue;
+      greenMask = ((1 << lookup.green) - 1) << lookup.blue;
+      blueShift = 8 - lookup.blue;
+      blueMask = (1 << lookup.blue) - 1;
+    }
+    /*
+     * Do the work for one range of values
+     */
+    abstract void map(int from, int to);
+    /*
+     * Get the color number of the color closest to an RGB value. An
+     * exception is thrown if every color has been excluded.
+     */
+    int nearest(int rgb) {
+      int   index;
+      index = tree.nearest((rgb >> 16) & 0xff, (rgb >> 8) & 0xff, rgb & 0xff,
+                           excluded, false);
+      if (index < 0)
+        throw new IllegalStateException("Every color of the color palette " +
+                                        "has been excluded");
+      return index;
+    }
+    /*
+     * Get the color number for an RGB value from the lookup table, filling
+     * the entry if need be. Two threads may fill the same entry at the 
+     * same time, but they always store the same value.
+     */
+    int lookup(int rgb) {
+      int   key = lookup.key(rgb);
+      int   index = entries[key];
+      if (index == -1) {
+        index = nearest(lookup == Lookup.BITS_888 ? rgb : lookup.middle(key));
+        entries[key] = (short) index;
+      }
+      return index & 0xffff;
+    }
+    /*
+     * Get the color number for a pixel (the alpha channel is ignored) 
+     * from the lookup table. A pixel whose entry is filled costs a few 
+     * shifts and one array load.
+     */
+    final int lookupPixel(int pixel) {
+      int   index;
+      index = entries[(pixel >> redShift & redMask) |
+                      (pixel >> greenShift & greenMask) |
+                      (pixel >> blueShift & blueMask)];
+      if (index == -1)
+        index = lookup(pixel & 0xffffff);
+      return index & 0xffff;
+    }
+    /*
+     * Get the color number for an RGB value, from the lookup table if
+     * there is one. Otherwise the color number is taken from a small 
+     * direct-mapped cache keyed by RGB value, or found with a search and
+     * kept in the cache. The cache arrays are owned by the calling part.
+     */
+    int find(int rgb, int keys[], int values[]) {
+      int   slot;
+      if (entries != null)
+        return lookup(rgb);
+      slot = (rgb * 0x9e3779b9) >>> (32 - CACHE_BITS);
+      if (keys[slot] != rgb) {
+        keys[slot] = rgb;
+        values[slot] = nearest(rgb);
+      }
+      return values[slot];
+    }
+    /*
+     * Build the key array of an empty cache
+     */
+    static int[] emptyCache() {
+      int   keys[] = new int[CACHE_SIZE];
+      Arrays.fill(keys, -1);
+      return keys;
+    }
+    /*
+     * Keep the first exception thrown by any part
+     */
+    synchronized void fail(Throwable e) {
+      if (failure == null)
+        failure = e;
+    }
+  }
+  /*
+   * The Filling class fills every entry of a lookup table that has not
+   * been filled yet
+   */
+  private static final class Filling extends Job {
+    Filling(ColorPalette palette, Lookup lookup, short entries[]) {
+      super(palette, lookup, entries);
+    }
+    void map(int from, int to) {
+      for(int key = from; key < to; key++) {
+        if (entries[key] == -1)
+          entries[key] = (short) nearest(lookup == Lookup.BITS_888 ? key : lookup.middle(key));
+      }
+    }
+  }
+  /*
+   * The Mapping class holds everything needed to map one image
+   */
+  private static final class Mapping extends Job {
+    final int               src[];
+    final int               argbOut[];
+    final short             indexOut[];
+    Mapping(ColorPalette palette, Lookup lookup, short entries[], 
+            int src[], int argbOut[], short indexOut[]) {
+      super(palette, lookup, entries);
+      this.src = src;
+      this.argbOut = argbOut;
+      this.indexOut = indexOut;
+    }
+    /*
+     * Map one range of the image. If there is a lookup table, each pixel
+     * is looked up in it. Otherwise the color numbers found are kept in a
+     * small direct-mapped cache (one for each range), keyed by RGB value,
+     * so pixels with a color seen recently need no search. The alpha 
+     * channel of each pixel is kept.
+     */
+    void map(int from, int to) {
+      int     keys[];
+      int     values[];
+      int     index;
+      if (entries != null) {
+        mapLookup(from, to);
+        return;
+      }
+      keys = emptyCache();
+      values = new int[CACHE_SIZE];
+      for(int i = from; i < to; i++) {
+        index = find(src[i] & 0xffffff, keys, values);
+        if (argbOut != null)
+          argbOut[i] = (src[i] & 0xff000000) | table.rgb[index];
+        else
+          indexOut[i] = (short) index;
+      }
+    }
+    /*
+     * Map one range of the image with the lookup table
+     */
+    private void mapLookup(int from, int to) {
+      int     colors[] = table.rgb;
+      int     pixel;
+      int     index;
+      for(int i = from; i < to; i++) {
+        pixel = src[i];
+        index = lookupPixel(pixel);
+        if (argbOut != null)
+          argbOut[i] = (pixel & 0xff000000) | colors[index];
+        else
+          indexOut[i] = (short) index;
+      }
+    }
+  }
+  /*
+   * The Counting class holds everything needed to count the colors of one
+   * image. Each part counts into its own partial count array, so the parts
+   * never write to the same storage.
+   */
+  private static final class Counting extends Job {
+    final int               src[];
+    final int               step;
+    final ColorHistogram    histogram;
+    final AtomicInteger     parts = new AtomicInteger();
+    Counting(ColorPalette palette, Lookup lookup, short entries[], 
+             int src[], int step, ColorHistogram histogram) {
+      super(palette, lookup, entries);
+      this.src = src;
+      this.step = step;
+      this.histogram = histogram;
+    }
+    /*
+     * Count every pixel in a range whose position is a multiple of the
+     * step
+     */
+    void map(int from, int to) {
+      int     keys[] = null;
+      int     values[] = null;
+      int     counts[];
+      counts = histogram.partial(parts.getAndIncrement());
+      if (entries != null) {
+        for(int i = (from + step - 1) / step * step; i < to; i += step)
+          counts[lookupPixel(src[i])]++;
+        return;
+      }
+      keys = emptyCache();
+      values = new int[CACHE_SIZE];
+      for(int i = (from + step - 1) / step * step; i < to; i += step)
+        counts[find(src[i] & 0xffffff, keys, values)]++;
+    }
+  }
+  /*
+   * The Dithering class holds everything needed to dither one image. The
+   * parts of the work are ranges of rows. Error diffusion carries errors
+   * from each row to the next, so it is always done as one part. Ordered
+   * dithering treats every pixel on its own, so the rows can be split up.
+   */
+  private static final class Dithering extends Job {
+    final int               src[];
+    final int               argbOut[];
+    final short             indexOut[];
+    final int               width;
+    final Dither            mode;
+    Dithering(ColorPalette palette, Lookup lookup, short entries[], 
+              int src[], int argbOut[], short indexOut[], int width, Dither mode) {
+      super(palette, lookup, entries);
+      this.src = src;
+      this.argbOut = argbOut;
+      this.indexOut = indexOut;
+      this.width = width;
+      this.mode = mode;
+    }
+    void map(int fromRow, int toRow) {
+      if (mode == Dither.FLOYD_STEINBERG)
+        diffuse(fromRow, toRow);
+      else
+        order(fromRow, toRow);
+    }
+    /*
+     * Store the color for one pixel, keeping the alpha channel of the
+     * source pixel
+     */
+    private void store(int i, int index) {
+      if (argbOut != null)
+        argbOut[i] = (src[i] & 0xff000000) | table.rgb[index];
+      else
+        indexOut[i] = (short) index;
+    }
+    /*
+     * Dither a range of rows with Floyd-Steinberg error diffusion. Rows 
+     * are done in alternate directions (serpentine order). The errors are
+     * kept in two rows of fixed-point integers (sixteenths), one for the 
+     * row being done and one for the next row, with one spare entry at
+     * each end so that the edges need no special checks.
+     */
+    private void diffuse(int fromRow, int toRow) {
+      int     keys[] = emptyCache();
+      int     values[] = new int[CACHE_SIZE];
+      int     current[] = new int[(width + 2) * 3];
+      int     next[] = new int[(width + 2) * 3];
+      int     swap[];
+      int     step;
+      int     x;
+      int     e;
+      int     pixel;
+      int     r, g, b;
+      int     index;
+      int     color;
+      for(int y = fromRow; y < toRow; y++) {
+        step = (y & 1) == 0 ? 1 : -1;
+        x = step > 0 ? 0 : width - 1;
+        for(int n = 0; n < width; n++, x += step) {
+          pixel = src[y * width + x];
+          e = (x + 1) * 3;
+          r = clamp(((pixel >> 16) & 0xff) + ((current[e] + 8) >> 4));
+          g = clamp(((pixel >> 8) & 0xff) + ((current[e + 1] + 8) >> 4));
+          b = clamp((pixel & 0xff) + ((current[e + 2] + 8) >> 4));
+          index = find(r << 16 | g << 8 | b, keys, values);
+          store(y * width + x, index);
+          color = table.rgb[index];
+          spread(current, next, e, step * 3, r - ((color >> 16) & 0xff));
+          spread(current, next, e + 1, step * 3, g - ((color >> 8) & 0xff));
+          spread(current, next, e + 2, step * 3, b - (color & 0xff));
+        }
+        swap = current;
+        current = next;
+        next = swap;
+        Arrays.fill(next, 0);
+      }
+    }
+    /*
+     * Spread the error of one channel of one pixel to the pixels that have
+     * not been done yet: 7/16 to the next pixel in the same row and 3/16,
+     * 5/16 and 1/16 to the three pixels below
+     */
+    private static void spread(int current[], int next[], int e, int step, int error) {
+      current[e + step] += error * 7;
+      next[e - step] += error * 3;
+      next[e] += error * 5;
+      next[e + step] += error;
+    }
+    /*
+     * Dither a range of rows with an 8 by 8 Bayer matrix. Each channel of
+     * each pixel is moved up or down by the matrix entry for the pixel
+     * before the closest color is found.
+     */
+    private void order(int fromRow, int toRow) {
+      int     keys[] = emptyCache();
+      int     values[] = new int[CACHE_SIZE];
+      int     i;
+      int     pixel;
+      int     offset;
+      int     index;
+      for(int y = fromRow; y < toRow; y++) {
+        for(int x = 0; x < width; x++) {
+          i = y * width + x;
+          pixel = src[i];
+          offset = BAYER[(y & 7) << 3 | (x & 7)];
+          index = find(clamp(((pixel >> 16) & 0xff) + offset) << 16 |
+                       clamp(((pixel >> 8) & 0xff) + offset) << 8 |
+                       clamp((pixel & 0xff) + offset), keys, values);
+          store(i, index);
+        }
+      }
+    }
+    /*
+     * Clamp a channel value to the range 0 to 255
+     */
+    private static int clamp(int value) {
+      return value < 0 ? 0 : value > 255 ? 255 : value;
+    }
+  }
+  /**
+   * Create a color quantizer for the colors of a color palette. Large
+   * images are mapped by the threads of a fork/join pool shared by every
+   * color quantizer.
+   *
+   * @param palette the color palette whose colors are used
+   * @exception     NullPointerException if the color palette is null
+   */
+  public ColorQuantizer(ColorPalette palette) {
+    this(palette, null);
+  }
+  /**
+   * Create a color quantizer for the colors of a color palette. Large
+   * images are mapped by the threads of a given executor. If the executor
+   * is null, a fork/join pool shared by every color quantizer is used.
+   * Note that the calling thread waits for the parts given to the executor,
+   * so an executor with a fixed number of threads must not be used from
+   * one of its own threads.
+   *
+   * @param palette  the color palette whose colors are used
+   * @param executor the executor used to map the parts of large images,
+   *                 or null
+   * @exception      NullPointerException if the color palette is null
+   */
+  public ColorQuantizer(ColorPalette palette, Executor executor) {
+    if (palette == null)
+      throw new NullPointerException("Null color palette passed " +
+                                     "to color quantizer constructor");
+    this.palette = palette;
+    this.executor = executor;
+  }
+  /**
+   * Replace each pixel of an image with the closest color of the color
+   * palette. The alpha channel of each pixel is kept. The source and
+   * destination arrays may be the same array.
+   *
+   * @param src  the pixels of the image, in ARGB format
+   * @param dst  the array that receives the mapped pixels
+   * @exception  NullPointerException if either array is null
+   * @exception  IllegalArgumentException if the destination array is
+   *             shorter than the source array
+   * @exception  IllegalStateException if every color of the color
+   *             palette has been excluded
+   */
+  public void quantize(int src[], int dst[]) {
+    if (src == null || dst == null)
+      throw new NullPointerException("Null array passed " +
+                                     "to quantize routine");
+    if (dst.length < src.length)
+      throw new IllegalArgumentException("Destination array passed to quantize " +
+                                         "routine is too short - " + dst.length);
+    run(newMapping(src, dst, null), src.length, MIN_PART);
+  }
+  /**
+   * Find the color number of the closest color of the color palette for
+   * each pixel of an image. Color numbers start at zero and follow the
+   * order of the colors in the palette. Color numbers above 32767 are
+   * stored as negative short values, so they should be read back as
+   * (index &amp; 0xffff). Use {@link #colorOf(int)} to turn a color number
+   * into a color.
+   *
+   * @param src  the pixels of the image, in ARGB format
+   * @param dst  the array that receives the color numbers
+   * @exception  NullPointerException if either array is null
+   * @exception  IllegalArgumentException if the destination array is
+   *             shorter than the source array
+   * @exception  UnsupportedOperationException if the color palette has
+   *             more than 65536 colors
+   * @exception  IllegalStateException if every color of the color
+   *             palette has been excluded
+   */
+  public void quantize(int src[], short dst[]) {
+    if (src == null || dst == null)
+      throw new NullPointerException("Null array passed " +
+                                     "to quantize routine");
+    if (dst.length < src.length)
+      throw new IllegalArgumentException("Destination array passed to quantize " +
+                                         "routine is too short - " + dst.length);
+    if (palette.colorTable().size > 1 << 16)
+      throw new UnsupportedOperationException("Color palette has too many colors " +
+                                              "for short color numbers - " +
+                                              palette.colorTable().size);
+    run(newMapping(src, null, dst), src.length, MIN_PART);
+  }
+  /**
+   * Count the colors of an image. Each pixel counted adds one to the 
+   * count of the closest color of the color palette (or the color picked
+   * by the lookup table, if there is one). Only every step-th pixel is 
+   * counted, so a step of 1 counts every pixel and a step of 4 counts
+   * one pixel in four. 
+   *
+   * @param src  the pixels of the image, in ARGB format
+   * @param step the distance between the pixels counted
+   * @return     a new histogram holding the counts
+   * @exception  NullPointerException if the pixel array is null
+   * @exception  IllegalArgumentException if the step is not positive
+   * @exception  IllegalStateException if every color of the color
+   *             palette has been excluded
+   * @see        #histogram(int[], int, ColorHistogram)
+   */
+  public ColorHistogram histogram(int src[], int step) {
+    ColorHistogram  histogram;
+    histogram = new ColorHistogram(palette);
+    histogram(src, step, histogram);
+    return histogram;
+  }
+  /**
+   * Count the colors of an image, adding the counts to a histogram that
+   * already exists. See {@link #histogram(int[], int)} for the way the
+   * pixels are counted. Large images are split into parts that are 
+   * counted at the same time, each part into its own partial counts, 
+   * which are added to the histogram at the end. Partial counts are only
+   * made for the parts an image is actually split into, and they are kept
+   * by the histogram, so counting another image of the same size (or a
+   * smaller one) allocates no storage for the counts.
+   *
+   * @param src       the pixels of the image, in ARGB format
+   * @param step      the distance between the pixels counted
+   * @param histogram the histogram the counts are added to
+   * @exception       NullPointerException if the pixel array or the 
+   *                  histogram is null
+   * @exception       IllegalArgumentException if the step is not positive
+   *                  or the histogram is for a different list of colors
+   * @exception       IllegalStateException if every color of the color
+   *                  palette has been excluded
+   */
+  public void histogram(int src[], int step, ColorHistogram histogram) {
+    Counting  counting;
+    boolean   counted = false;
+    int       parts;
+    if (src == null || histogram == null)
+      throw new NullPointerException("Null array or histogram passed " +
+                                     "to histogram routine");
+    if (step <= 0)
+      throw new IllegalArgumentException("Invalid step passed to " +
+                                         "histogram routine - " + step);
+    if (histogram.table != palette.colorTable())
+      throw new IllegalArgumentException("Histogram passed to histogram routine " +
+                                         "is for a different list of colors");
+    /* Only make partial counts for the parts the job is split into */
+    parts = parts(src.length, (int) Math.min((long) MIN_PART * step, Integer.MAX_VALUE));
+    histogram.reserve(parts);
+    counting = new Counting(palette, lookup, currentEntries(), src, step, histogram);
+    /*
+     * If any part fails, the partial counts of every part are thrown away,
+     * so they are not added to the histogram by the next counting job
+     */
+    try {
+      split(counting, src.length, parts);
+      counted = true;
+    }
+    finally {
+      if (counted)
+        histogram.merge(counting.parts.get(), (src.length + step - 1L) / step);
+      else
+        histogram.discard(counting.parts.get());
+    }
+  }
+  /**
+   * Get the color for a color number, as stored by
+   * {@link #quantize(int[], short[])}. The alpha channel of the returned
+   * value will always be set to 255.
+   *
+   * @param index the color number (negative values are read as
+   *              unsigned short values)
+   * @return      the color in ARGB format
+   * @exception   IndexOutOfBoundsException if there is no color with the
+   *              color number
+   */
+  public int colorOf(int index) {
+    ColorTable  table = palette.colorTable();
+    if (index < 0)
+      index &= 0xffff;
+    if (index >= table.size)
+      throw new IndexOutOfBoundsException("Invalid color number passed to " +
+                                          "color of routine - " + index);
+    return table.rgb[index] | 0xff000000;
+  }
+  /**
+   * Get the kind of lookup table used.
+   *
+   * @return     the kind of lookup table
+   */
+  public Lookup getLookup() {
+    return lookup;
+  }
+  /**
+   * Set the kind of lookup table used to map pixels to colors. With a 
+   * lookup table, mapping a pixel whose entry has been filled costs one
+   * array load. The table starts out empty and entries are filled as 
+   * pixels need them, unless {@link #buildLookup()} is called. Changing
+   * the kind of lookup table drops the old table. The lookup table is 
+   * kept up to date when colors are excluded from the color palette:
+   * only the entries that hold an excluded color are filled again.
+   * <p>
+   * This method must not be called while an image is being mapped.
+   *
+   * @param newLookup the kind of lookup table to be used
+   * @exception       NullPointerException if the kind of lookup table 
+   *                  is null
+   * @exception       UnsupportedOperationException if the color palette
+   *                  has more than 65535 colors
+   */
+  public void setLookup(Lookup newLookup) {
+    if (newLookup == null)
+      throw new NullPointerException("Null lookup value passed " +
+                                     "to set lookup routine");
+    if (newLookup != Lookup.NONE && palette.colorTable().size >= 1 << 16)
+      throw new UnsupportedOperationException("Color palette has too many colors " +
+                                              "for a lookup table - " +
+                                              palette.colorTable().size);
+    synchronized (this) {
+      if (newLookup == lookup)
+        return;
+      lookup = newLookup;
+      entries = null;
+      if (lookup != Lookup.NONE) {
+        entries = new short[lookup.size()];
+        Arrays.fill(entries, (short) -1);
+        entriesVersion = palette.setVersion();
+      }
+    }
+  }
+  /**
+   * Fill every entry of the lookup table that has not been filled yet,
+   * so that no pixel needs a search after this. The entries are filled
+   * in parallel, in the same way that large images are mapped. This 
+   * method does nothing if no lookup table is used.
+   *
+   * @exception  IllegalStateException if every color of the color
+   *             palette has been excluded
+   */
+  public void buildLookup() {
+    short   current[];
+    current = currentEntries();
+    if (current != null)
+      run(new Filling(palette, lookup, current), current.length, MIN_PART);
+  }
+  /**
+   * Replace each pixel of an image with a color of the color palette, 
+   * dithering the image with a given method. The image is read one row at
+   * a time. Error diffusion only keeps the errors for two rows (as fixed
+   * point integers), so no storage the size of the image is needed. The
+   * alpha channel of each pixel is kept. The source and destination
+   * arrays may be the same array.
+   *
+   * @param src    the pixels of the image, in ARGB format, row by row
+   * @param dst    the array that receives the dithered pixels
+   * @param width  the number of pixels in each row of the image
+   * @param method the way the image is dithered
+   * @exception    NullPointerException if either array or the method
+   *               is null
+   * @exception    IllegalArgumentException if the width is not positive,
+   *               the number of pixels is not a multiple of the width or
+   *               the destination array is shorter than the source array
+   * @exception    IllegalStateException if every color of the color
+   *               palette has been excluded
+   */
+  public void dither(int src[], int dst[], int width, Dither method) {
+    if (dst == null)
+      throw new NullPointerException("Null array passed " +
+                                     "to dither routine");
+    dither(src, dst, null, dst.length, width, method);
+  }
+  /**
+   * Find the color number of a color of the color palette for each pixel 
+   * of an image, dithering the image with a given method. The color 
+   * numbers are stored the same way as by {@link #quantize(int[], short[])}.
+   * See {@link #dither(int[], int[], int, Dither)} for the way the image
+   * is dithered.
+   *
+   * @param src    the pixels of the image, in ARGB format, row by row
+   * @param dst    the array that receives the color numbers
+   * @param width  the number of pixels in each row of the image
+   * @param method the way the image is dithered
+   * @exception    NullPointerException if either array or the method
+   *               is null
+   * @exception    IllegalArgumentException if the width is not positive,
+   *               the number of pixels is not a multiple of the width or
+   *               the destination array is shorter than the source array
+   * @exception    UnsupportedOperationException if the color palette has
+   *               more than 65536 colors
+   * @exception    IllegalStateException if every color of the color
+   *               palette has been excluded
+   */
+  public void dither(int src[], short dst[], int width, Dither method) {
+    if (dst == null)
+      throw new NullPointerException("Null array passed " +
+                                     "to dither routine");
+    if (palette.colorTable().size > 1 << 16)
+      throw new UnsupportedOperationException("Color palette has too many colors " +
+                                              "for short color numbers - " +
+                                              palette.colorTable().size);
+    dither(src, null, dst, dst.length, width, method);
+  }
+  /*
+   * Check the values passed to a dither routine and dither the image
+   */
+  private void dither(int src[], int argbOut[], short indexOut[], int length, 
+                      int width, Dither method) {
+    int         height;
+    Dithering   job;
+    if (src == null || method == null)
+      throw new NullPointerException("Null array or method passed " +
+                                     "to dither routine");
+    if (width <= 0 || src.length % width != 0)
+      throw new IllegalArgumentException("Invalid image width passed to " +
+                                         "dither routine - " + width);
+    if (length < src.length)
+      throw new IllegalArgumentException("Destination array passed to dither " +
+                                         "routine is too short - " + length);
+    if (method == Dither.NONE) {
+      run(newMapping(src, argbOut, indexOut), src.length, MIN_PART);
+      return;
+    }
+    height = src.length / width;
+    job = new Dithering(palette, lookup, currentEntries(), src, argbOut, indexOut, width, method);
+    /* Error diffusion can not be split up, so it is done on this thread */
+    if (method == Dither.FLOYD_STEINBERG)
+      job.map(0, height);
+    else
+      run(job, height, Math.max(1, MIN_PART / width));
+  }
+  /*
+   * Build a mapping for an image, using the lookup table (if any)
+   */
+  private Mapping newMapping(int src[], int argbOut[], short indexOut[]) {
+    return new Mapping(palette, lookup, currentEntries(), src, argbOut, indexOut);
+  }
+  /*
+   * Get the lookup table, or null if no lookup table is used. If colors 
+   * have been excluded from the color palette since the table was last
+   * checked, every entry that holds an excluded color is emptied, so 
+   * that it is filled again the next time it is used. Excluding colors
+   * can not change any other entry.
+   */
+  private synchronized short[] currentEntries() {
+    long      words[];
+    int       index;
+    if (entries == null || entriesVersion == palette.setVersion())
+      return entries;
+    words = palette.excludedWords();
+    for(int key = 0; key < entries.length; key++) {
+      index = entries[key] & 0xffff;
+      if (index != 0xffff && (words[index >>> 6] & (1L << index)) != 0)
+        entries[key] = -1;
+    }
+    entriesVersion = palette.setVersion();
+    return entries;
+  }
+  /*
+   * Get the number of parts to split a job into, so that each part has at
+   * least a given size. There are at most four parts for each processor.
+   */
+  private static int parts(int length, int minPart) {
+    return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, length / minPart));
+  }
+  /*
+   * Do a job, splitting it into parts of at least a given size if it is 
+   * large enough and if there is more than one processor
+   */
+  private void run(Job mapping, int length, int minPart) {
+    split(mapping, length, parts(length, minPart));
+  }
+  /*
+   * Do a job split into a given number of parts. The calling thread does
+   * the first part itself and then waits for the other parts.
+   */
+  private void split(Job mapping, int length, int parts) {
+    int             from;
+    int             to;
+    boolean         interrupted = false;
+    Executor        target;
+    Part            part;
+    CountDownLatch  done;
+    Throwable       failure;
+    if (parts <= 1) {
+      mapping.map(0, length);
+      return;
+    }
+    target = executor != null ? executor : sharedPool();
+    done = new CountDownLatch(parts);
+    for(int i = 1; i < parts; i++) {
+      from = (int) ((long) length * i / parts);
+      to = (int) ((long) length * (i + 1) / parts);
+      part = new Part(mapping, from, to, done);
+      /* A part the executor will not take is mapped on this thread */
+      try {
+        target.execute(part);
+      }
+      catch (RejectedExecutionException e) {
+        part.run();
+      }
+    }
+    new Part(mapping, 0, length / parts, done).run();
+    /* Wait for the other parts, even if this thread is interrupted */
+    while (true) {
+      try {
+        done.await();
+        break;
+      }
+      catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted)
+      Thread.currentThread().interrupt();
+    failure = mapping.failure;
+    if (failure instanceof RuntimeException)
+      throw (RuntimeException) failure;
+    if (failure instanceof Error)
+      throw (Error) failure;
+    if (failure != null)
+      throw new IllegalStateException(failure);
+  }
+  /*
+   * Get the fork/join pool shared by every color quantizer, building it
+   * the first time it is needed. The threads of the pool do not keep an
+   * application from ending.
+   */
+  private static synchronized ForkJoinPool sharedPool() {
+    if (sharedPool == null)
+      sharedPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    return sharedPool;
+  }
+}
@@ -0,0 +1,121 @@
+package colorpalette;
+import java.util.LinkedHashMap;
+import java.util.Map;
+/*
+ * The ColorRamps class builds color ramps (gradients) for a color table
+ * and keeps the most recently used ramps. It is only used internally by
+ * the color palette classes. A ramp runs from one color of the table to
+ * another in a given number of steps. The steps are spread evenly along
+ * the straight line between the two colors in CIELAB or OKLab, and each
+ * step is snapped to the closest color of the table that is not already
+ * in the ramp, with one k-d tree search. Every step of a ramp is a color
+ * of the table and no color is used twice.
+ * <p>
+ * Ramps only depend on the color table, not on which colors are free, so
+ * one cache is shared by every color palette that uses the table. The
+ * cache is a bounded map in access order, so the least recently used ramp
+ * is dropped when the cache is full. The methods of this class may be
+ * called by any number of threads at once.
+ */
+final class ColorRamps {
+  /* The largest number of ramps kept in the cache */
+  final private static int  CACHE_SIZE = 64;
+  /* The color table used to build the ramps */
+  private final ColorTable  table;
+  /* The cached ramps (color index values) in access order */
+  private final Map<Key, int[]> cache = new LinkedHashMap<Key, int[]>(16, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+  /*
+   * The Key class holds the arguments that a ramp is built from
+   */
+  private static final class Key {
+    final int                     from;
+    final int                     to;
+    final int                     steps;
+    final ColorPalette.RampSpace  space;
+    Key(int from, int to, int steps, ColorPalette.RampSpace space) {
+      this.from = from;
+      this.to = to;
+      this.steps = steps;
+      this.space = space;
+    }
+    @Override
+    public boolean equals(Object other) {
+      Key   key;
+      if (!(other instanceof Key))
+        return false;
+      key = (Key) other;
+      return from == key.from && to == key.to && steps == key.steps && space == key.space;
+    }
+    @Override
+    public int hashCode() {
+      return ((from * 31 + to) * 31 + steps) * 31 + space.ordinal();
+    }
+  }
+  /*
+   * This constructor builds an empty ramp cache for a color table
+   */
+  ColorRamps(ColorTable colors) {
+    table = colors;
+  }
+  /*
+   * Get the ramp between two colors, by color index value, from the cache
+   * or by building it. The number of steps must be at least two and not
+   * more than the number of colors, and the two colors must differ. The
+   * returned array is shared and must not be changed.
+   */
+  int[] get(int from, int to, int steps, ColorPalette.RampSpace space) {
+    Key     key = new Key(from, to, steps, space);
+    int     ramp[];
+    synchronized (cache) {
+      ramp = cache.get(key);
+    }
+    if (ramp == null) {
+      ramp = build(from, to, steps, space);
+      synchronized (cache) {
+        cache.put(key, ramp);
+      }
+    }
+    return ramp;
+  }
+  /*
+   * Build the ramp between two colors. The two ends are the two colors
+   * themselves. Each step between them is the closest color to its point
+   * on the line that is not already in the ramp.
+   */
+  private int[] build(int from, int to, int steps, ColorPalette.RampSpace space) {
+    ColorKdTree   tree;
+    ColorBitmap   used = new ColorBitmap(table.size, false);
+    float         ends[] = new float[6];
+    int           ramp[] = new int[steps];
+    float         t;
+    if (space == ColorPalette.RampSpace.OKLAB) {
+      tree = table.oklabTree();
+      ColorSpaces.toOklab(table.rgb[from], ends, 0);
+      ColorSpaces.toOklab(table.rgb[to], ends, 3);
+    }
+    else {
+      tree = table.labTree();
+      ColorSpaces.toLab(table.rgb[from], ends, 0);
+      ColorSpaces.toLab(table.rgb[to], ends, 3);
+    }
+    ramp[0] = from;
+    ramp[steps - 1] = to;
+    used.add(from);
+    used.add(to);
+    for(int i = 1; i < steps - 1; i++) {
+      t = (float) i / (steps - 1);
+      ramp[i] = tree.nearest(ends[0] + (ends[3] - ends[0]) * t,
+                             ends[1] + (ends[4] - ends[1]) * t,
+                             ends[2] + (ends[5] - ends[2]) * t,
+                             used.words, false);
+      used.add(ramp[i]);
+    }
+    return ramp;
+  }
+}
@@ -0,0 +1,189 @@
+package colorpalette;
+/*
+ * The ColorSpaces class converts RGB values to other color spaces. It is
+ * only used internally by the color palette classes. RGB values are taken
+ * to be sRGB values with the D65 white point. The conversions avoid the
+ * expensive parts of the standard formulas (the gamma curve and the cube
+ * root) by reading lookup tables that are built once, when this class is
+ * loaded.
+ */
+final class ColorSpaces {
+  /* The D65 reference white used for CIELAB */
+  final private static double WHITE_X = 0.95047;
+  final private static double WHITE_Y = 1.0;
+  final private static double WHITE_Z = 1.08883;
+  /* The number of intervals in the cube root lookup table */
+  final private static int    ROOT_STEPS = 4096;
+  /* The linear light value of each 8-bit sRGB channel value */
+  final static float          LINEAR[] = new float[256];
+  /*
+   * The CIELAB f(t) function at evenly spaced points from zero to one.
+   * Values between the points are found by linear interpolation.
+   */
+  final private static float  ROOT[] = new float[ROOT_STEPS + 1];
+  static {
+    double  c;
+    double  t;
+    for(int i = 0; i < 256; i++) {
+      c = i / 255.0;
+      LINEAR[i] = (float) (c <= 0.04045 ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4));
+    }
+    for(int i = 0; i <= ROOT_STEPS; i++) {
+      t = (double) i / ROOT_STEPS;
+      ROOT[i] = (float) (t > 216.0 / 24389.0 ? Math.cbrt(t) : (24389.0 / 27.0 * t + 16.0) / 116.0);
+    }
+  }
+  /*
+   * The matrices below simulate (in linear light RGB) how colors look to
+   * people with protanopia, deuteranopia and tritanopia. They are the
+   * full severity matrices of Machado, Oliveira and Fernandes (2009).
+   */
+  final static double         PROTAN[] = { 0.152286,  1.052583, -0.204868,
+                                           0.114503,  0.786281,  0.099216,
+                                          -0.003882, -0.048116,  1.051998};
+  final static double         DEUTAN[] = { 0.367322,  0.860646, -0.227968,
+                                           0.280085,  0.672501,  0.047413,
+                                          -0.011820,  0.042940,  0.968881};
+  final static double         TRITAN[] = { 1.255528, -0.076749, -0.178779,
+                                          -0.078411,  0.930809,  0.147602,
+                                           0.004733,  0.691367,  0.303900};
+  /*
+   * This class only has static methods
+   */
+  private ColorSpaces() {
+  }
+  /*
+   * Get the CIELAB f(t) value for a value between zero and one (values
+   * outside this range are clamped) from the lookup table
+   */
+  private static float root(double t) {
+    double  x;
+    int     i;
+    if (t <= 0)
+      return ROOT[0];
+    if (t >= 1)
+      return ROOT[ROOT_STEPS];
+    x = t * ROOT_STEPS;
+    i = (int) x;
+    return (float) (ROOT[i] + (ROOT[i + 1] - ROOT[i]) * (x - i));
+  }
+  /*
+   * Convert linear light RGB values (zero to one) to CIELAB and store the
+   * L, a and b values in an array, starting at a given offset
+   */
+  static void linearToLab(double r, double g, double b, float out[], int offset) {
+    float   fx;
+    float   fy;
+    float   fz;
+    fx = root((0.4124564 * r + 0.3575761 * g + 0.1804375 * b) / WHITE_X);
+    fy = root((0.2126729 * r + 0.7151522 * g + 0.0721750 * b) / WHITE_Y);
+    fz = root((0.0193339 * r + 0.1191920 * g + 0.9503041 * b) / WHITE_Z);
+    out[offset] = 116 * fy - 16;
+    out[offset + 1] = 500 * (fx - fy);
+    out[offset + 2] = 200 * (fy - fz);
+  }
+  /*
+   * Get one of the CIELAB f(t) values of an RGB value (the alpha channel
+   * is ignored) without storing anything: f(X / Xn) for row 0, f(Y / Yn)
+   * for row 1 and f(Z / Zn) for row 2. L is 116 * f(Y / Yn) - 16, a is
+   * 500 * (f(X / Xn) - f(Y / Yn)) and b is 200 * (f(Y / Yn) - f(Z / Zn)).
+   */
+  static float labRoot(int rgb, int row) {
+    double  r = LINEAR[(rgb >> 16) & 0xff];
+    double  g = LINEAR[(rgb >> 8) & 0xff];
+    double  b = LINEAR[rgb & 0xff];
+    switch (row) {
+      case 0:
+        return root((0.4124564 * r + 0.3575761 * g + 0.1804375 * b) / WHITE_X);
+      case 1:
+        return root((0.2126729 * r + 0.7151522 * g + 0.0721750 * b) / WHITE_Y);
+      default:
+        return root((0.0193339 * r + 0.1191920 * g + 0.9503041 * b) / WHITE_Z);
+    }
+  }
+  /*
+   * Convert an RGB value (the alpha channel is ignored) to CIELAB and
+   * store the L, a and b values in an array, starting at a given offset
+   */
+  static void toLab(int rgb, float out[], int offset) {
+    linearToLab(LINEAR[(rgb >> 16) & 0xff], LINEAR[(rgb >> 8) & 0xff], LINEAR[rgb & 0xff],
+                out, offset);
+  }
+  /*
+   * Convert an RGB value (the alpha channel is ignored) to CIELAB as it
+   * looks with a color vision deficiency, given by one of the simulation
+   * matrices above, and store the L, a and b values in an array, starting
+   * at a given offset. The simulated linear light values are clamped to
+   * the range from zero to one.
+   */
+  static void toSimulatedLab(int rgb, double matrix[], float out[], int offset) {
+    double  r = LINEAR[(rgb >> 16) & 0xff];
+    double  g = LINEAR[(rgb >> 8) & 0xff];
+    double  b = LINEAR[rgb & 0xff];
+    linearToLab(clamp(matrix[0] * r + matrix[1] * g + matrix[2] * b),
+                clamp(matrix[3] * r + matrix[4] * g + matrix[5] * b),
+                clamp(matrix[6] * r + matrix[7] * g + matrix[8] * b),
+                out, offset);
+  }
+  /*
+   * Clamp a value to the range from zero to one
+   */
+  private static double clamp(double value) {
+    return Math.max(0, Math.min(1, value));
+  }
+  /*
+   * Get the WCAG relative luminance (from zero to one) of an RGB value
+   * (the alpha channel is ignored)
+   */
+  static double luminance(int rgb) {
+    return 0.2126 * LINEAR[(rgb >> 16) & 0xff] + 0.7152 * LINEAR[(rgb >> 8) & 0xff] +
+           0.0722 * LINEAR[rgb & 0xff];
+  }
+  /*
+   * Convert an RGB value (the alpha channel is ignored) to hue, saturation
+   * and brightness (each from zero to one, as in java.awt.Color.RGBtoHSB)
+   * and store the values in an array, starting at a given offset
+   */
+  static void toHsb(int rgb, float out[], int offset) {
+    int     r = (rgb >> 16) & 0xff;
+    int     g = (rgb >> 8) & 0xff;
+    int     b = rgb & 0xff;
+    int     max = Math.max(r, Math.max(g, b));
+    int     min = Math.min(r, Math.min(g, b));
+    float   range = max - min;
+    float   hue = 0;
+    /* The steps (and the float rounding) are the same as in RGBtoHSB */
+    if (range > 0) {
+      if (r == max)
+        hue = (max - b) / range - (max - g) / range;
+      else if (g == max)
+        hue = 2.0f + (max - r) / range - (max - b) / range;
+      else
+        hue = 4.0f + (max - g) / range - (max - r) / range;
+      hue = hue / 6.0f;
+      if (hue < 0)
+        hue = hue + 1.0f;
+    }
+    out[offset] = hue;
+    out[offset + 1] = max == 0 ? 0 : range / max;
+    out[offset + 2] = max / 255.0f;
+  }
+  /*
+   * Convert an RGB value (the alpha channel is ignored) to OKLab and store
+   * the L, a and b values in an array, starting at a given offset. The 
+   * matrices are the ones published by Bjorn Ottosson (2020). The cube 
+   * root is computed directly, since OKLab is only used for a few colors
+   * at a time.
+   */
+  static void toOklab(int rgb, float out[], int offset) {
+    double  r = LINEAR[(rgb >> 16) & 0xff];
+    double  g = LINEAR[(rgb >> 8) & 0xff];
+    double  b = LINEAR[rgb & 0xff];
+    double  l = Math.cbrt(0.4122214708 * r + 0.5363325363 * g + 0.0514459929 * b);
+    double  m = Math.cbrt(0.2119034982 * r + 0.6806995451 * g + 0.1073969566 * b);
+    double  s = Math.cbrt(0.0883024619 * r + 0.2817188376 * g + 0.6299787005 * b);
+    out[offset] = (float) (0.2104542553 * l + 0.7936177850 * m - 0.0040720468 * s);
+    out[offset + 1] = (float) (1.9779984951 * l - 2.4285922050 * m + 0.4505937099 * s);
+    out[offset + 2] = (float) (0.0259040371 * l + 0.7827717662 * m - 0.8086757660 * s);
+  }
+}
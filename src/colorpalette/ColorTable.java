@@ -0,0 +1,454 @@
+package colorpalette;
+/*
+ * The ColorTable class holds one list of colors and the lookup structures
+ * for that list. It is only used internally by the color palette classes.
+ * A color table is never modified once it is built, so one color table is
+ * shared by every color palette that uses the same list of colors. The
+ * duplicate name and duplicate RGB value checks are run once for each
+ * color table, rather than once for each color palette.
+ * <p>
+ * The color names are kept in packed form, as one string with each name
+ * followed by a newline. The positions of the names in that string and
+ * the map from names to color index values are only built the first time
+ * a name is needed. Building a color table therefore only costs one pass
+ * over the RGB values. Strings for single names are also only built when
+ * they are asked for.
+ */
+final class ColorTable {
+  /*
+   * The largest number of colors for which the table of distances between
+   * each pair of colors is built (it takes four bytes for each pair)
+   */
+  final static int  PAIR_LIMIT = 2048;
+  /* The number of colors in the table */
+  final int         size;
+  /* The RGB values (without an alpha channel), in color index order */
+  final int         rgb[];
+  /* The color names, each followed by a newline, in color index order */
+  private final String  text;
+  /* The map from RGB values to color index values */
+  private final RgbIndex  byRgb;
+  /* The name positions and name map, built the first time they are needed */
+  private volatile NameIndex  nameIndex;
+  /* The names that have been turned into strings, built on demand */
+  private volatile String names[];
+  /* The k-d tree over the RGB values, built the first time it is needed */
+  private volatile ColorKdTree rgbTree;
+  /* The CIELAB values (three per color), built the first time they are needed */
+  private volatile float lab[];
+  /* The k-d tree over the CIELAB values, built the first time it is needed */
+  private volatile ColorKdTree labTree;
+  /*
+   * The CIELAB values and k-d trees of the colors as they are seen with
+   * normal vision, protanopia, deuteranopia and tritanopia, built the
+   * first time they are needed
+   */
+  private volatile float visionLab[][];
+  private volatile ColorKdTree visionTrees[];
+  /*
+   * The smallest squared distance between each pair of colors, over the
+   * four versions of CIELAB above, built the first time it is needed
+   */
+  private volatile float visionPairs[];
+  /* The colors sorted by relative luminance, built the first time it is needed */
+  private volatile RangeIndex luminanceIndex;
+  /* The colors sorted by hue, saturation and brightness, built the first time they are needed */
+  private volatile RangeIndex hsbIndexes[];
+  /* The k-d tree over the OKLab values, built the first time it is needed */
+  private volatile ColorKdTree oklabTree;
+  /* The ramps built from the colors, built the first time they are needed */
+  private volatile ColorRamps ramps;
+  /* The fingerprint of the colors, computed the first time it is needed */
+  private volatile long fingerprint;
+  /*
+   * The NameIndex class holds the positions of the color names in the
+   * names string and an open addressing hash table that maps names to 
+   * color index values. Each slot of the hash table holds a color index 
+   * value plus one, so that zero can be used to mark empty slots. The 
+   * name hash codes are kept in a parallel array so that most probes do 
+   * not need to compare names.
+   */
+  private static final class NameIndex {
+    final int   start[];
+    final int   end[];
+    final int   slots[];
+    final int   hashes[];
+    /*
+     * This constructor scans the names string once. The string is copied
+     * into a character array, so that no method is called for each 
+     * character. An exception is thrown if two colors have the same name.
+     */
+    NameIndex(String text, int size) {
+      char  chars[] = text.toCharArray();
+      int   bits = 1;
+      int   pos = 0;
+      int   hash;
+      start = new int[size];
+      end = new int[size];
+      while ((1 << bits) < size * 2)
+        bits++;
+      slots = new int[1 << bits];
+      hashes = new int[1 << bits];
+      for(int i = 0; i < size; i++) {
+        start[i] = pos;
+        hash = 0;
+        while (chars[pos] != '\n')
+          hash = 31 * hash + chars[pos++];
+        end[i] = pos++;
+        if (!put(text, i, spread(hash))) {
+          throw new IllegalArgumentException("Color name already exists in pool - " +
+                                             text.substring(start[i], end[i]));
+        }
+      }
+    }
+    /*
+     * Check if the name of a color is equal to a range of characters of
+     * a string
+     */
+    boolean matches(String text, int index, String other, int offset, int length) {
+      return end[index] - start[index] == length &&
+             text.regionMatches(start[index], other, offset, length);
+    }
+    /*
+     * Add the name of a color (with the spread hash code of the name) to
+     * the hash table. This method returns false if the name is already 
+     * in the table.
+     */
+    private boolean put(String text, int index, int hash) {
+      int   mask = slots.length - 1;
+      for(int i = hash & mask; ; i = (i + 1) & mask) {
+        if (slots[i] == 0) {
+          slots[i] = index + 1;
+          hashes[i] = hash;
+          return true;
+        }
+        if (hashes[i] == hash && 
+            matches(text, slots[i] - 1, text, start[index], end[index] - start[index]))
+          return false;
+      }
+    }
+    /*
+     * Get the color index value for a color name or -1 if the name is
+     * not in the table
+     */
+    int get(String text, String name) {
+      int   hash = spread(name.hashCode());
+      int   mask = slots.length - 1;
+      for(int i = hash & mask; ; i = (i + 1) & mask) {
+        if (slots[i] == 0)
+          return -1;
+        if (hashes[i] == hash && matches(text, slots[i] - 1, name, 0, name.length()))
+          return slots[i] - 1;
+      }
+    }
+  }
+  /*
+   * This constructor builds a color table from the RGB values of the 
+   * colors and one string holding the names of the colors, each name 
+   * followed by a newline. The array is used as is (not copied). An
+   * exception is thrown if two colors have the same RGB value. Names 
+   * are checked for duplicates when the name index is built, which can
+   * be forced by calling the check names method.
+   */
+  ColorTable(int values[], String names) {
+    size = values.length;
+    rgb = values;
+    text = names;
+    byRgb = new RgbIndex(size);
+    /*
+     * Build the color RGB value to color index mapping. Note that
+     * duplicate RGB values are not allowed and should not occur.
+     */
+    for(int i = 0; i < size; i++) {
+      if (!byRgb.put(rgb[i], i)) {
+        throw new IllegalArgumentException("RGB value already exists in pool - " +
+                                           String.format("0x%06x", rgb[i]));
+      }
+    }
+  }
+  /*
+   * Spread the bits of a string hash code so that similar names end
+   * up in different slots
+   */
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+  /*
+   * Get the name index, building it if need be. If two threads build 
+   * the name index at the same time, one of the two (identical) indexes 
+   * is kept.
+   */
+  private NameIndex nameIndex() {
+    NameIndex   index = nameIndex;
+    if (index == null) {
+      index = new NameIndex(text, size);
+      nameIndex = index;
+    }
+    return index;
+  }
+  /*
+   * Build the name index now, so that an exception is thrown right away
+   * if two colors have the same name
+   */
+  void checkNames() {
+    nameIndex();
+  }
+  /*
+   * Get the name of a color. The string for the name is built the first
+   * time the name is asked for and is kept after that.
+   */
+  String name(int index) {
+    NameIndex   positions;
+    String      cache[] = names;
+    String      name;
+    if (cache == null) {
+      cache = new String[size];
+      names = cache;
+    }
+    name = cache[index];
+    if (name == null) {
+      positions = nameIndex();
+      name = text.substring(positions.start[index], positions.end[index]);
+      cache[index] = name;
+    }
+    return name;
+  }
+  /*
+   * Get the string holding all of the color names, each name followed
+   * by a newline
+   */
+  String namesText() {
+    return text;
+  }
+  /*
+   * Get a 64-bit fingerprint of the colors of the table (the RGB values
+   * and the names, in order). Two tables with the same colors have the
+   * same fingerprint. The fingerprint is computed the first time this
+   * method is called. A computed value of zero is changed to one, so 
+   * that zero can mean the fingerprint has not been computed yet.
+   */
+  long fingerprint() {
+    long    hash = fingerprint;
+    if (hash == 0) {
+      hash = 0xcbf29ce484222325L;
+      hash = (hash ^ size) * 0x100000001b3L;
+      for(int i = 0; i < size; i++)
+        hash = (hash ^ rgb[i]) * 0x100000001b3L;
+      for(int i = 0; i < text.length(); i++)
+        hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+      if (hash == 0)
+        hash = 1;
+      fingerprint = hash;
+    }
+    return hash;
+  }
+  /*
+   * Get the color index value for a color name or -1 if the name is
+   * not in the table
+   */
+  int indexOfName(String name) {
+    return nameIndex().get(text, name);
+  }
+  /*
+   * Get the color index value for an RGB value (without an alpha
+   * channel) or -1 if the RGB value is not in the table
+   */
+  int indexOfRgb(int value) {
+    return byRgb.get(value);
+  }
+  /*
+   * Get the k-d tree over the RGB values of the table. The tree is built
+   * the first time this method is called. If two threads build the tree
+   * at the same time, one of the two (identical) trees is kept.
+   */
+  ColorKdTree rgbTree() {
+    ColorKdTree   tree = rgbTree;
+    float         points[];
+    if (tree == null) {
+      points = new float[size * 3];
+      for(int i = 0; i < size; i++) {
+        points[i * 3] = (rgb[i] >> 16) & 0xff;
+        points[i * 3 + 1] = (rgb[i] >> 8) & 0xff;
+        points[i * 3 + 2] = rgb[i] & 0xff;
+      }
+      tree = new ColorKdTree(points, size);
+      rgbTree = tree;
+    }
+    return tree;
+  }
+  /*
+   * Get the CIELAB values of the colors of the table. The array holds the
+   * L, a and b values of each color, in color index order. The values are
+   * computed the first time this method is called.
+   */
+  float[] lab() {
+    float   values[] = lab;
+    if (values == null) {
+      values = new float[size * 3];
+      for(int i = 0; i < size; i++)
+        ColorSpaces.toLab(rgb[i], values, i * 3);
+      lab = values;
+    }
+    return values;
+  }
+  /*
+   * Get the k-d tree over the CIELAB values of the table. Squared distances
+   * in this tree are squared CIE76 color differences. The tree is built the
+   * first time this method is called.
+   */
+  ColorKdTree labTree() {
+    ColorKdTree   tree = labTree;
+    if (tree == null) {
+      tree = new ColorKdTree(lab(), size);
+      labTree = tree;
+    }
+    return tree;
+  }
+  /*
+   * Get the CIELAB values of the colors of the table as they are seen with
+   * normal vision, protanopia, deuteranopia and tritanopia (in that order).
+   * Each array has the same layout as the array returned by lab(). The 
+   * values are computed the first time this method is called.
+   */
+  float[][] visionLab() {
+    float   values[][] = visionLab;
+    double  matrices[][] = {ColorSpaces.PROTAN, ColorSpaces.DEUTAN, ColorSpaces.TRITAN};
+    if (values == null) {
+      values = new float[4][];
+      values[0] = lab();
+      for(int m = 0; m < matrices.length; m++) {
+        values[m + 1] = new float[size * 3];
+        for(int i = 0; i < size; i++)
+          ColorSpaces.toSimulatedLab(rgb[i], matrices[m], values[m + 1], i * 3);
+      }
+      visionLab = values;
+    }
+    return values;
+  }
+  /*
+   * Get the k-d trees over the CIELAB values returned by visionLab(), in
+   * the same order. The trees are built the first time this method is 
+   * called.
+   */
+  ColorKdTree[] visionTrees() {
+    ColorKdTree   trees[] = visionTrees;
+    float         values[][];
+    if (trees == null) {
+      values = visionLab();
+      trees = new ColorKdTree[values.length];
+      trees[0] = labTree();
+      for(int i = 1; i < values.length; i++)
+        trees[i] = new ColorKdTree(values[i], size);
+      visionTrees = trees;
+    }
+    return trees;
+  }
+  /*
+   * Get the smallest squared distance between each pair of colors, over
+   * the versions of CIELAB returned by visionLab(). The distance between
+   * colors i and j is at position i * size + j. The table holds size *
+   * size values, so null is returned if there are more than PAIR_LIMIT
+   * colors. The table is built the first time this method is called.
+   */
+  float[] visionPairs() {
+    float   pairs[] = visionPairs;
+    float   values[][];
+    float   d, min;
+    if (pairs == null && size <= PAIR_LIMIT) {
+      values = visionLab();
+      pairs = new float[size * size];
+      for(int i = 0; i < size; i++) {
+        for(int j = i + 1; j < size; j++) {
+          min = Float.MAX_VALUE;
+          for(int v = 0; v < values.length; v++) {
+            d = distance(values[v], i, j);
+            if (d < min)
+              min = d;
+          }
+          pairs[i * size + j] = min;
+          pairs[j * size + i] = min;
+        }
+      }
+      visionPairs = pairs;
+    }
+    return pairs;
+  }
+  /*
+   * Get the squared distance between two colors in one version of CIELAB
+   */
+  private static float distance(float values[], int i, int j) {
+    float   dl = values[i * 3] - values[j * 3];
+    float   da = values[i * 3 + 1] - values[j * 3 + 1];
+    float   db = values[i * 3 + 2] - values[j * 3 + 2];
+    return dl * dl + da * da + db * db;
+  }
+  /*
+   * Get the index of the colors of the table sorted by WCAG relative 
+   * luminance. The index is built the first time this method is called.
+   */
+  RangeIndex luminanceIndex() {
+    RangeIndex  index = luminanceIndex;
+    float       values[];
+    if (index == null) {
+      values = new float[size];
+      for(int i = 0; i < size; i++)
+        values[i] = (float) ColorSpaces.luminance(rgb[i]);
+      index = new RangeIndex(values);
+      luminanceIndex = index;
+    }
+    return index;
+  }
+  /*
+   * Get the indexes of the colors of the table sorted by hue, by saturation
+   * and by brightness (in that order). The indexes are built the first 
+   * time this method is called.
+   */
+  RangeIndex[] hsbIndexes() {
+    RangeIndex  indexes[] = hsbIndexes;
+    float       hsb[];
+    float       values[];
+    if (indexes == null) {
+      hsb = new float[size * 3];
+      for(int i = 0; i < size; i++)
+        ColorSpaces.toHsb(rgb[i], hsb, i * 3);
+      indexes = new RangeIndex[3];
+      for(int c = 0; c < 3; c++) {
+        values = new float[size];
+        for(int i = 0; i < size; i++)
+          values[i] = hsb[i * 3 + c];
+        indexes[c] = new RangeIndex(values);
+      }
+      hsbIndexes = indexes;
+    }
+    return indexes;
+  }
+  /*
+   * Get the k-d tree over the OKLab values of the table. The tree is built
+   * the first time this method is called.
+   */
+  ColorKdTree oklabTree() {
+    ColorKdTree   tree = oklabTree;
+    float         points[];
+    if (tree == null) {
+      points = new float[size * 3];
+      for(int i = 0; i < size; i++)
+        ColorSpaces.toOklab(rgb[i], points, i * 3);
+      tree = new ColorKdTree(points, size);
+      oklabTree = tree;
+    }
+    return tree;
+  }
+  /*
+   * Get the ramp builder (and ramp cache) of the table. It is built the
+   * first time this method is called. If two threads build it at the 
+   * same time, one of the two is kept.
+   */
+  ColorRamps ramps() {
+    ColorRamps    built = ramps;
+    if (built == null) {
+      built = new ColorRamps(this);
+      ramps = built;
+    }
+    return built;
+  }
+}
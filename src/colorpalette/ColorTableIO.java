@@ -0,0 +1,612 @@
+package colorpalette;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+/*
+ * The ColorTableIO class reads color tables from text files (CSV, JSON and
+ * GIMP palette files) and reads and writes color tables in a compact binary
+ * format. It is only used internally by the color palette classes.
+ * <p>
+ * The text readers are streaming readers. Input is read through a fixed
+ * size buffer and each color is added to the table being built as soon as
+ * it has been read, so a file is never held in memory as a whole. Each
+ * reader runs the same duplicate name and duplicate RGB value checks as
+ * the color table constructor (they are in fact done by that constructor).
+ * <p>
+ * The binary format is made to be memory-mapped. It is a header followed
+ * by the RGB values (one int each) and the names string (one char each,
+ * each name followed by a newline), all big-endian:
+ * <pre>
+ *   int     magic number ('CPAL')
+ *   int     format version (1)
+ *   int     number of colors
+ *   int     number of chars in the names string
+ *   int[]   RGB values
+ *   char[]  names string
+ * </pre>
+ * Reading a binary file is two bulk copies out of the mapped file.
+ */
+final class ColorTableIO {
+  /* The magic number at the start of every binary file ('CPAL') */
+  final private static int  MAGIC = 0x4350414c;
+  /* The version of the binary format written by this class */
+  final private static int  VERSION = 1;
+  /* The size of the binary header in bytes */
+  final private static int  HEADER = 16;
+  /*
+   * This class only has static methods
+   */
+  private ColorTableIO() {
+  }
+  /*
+   * The TableBuilder class collects colors as they are read. The RGB
+   * values go into an array that grows as need be and the names go into
+   * one string builder, each name followed by a newline.
+   */
+  private static final class TableBuilder {
+    int                 rgb[] = new int[256];
+    int                 count;
+    final StringBuilder names = new StringBuilder();
+    /*
+     * Add one color. An exception is thrown if the name is empty or has
+     * a line break in it, or if an RGB channel value is out of range.
+     */
+    void add(String name, int r, int g, int b, int line) throws IOException {
+      if (name.length() == 0)
+        throw new IOException("Empty color name on line " + line);
+      if (name.indexOf('\n') >= 0 || name.indexOf('\r') >= 0)
+        throw new IOException("Line break in color name on line " + line);
+      if ((r | g | b) < 0 || (r | g | b) > 255)
+        throw new IOException("RGB value out of range on line " + line);
+      if (count == rgb.length)
+        rgb = Arrays.copyOf(rgb, count * 2);
+      rgb[count++] = (r << 16) + (g << 8) + b;
+      names.append(name).append('\n');
+    }
+    /*
+     * Build the color table. Both duplicate checks are run right away.
+     */
+    ColorTable build() {
+      ColorTable  table;
+      table = new ColorTable(Arrays.copyOf(rgb, count), names.toString());
+      table.checkNames();
+      return table;
+    }
+  }
+  /*
+   * Parse an RGB value written as six hex digits, with an optional '#'
+   * or '0x' in front. The value -1 is returned if the text is not an
+   * RGB value.
+   */
+  private static int parseHex(String text) {
+    String  digits = text.trim();
+    int     value = 0;
+    int     digit;
+    if (digits.startsWith("#"))
+      digits = digits.substring(1);
+    else if (digits.startsWith("0x") || digits.startsWith("0X"))
+      digits = digits.substring(2);
+    if (digits.length() != 6)
+      return -1;
+    for(int i = 0; i < 6; i++) {
+      digit = Character.digit(digits.charAt(i), 16);
+      if (digit < 0)
+        return -1;
+      value = (value << 4) + digit;
+    }
+    return value;
+  }
+  /*
+   * Parse a channel value (0 to 255). The value -1 is returned if the
+   * text is not a channel value.
+   */
+  private static int parseChannel(String text) {
+    int     value;
+    try {
+      value = Integer.parseInt(text.trim());
+    }
+    catch (NumberFormatException e) {
+      return -1;
+    }
+    return value < 0 || value > 255 ? -1 : value;
+  }
+  /*
+   * Split one line of a CSV file into fields. Fields may be quoted with
+   * double quotes, in which case two double quotes stand for one. The
+   * number of fields is returned.
+   */
+  private static int splitCsv(String line, String fields[], StringBuilder field) {
+    int     count = 0;
+    int     i = 0;
+    char    c;
+    boolean quoted;
+    while (count < fields.length) {
+      field.setLength(0);
+      quoted = i < line.length() && line.charAt(i) == '"';
+      if (quoted)
+        i++;
+      while (i < line.length()) {
+        c = line.charAt(i++);
+        if (quoted && c == '"') {
+          if (i < line.length() && line.charAt(i) == '"')
+            i++;
+          else {
+            quoted = false;
+            continue;
+          }
+        }
+        else if (!quoted && c == ',') {
+          fields[count++] = field.toString();
+          field.setLength(0);
+          break;
+        }
+        field.append(c);
+      }
+      if (i >= line.length()) {
+        fields[count++] = field.toString();
+        break;
+      }
+    }
+    return count;
+  }
+  /*
+   * Read a color table from a CSV file. Each line is a color, either as
+   * "name,r,g,b" or as "name,#rrggbb". Blank lines and lines starting
+   * with '#' are skipped. If the first color line can not be read as a
+   * color, it is taken to be a header line and is skipped as well. Only
+   * the first five fields of a line are split out, so a line with more
+   * than four fields is never read as a color.
+   */
+  static ColorTable readCsv(Reader in) throws IOException {
+    BufferedReader  reader = new BufferedReader(in);
+    TableBuilder    builder = new TableBuilder();
+    String          fields[] = new String[5];
+    StringBuilder   field = new StringBuilder();
+    String          line;
+    int             lineNumber = 0;
+    int             count;
+    int             value;
+    int             r, g, b;
+    boolean         first = true;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.trim().length() == 0 || line.startsWith("#"))
+        continue;
+      count = splitCsv(line, fields, field);
+      r = g = b = -1;
+      if (count == 2 && (value = parseHex(fields[1])) >= 0) {
+        r = value >> 16;
+        g = (value >> 8) & 0xff;
+        b = value & 0xff;
+      }
+      else if (count == 4) {
+        r = parseChannel(fields[1]);
+        g = parseChannel(fields[2]);
+        b = parseChannel(fields[3]);
+      }
+      if (r < 0 || g < 0 || b < 0) {
+        if (first) {
+          first = false;
+          continue;
+        }
+        throw new IOException("Invalid color on line " + lineNumber + " - " + line);
+      }
+      first = false;
+      builder.add(fields[0].trim(), r, g, b, lineNumber);
+    }
+    return builder.build();
+  }
+  /*
+   * Read a color table from a GIMP palette (GPL) file. The first line must
+   * be "GIMP Palette". Header lines ("Name:" and "Columns:"), blank lines
+   * and comment lines (starting with '#') are skipped. Each other line is
+   * a color, as three channel values followed by the color name. Colors
+   * without a name are named after their RGB value ("#rrggbb").
+   */
+  static ColorTable readGpl(Reader in) throws IOException {
+    BufferedReader  reader = new BufferedReader(in);
+    TableBuilder    builder = new TableBuilder();
+    String          line;
+    String          parts[];
+    String          name;
+    int             lineNumber = 1;
+    int             r, g, b;
+    line = reader.readLine();
+    if (line == null || !line.trim().equals("GIMP Palette"))
+      throw new IOException("Missing GIMP Palette header line");
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      line = line.trim();
+      if (line.length() == 0 || line.startsWith("#") ||
+          line.startsWith("Name:") || line.startsWith("Columns:"))
+        continue;
+      parts = line.split("\\s+", 4);
+      if (parts.length < 3)
+        throw new IOException("Invalid color on line " + lineNumber + " - " + line);
+      r = parseChannel(parts[0]);
+      g = parseChannel(parts[1]);
+      b = parseChannel(parts[2]);
+      if (r < 0 || g < 0 || b < 0)
+        throw new IOException("Invalid color on line " + lineNumber + " - " + line);
+      if (parts.length == 4)
+        name = parts[3].trim();
+      else
+        name = String.format("#%02x%02x%02x", r, g, b);
+      builder.add(name, r, g, b, lineNumber);
+    }
+    return builder.build();
+  }
+  /*
+   * Read a color table from a JSON file. Two layouts are accepted. The
+   * first is an array of objects, each with a "name" member and either a
+   * "hex" (or "rgb" or "color") member or "r", "g" and "b" members. The
+   * second is one object that maps color names to colors. A color is a
+   * string ("#rrggbb"), an array of three channel values, or an object
+   * with "r", "g" and "b" members. Other members are skipped.
+   */
+  static ColorTable readJson(Reader in) throws IOException {
+    JsonReader      json = new JsonReader(in);
+    TableBuilder    builder = new TableBuilder();
+    String          name;
+    int             value;
+    if (json.peek() == '[') {
+      json.expect('[');
+      if (json.peek() != ']') {
+        do {
+          readJsonEntry(json, builder);
+        } while (json.next(','));
+      }
+      json.expect(']');
+    }
+    else {
+      json.expect('{');
+      if (json.peek() != '}') {
+        do {
+          name = json.readString();
+          json.expect(':');
+          value = readJsonColor(json);
+          builder.add(name, value >> 16, (value >> 8) & 0xff, value & 0xff, json.line);
+        } while (json.next(','));
+      }
+      json.expect('}');
+    }
+    json.expectEnd();
+    return builder.build();
+  }
+  /*
+   * Read one color object (with a name) from a JSON array of colors
+   */
+  private static void readJsonEntry(JsonReader json, TableBuilder builder) throws IOException {
+    String  name = null;
+    String  key;
+    int     value = -1;
+    int     channel[] = {-1, -1, -1};
+    json.expect('{');
+    if (json.peek() != '}') {
+      do {
+        key = json.readString();
+        json.expect(':');
+        if (key.equals("name"))
+          name = json.readString();
+        else if (key.equals("hex") || key.equals("rgb") || key.equals("color"))
+          value = readJsonColor(json);
+        else if (key.equals("r"))
+          channel[0] = json.readInt();
+        else if (key.equals("g"))
+          channel[1] = json.readInt();
+        else if (key.equals("b"))
+          channel[2] = json.readInt();
+        else
+          json.skipValue();
+      } while (json.next(','));
+    }
+    json.expect('}');
+    if (value >= 0) {
+      channel[0] = value >> 16;
+      channel[1] = (value >> 8) & 0xff;
+      channel[2] = value & 0xff;
+    }
+    if (name == null || channel[0] < 0 || channel[1] < 0 || channel[2] < 0)
+      throw new IOException("Incomplete color on line " + json.line);
+    builder.add(name, channel[0], channel[1], channel[2], json.line);
+  }
+  /*
+   * Read one JSON color value and return it as an RGB value
+   */
+  private static int readJsonColor(JsonReader json) throws IOException {
+    int     value;
+    int     channel[] = {-1, -1, -1};
+    String  key;
+    switch (json.peek()) {
+      case '"':
+        value = parseHex(json.readString());
+        if (value < 0)
+          throw new IOException("Invalid RGB string on line " + json.line);
+        return value;
+      case '[':
+        json.expect('[');
+        for(int i = 0; i < 3; i++) {
+          if (i > 0)
+            json.expect(',');
+          channel[i] = json.readInt();
+        }
+        json.expect(']');
+        break;
+      default:
+        json.expect('{');
+        do {
+          key = json.readString();
+          json.expect(':');
+          if (key.length() == 1 && "rgb".indexOf(key.charAt(0)) >= 0)
+            channel["rgb".indexOf(key.charAt(0))] = json.readInt();
+          else
+            json.skipValue();
+        } while (json.next(','));
+        json.expect('}');
+        break;
+    }
+    for(int i = 0; i < 3; i++) {
+      if (channel[i] < 0 || channel[i] > 255)
+        throw new IOException("Invalid RGB value on line " + json.line);
+    }
+    return (channel[0] << 16) + (channel[1] << 8) + channel[2];
+  }
+  /*
+   * The JsonReader class is a small pull reader for JSON text. It reads
+   * through a fixed size buffer and never builds a tree of values. Only
+   * the parts of JSON needed by the color table reader are supported as
+   * values (strings and integers), but any value can be skipped.
+   */
+  private static final class JsonReader {
+    final Reader  in;
+    final char    buffer[] = new char[8192];
+    int           pos;
+    int           limit;
+    int           line = 1;
+    /*
+     * This constructor builds a reader for a character stream
+     */
+    JsonReader(Reader input) {
+      in = input;
+    }
+    /*
+     * Get the next character (or -1 at the end of the input) without
+     * skipping it. White space is skipped first.
+     */
+    int peek() throws IOException {
+      char  c;
+      while (true) {
+        if (pos == limit) {
+          limit = in.read(buffer, 0, buffer.length);
+          pos = 0;
+          if (limit <= 0) {
+            limit = 0;
+            return -1;
+          }
+        }
+        c = buffer[pos];
+        if (c == '\n')
+          line++;
+        if (c != ' ' && c != '\t' && c != '\n' && c != '\r')
+          return c;
+        pos++;
+      }
+    }
+    /*
+     * Get the next character (or -1 at the end of the input), without
+     * skipping white space
+     */
+    int read() throws IOException {
+      if (pos == limit) {
+        limit = in.read(buffer, 0, buffer.length);
+        pos = 0;
+        if (limit <= 0) {
+          limit = 0;
+          return -1;
+        }
+      }
+      return buffer[pos++];
+    }
+    /*
+     * Skip the next character, which must be the one given
+     */
+    void expect(char c) throws IOException {
+      if (peek() != c)
+        throw new IOException("Expected '" + c + "' on line " + line);
+      pos++;
+    }
+    /*
+     * Skip the next character if it is the one given. This method
+     * returns true if the character was skipped.
+     */
+    boolean next(char c) throws IOException {
+      if (peek() != c)
+        return false;
+      pos++;
+      return true;
+    }
+    /*
+     * Check that nothing but white space is left
+     */
+    void expectEnd() throws IOException {
+      if (peek() != -1)
+        throw new IOException("Unexpected text after the end on line " + line);
+    }
+    /*
+     * Read a string value
+     */
+    String readString() throws IOException {
+      StringBuilder   text = new StringBuilder();
+      int             c;
+      int             digit;
+      expect('"');
+      while ((c = read()) != '"') {
+        if (c < 0 || c == '\n')
+          throw new IOException("Unterminated string on line " + line);
+        if (c == '\\') {
+          c = read();
+          switch (c) {
+            case 'b': c = '\b'; break;
+            case 'f': c = '\f'; break;
+            case 'n': c = '\n'; break;
+            case 'r': c = '\r'; break;
+            case 't': c = '\t'; break;
+            case 'u':
+              c = 0;
+              for(int i = 0; i < 4; i++) {
+                digit = Character.digit(read(), 16);
+                if (digit < 0)
+                  throw new IOException("Invalid escape on line " + line);
+                c = (c << 4) + digit;
+              }
+              break;
+            case '"': case '\\': case '/':
+              break;
+            default:
+              throw new IOException("Invalid escape on line " + line);
+          }
+        }
+        text.append((char) c);
+      }
+      return text.toString();
+    }
+    /*
+     * Read an integer value. Numbers with a fraction or exponent are
+     * not accepted.
+     */
+    int readInt() throws IOException {
+      int     value = 0;
+      int     digits = 0;
+      boolean negative = next('-');
+      while (pos < limit || peekRaw() >= 0) {
+        if (buffer[pos] < '0' || buffer[pos] > '9')
+          break;
+        value = value * 10 + (buffer[pos++] - '0');
+        if (++digits > 9)
+          throw new IOException("Number too large on line " + line);
+      }
+      if (digits == 0)
+        throw new IOException("Expected a number on line " + line);
+      return negative ? -value : value;
+    }
+    /*
+     * Make sure there is a character in the buffer (without skipping
+     * white space). The character (or -1 at the end) is returned.
+     */
+    private int peekRaw() throws IOException {
+      if (pos == limit) {
+        limit = in.read(buffer, 0, buffer.length);
+        pos = 0;
+        if (limit <= 0) {
+          limit = 0;
+          return -1;
+        }
+      }
+      return buffer[pos];
+    }
+    /*
+     * Skip any value (including nested arrays and objects)
+     */
+    void skipValue() throws IOException {
+      int   c = peek();
+      if (c == '"')
+        readString();
+      else if (c == '[' || c == '{') {
+        pos++;
+        if (peek() != (c == '[' ? ']' : '}')) {
+          do {
+            if (c == '{') {
+              readString();
+              expect(':');
+            }
+            skipValue();
+          } while (next(','));
+        }
+        expect(c == '[' ? ']' : '}');
+      }
+      else {
+        /* Numbers and the literals true, false and null */
+        while ((c = peekRaw()) >= 0 && c != ',' && c != ']' && c != '}' &&
+               c != ' ' && c != '\t' && c != '\n' && c != '\r')
+          pos++;
+      }
+    }
+  }
+  /*
+   * Write a color table in the binary format
+   */
+  static void writeBinary(ColorTable table, OutputStream out) throws IOException {
+    DataOutputStream  data = new DataOutputStream(out);
+    String            names = table.namesText();
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(table.size);
+    data.writeInt(names.length());
+    for(int i = 0; i < table.size; i++)
+      data.writeInt(table.rgb[i]);
+    data.writeChars(names);
+    data.flush();
+  }
+  /*
+   * Read a color table from a binary file. The file is memory-mapped and
+   * the RGB values and the names string are copied out of it in bulk.
+   * Both duplicate checks are run right away, the same way as for the
+   * text formats.
+   */
+  static ColorTable readBinary(File file) throws IOException {
+    RandomAccessFile  raf = new RandomAccessFile(file, "r");
+    MappedByteBuffer  map;
+    ByteBuffer        data;
+    int               count;
+    int               length;
+    int               rgb[];
+    char              names[];
+    ColorTable        table;
+    try {
+      if (raf.length() < HEADER)
+        throw new IOException("File is too short to be a color palette - " + file);
+      map = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+    }
+    finally {
+      raf.close();
+    }
+    data = map;
+    if (data.getInt(0) != MAGIC)
+      throw new IOException("File is not a binary color palette - " + file);
+    if (data.getInt(4) != VERSION)
+      throw new IOException("Unsupported binary color palette version - " + data.getInt(4));
+    count = data.getInt(8);
+    length = data.getInt(12);
+    if (count < 0 || length < 0 ||
+        HEADER + count * 4L + length * 2L != data.capacity())
+      throw new IOException("Binary color palette has the wrong size - " + file);
+    rgb = new int[count];
+    names = new char[length];
+    data.position(HEADER);
+    data.asIntBuffer().get(rgb);
+    data.position(HEADER + count * 4);
+    data.asCharBuffer().get(names);
+    for(int i = 0; i < count; i++) {
+      if ((rgb[i] & 0xff000000) != 0)
+        throw new IOException("Invalid RGB value in binary color palette - " + rgb[i]);
+    }
+    /* Check that the names string holds exactly one name for each color */
+    for(int i = 0; i < length; i++) {
+      if (names[i] == '\n')
+        count--;
+    }
+    if (count != 0 || (length > 0 && names[length - 1] != '\n'))
+      throw new IOException("Binary color palette has the wrong number of names - " + file);
+    table = new ColorTable(rgb, new String(names));
+    table.checkNames();
+    return table;
+  }
+}
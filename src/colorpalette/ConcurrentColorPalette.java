@@ -0,0 +1,245 @@
+package colorpalette;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongArray;
+/**
+ * The ConcurrentColorPalette class is a thread-safe version of the
+ * {@link ColorPalette} class. It manages the same pool of unique colors
+ * and has the same methods, with the same arguments, return values and
+ * exceptions. The difference is that the methods of this class can be
+ * called from any number of threads at the same time, without any
+ * external locking.
+ * <p>
+ * The free colors are kept in a bitmap of atomic words. Colors are pulled
+ * from the pool and returned to the pool with compare-and-set operations
+ * on single words, so no thread ever blocks another thread. Each word is
+ * kept in its own cache line, so threads working on different words do
+ * not slow each other down.
+ * <p>
+ * Colors are busy or free exactly as they are in the {@link ColorPalette}
+ * class. A color can only be pulled from the pool by one thread and can
+ * only be returned to the pool once. Colors are not pulled from the pool
+ * lowest first. Each thread starts its search for a free color at its own
+ * word of the bitmap (picked from the thread ID), so that threads pulling
+ * colors at the same time mostly work on different cache lines. Within a
+ * word the lowest free color is taken. A thread that loses a race for a
+ * word moves on to the next word of the bitmap, rather than trying the
+ * same word again. The number of colors left in the pool is exact 
+ * whenever no other thread is changing the pool.
+ *
+ * @author      ##author##
+ * @version     ##library.prettyVersion##
+ * @since       ##date##
+ */
+public final class ConcurrentColorPalette {
+  /* The number of array slots used by each word of the bitmap */
+  final private static int STRIDE_SHIFT = 3;
+  /* The alpha channel value that is added to every color returned */
+  final private static int ALPHA = 255 << 24;
+  /* The color table used by this instance */
+  final private ColorTable table;
+  /* The number of words in the bitmap */
+  final private int wordCount;
+  /*
+   * The atomic array below is the bitmap of free colors. Each bit is the
+   * index value of a color in the color table. Word number i of the bitmap
+   * is stored in array slot i * 8, so that each word has its own cache
+   * line. The other array slots are never used.
+   */
+  final private AtomicLongArray itemsFree;
+  /**
+   * The constructor below is used to create instances of this class.
+   * It can be invoked any number of times as need be. Note that the
+   * constructor loads the color pool with all of the colors.
+   */
+  public ConcurrentColorPalette() {
+    int   last;
+    table = ColorPalette.itemsTable;
+    wordCount = (table.size + 63) >>> 6;
+    itemsFree = new AtomicLongArray(wordCount << STRIDE_SHIFT);
+    last = wordCount - 1;
+    for(int i = 0; i < last; i++)
+      itemsFree.set(i << STRIDE_SHIFT, -1L);
+    if (last >= 0)
+      itemsFree.set(last << STRIDE_SHIFT, -1L >>> ((wordCount << 6) - table.size));
+  }
+  /**
+   * Get the number of colors left in the color pool. The value is
+   * exact if no other thread is changing the pool at the same time.
+   *
+   * @return  the number of colors left in the color pool
+   * @see     int
+   */
+  public int colorsLeft() {
+    int   count = 0;
+    for(int i = 0; i < wordCount; i++)
+      count += Long.bitCount(itemsFree.get(i << STRIDE_SHIFT));
+    return count;
+  }
+  /**
+   * Get a free color by name from the color palette pool
+   * or return a null value if the color is not available.
+   * Note that the alpha channel of the returned value will
+   * always be set to 255.
+   *
+   * @param name name of the color to be retrieved from the color pool
+   * @return     the color in ARGB format
+   * @exception  NullPointerException if the color name String is null
+   * @exception  NoSuchElementException if the color name is unknown
+   * @see        #colorByName(String)
+   */
+  public Integer getName(String name) {
+    int       argb;
+    argb = colorByName(name);
+    if (argb == ColorPalette.NO_COLOR)
+      return null;
+    return argb;
+  }
+  /**
+   * Get the next free color from the color palette pool or return
+   * a null value if none are available. Note that the alpha channel
+   * of the returned value will always be set to 255.
+   *
+   * @return     the next color in ARGB format
+   * @see        #nextColor()
+   */
+  public Integer getNext() {
+    int       argb;
+    argb = nextColor();
+    if (argb == ColorPalette.NO_COLOR)
+      return null;
+    return argb;
+  }
+  /**
+   * Return a color that is currently in use, back into the color
+   * pool. The alpha value of the returned color is always ignored.
+   * The color must have been obtained from the color pool. A color
+   * can not be returned to the color pool more than once.
+   *
+   * @param rgb  the color to be returned to the color pool
+   * @exception  NullPointerException if the color Integer is null
+   * @exception  NoSuchElementException if the color was never in the
+   *             color pool
+   * @exception  UnsupportedOperationException if the color is already
+   *             in the color pool
+   * @see        #release(int)
+   */
+  public void putBack(Integer rgb) {
+    if (rgb == null)
+      throw new NullPointerException("Null RGB value passed " +
+                                     "to put back routine");
+    release(rgb);
+  }
+  /**
+   * Get a free color by name from the color palette pool or return
+   * {@link ColorPalette#NO_COLOR} if the color is not available.
+   *
+   * @param name name of the color to be retrieved from the color pool
+   * @return     the color in ARGB format or {@link ColorPalette#NO_COLOR}
+   * @exception  NullPointerException if the color name String is null
+   * @exception  NoSuchElementException if the color name is unknown
+   * @see        #getName(String)
+   */
+  public int colorByName(String name) {
+    int       index;
+    int       slot;
+    long      bit;
+    long      word;
+    if (name == null)
+      throw new NullPointerException("Null color name value passed " +
+                                     "to get color by name routine");
+    index = table.indexOfName(name);
+    if (index < 0)
+      throw new NoSuchElementException("Unknown color name passed to " +
+                                       "get color by name - " + name);
+    /* Clear the bit, unless some other thread got there first */
+    slot = (index >>> 6) << STRIDE_SHIFT;
+    bit = 1L << index;
+    do {
+      word = itemsFree.get(slot);
+      if ((word & bit) == 0)
+        return ColorPalette.NO_COLOR;
+    } while (!itemsFree.compareAndSet(slot, word, word & ~bit));
+    return table.rgb[index] | ALPHA;
+  }
+  /**
+   * Get the next free color from the color palette pool or return
+   * {@link ColorPalette#NO_COLOR} if none are available. The search 
+   * starts at a word of the bitmap that depends on the calling thread,
+   * so the color returned is the lowest free color of the first word 
+   * (from that word on) that has one, not the lowest free color of the
+   * whole pool.
+   *
+   * @return     the next color in ARGB format or {@link ColorPalette#NO_COLOR}
+   * @see        #getNext()
+   */
+  public int nextColor() {
+    int       i = home();
+    int       scanned = 0;
+    int       slot;
+    long      word;
+    long      bit;
+    /*
+     * Scan the words starting with the home word of this thread. Each
+     * word is tried until it is empty or until this thread loses a race
+     * for it. After a lost race the scan moves on to the next word 
+     * (wrapping around at the end) and the whole bitmap is scanned once
+     * more before giving up.
+     */
+    while (scanned < wordCount) {
+      slot = i << STRIDE_SHIFT;
+      word = itemsFree.get(slot);
+      if (word == 0) {
+        i = (i + 1 == wordCount) ? 0 : i + 1;
+        scanned++;
+        continue;
+      }
+      bit = Long.lowestOneBit(word);
+      if (itemsFree.compareAndSet(slot, word, word & ~bit))
+        return table.rgb[(i << 6) + Long.numberOfTrailingZeros(bit)] | ALPHA;
+      i = (i + 1 == wordCount) ? 0 : i + 1;
+      scanned = 0;
+    }
+    return ColorPalette.NO_COLOR;
+  }
+  /*
+   * Get the word of the bitmap where the calling thread starts its search
+   * for a free color. The thread ID is mixed, so that threads with IDs
+   * next to each other get words far apart.
+   */
+  private int home() {
+    long      hash = Thread.currentThread().getId() * 0x9e3779b97f4a7c15L;
+    return (int) ((hash >>> 32) % wordCount);
+  }
+  /**
+   * Return a color that is currently in use, back into the color
+   * pool. The alpha value of the returned color is always ignored.
+   *
+   * @param argb the color to be returned to the color pool
+   * @exception  NoSuchElementException if the color was never in the
+   *             color pool
+   * @exception  UnsupportedOperationException if the color is already
+   *             in the color pool
+   * @see        #putBack(Integer)
+   */
+  public void release(int argb) {
+    int       rgb;
+    int       index;
+    int       slot;
+    long      bit;
+    long      word;
+    rgb = argb & 0xffffff;
+    index = table.indexOfRgb(rgb);
+    if (index < 0)
+      throw new NoSuchElementException("Unknown RGB value passed to " +
+                                       "put back routine - " +
+                                       String.format("0x%06x", rgb));
+    slot = (index >>> 6) << STRIDE_SHIFT;
+    bit = 1L << index;
+    do {
+      word = itemsFree.get(slot);
+      if ((word & bit) != 0)
+        throw new UnsupportedOperationException("Color value already exists in pool - " +
+                                                String.format("0x%06x", rgb));
+    } while (!itemsFree.compareAndSet(slot, word, word | bit));
+  }
+}
@@ -0,0 +1,256 @@
+package colorpalette;
+/*
+ * The DistinctTracker class keeps track of how far each color of a color
+ * table is from the closest busy color. It is only used internally by the
+ * color palette classes. The distances are squared CIE76 color differences
+ * (squared straight line distances in CIELAB). The tracker is updated each
+ * time a color is pulled from the pool or returned to the pool, so that the
+ * free color that is farthest from every busy color can be found with one
+ * pass over the free colors.
+ * <p>
+ * Pulling a color from the pool costs one distance check for every color.
+ * Returning a color to the pool only needs new distances for the colors
+ * whose closest busy color was the returned color. Those distances are
+ * found with a search of the CIELAB k-d tree, restricted to busy colors.
+ * <p>
+ * A tracker can also measure distances in several versions of CIELAB at
+ * once (for example, the colors as seen with normal vision and with each
+ * kind of color blindness). The distance between two colors is then the
+ * smallest of their distances in each version. For color tables with up
+ * to ColorTable.PAIR_LIMIT colors, those smallest distances are read from the table
+ * of distances between each pair of colors, so that pulling a color from
+ * the pool costs one lookup for every color (no more than one distance
+ * check), and returning a color to the pool costs one lookup for every
+ * busy color, for each color whose closest busy color was the returned
+ * color. Larger color tables measure each version in the same pass over
+ * the colors, and search the k-d tree of each version.
+ */
+final class DistinctTracker {
+  /*
+   * The largest number of busy colors that are scanned one by one, rather
+   * than searched for in the k-d trees. A tree search restricted to a few
+   * busy colors has to visit most of the tree.
+   */
+  final private static int    SCAN_LIMIT = 64;
+  /* The CIELAB values of the colors (three per color) in each version */
+  private final float         lab[][];
+  /* The k-d tree over the CIELAB values of the colors in each version */
+  private final ColorKdTree   trees[];
+  /*
+   * The smallest distance between each pair of colors over the versions,
+   * or null if the distances are measured in each version as needed
+   */
+  private final float         pairs[];
+  /* The squared distance from each color to the closest busy color */
+  private final float         minDistance[];
+  /* The closest busy color to each color, or -1 if no color is busy */
+  private final int           closest[];
+  /* The busy colors, when there are few enough of them to scan */
+  private final int           busy[] = new int[SCAN_LIMIT];
+  /*
+   * This constructor builds a tracker for a color table and sets the
+   * distances for the colors that are busy right now. Colors that are
+   * not in the free color bitmap are busy. If the vision flag is set, 
+   * distances are measured with normal vision and with each kind of 
+   * color blindness. Otherwise they are only measured with normal vision.
+   */
+  DistinctTracker(ColorTable table, ColorBitmap free, boolean vision) {
+    if (vision) {
+      pairs = table.visionPairs();
+      lab = table.visionLab();
+      trees = pairs == null ? table.visionTrees() : null;
+    }
+    else {
+      pairs = null;
+      lab = new float[][] {table.lab()};
+      trees = new ColorKdTree[] {table.labTree()};
+    }
+    minDistance = new float[table.size];
+    closest = new int[table.size];
+    for(int i = 0; i < table.size; i++)
+      update(i, free);
+  }
+  /*
+   * This constructor builds a copy of another tracker. The CIELAB values,
+   * the k-d trees and the pair distances are shared, since they are never
+   * changed.
+   */
+  DistinctTracker(DistinctTracker other) {
+    pairs = other.pairs;
+    lab = other.lab;
+    trees = other.trees;
+    minDistance = other.minDistance.clone();
+    closest = other.closest.clone();
+  }
+  /*
+   * Set the distances again for the colors that are busy right now,
+   * without building a new tracker
+   */
+  void reset(ColorBitmap free) {
+    for(int i = 0; i < minDistance.length; i++)
+      update(i, free);
+  }
+  /*
+   * Get the squared distance between two colors in one version of CIELAB
+   */
+  private static float distance(float values[], int i, int j) {
+    float   dl = values[i * 3] - values[j * 3];
+    float   da = values[i * 3 + 1] - values[j * 3 + 1];
+    float   db = values[i * 3 + 2] - values[j * 3 + 2];
+    return dl * dl + da * da + db * db;
+  }
+  /*
+   * Find the closest busy color to a color, using the pair distances if
+   * there are any, or the k-d tree of each version of CIELAB
+   */
+  private void update(int i, ColorBitmap free) {
+    float values[];
+    float d;
+    int   busy;
+    long  word;
+    int   row = i * closest.length;
+    closest[i] = -1;
+    minDistance[i] = Float.MAX_VALUE;
+    if (pairs != null) {
+      for(int w = 0; w < free.words.length; w++) {
+        word = ~free.words[w];
+        if (w == free.words.length - 1 && (free.capacity & 63) != 0)
+          word &= -1L >>> (64 - (free.capacity & 63));
+        while (word != 0) {
+          busy = (w << 6) + Long.numberOfTrailingZeros(word);
+          d = pairs[row + busy];
+          if (d < minDistance[i]) {
+            minDistance[i] = d;
+            closest[i] = busy;
+          }
+          word &= word - 1;
+        }
+      }
+      return;
+    }
+    for(int v = 0; v < lab.length; v++) {
+      values = lab[v];
+      busy = trees[v].nearest(values[i * 3], values[i * 3 + 1], values[i * 3 + 2], 
+                              free.words, false);
+      if (busy < 0)
+        return;
+      d = distance(values, i, busy);
+      if (d < minDistance[i]) {
+        minDistance[i] = d;
+        closest[i] = busy;
+      }
+    }
+  }
+  /*
+   * Record that a color has been pulled from the pool. Every version of 
+   * CIELAB is handled in the same pass over the colors.
+   */
+  void taken(int index) {
+    float   d;
+    int     row = index * minDistance.length;
+    if (pairs != null) {
+      for(int i = 0; i < minDistance.length; i++) {
+        d = pairs[row + i];
+        if (d < minDistance[i]) {
+          minDistance[i] = d;
+          closest[i] = index;
+        }
+      }
+      return;
+    }
+    for(int i = 0; i < minDistance.length; i++) {
+      d = distance(lab[0], i, index);
+      for(int v = 1; v < lab.length; v++)
+        d = Math.min(d, distance(lab[v], i, index));
+      if (d < minDistance[i]) {
+        minDistance[i] = d;
+        closest[i] = index;
+      }
+    }
+  }
+  /*
+   * Record that a color has been returned to the pool. The free color
+   * bitmap must already include the returned color.
+   */
+  void given(int index, ColorBitmap free) {
+    int     count = closest.length - free.size();
+    long    word;
+    int     found = 0;
+    if (count > SCAN_LIMIT) {
+      for(int i = 0; i < closest.length; i++) {
+        if (closest[i] == index)
+          update(i, free);
+      }
+      return;
+    }
+    /* List the few busy colors once and scan them for each color */
+    for(int w = 0; w < free.words.length; w++) {
+      word = ~free.words[w];
+      if (w == free.words.length - 1 && (free.capacity & 63) != 0)
+        word &= -1L >>> (64 - (free.capacity & 63));
+      while (word != 0) {
+        busy[found++] = (w << 6) + Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+      }
+    }
+    for(int i = 0; i < closest.length; i++) {
+      if (closest[i] == index)
+        scan(i, found);
+    }
+  }
+  /*
+   * Find the closest busy color to a color, by checking each of the busy
+   * colors listed in the busy array
+   */
+  private void scan(int i, int count) {
+    float   d;
+    int     row = i * closest.length;
+    closest[i] = -1;
+    minDistance[i] = Float.MAX_VALUE;
+    for(int b = 0; b < count; b++) {
+      if (pairs != null)
+        d = pairs[row + busy[b]];
+      else {
+        d = distance(lab[0], i, busy[b]);
+        for(int v = 1; v < lab.length; v++)
+          d = Math.min(d, distance(lab[v], i, busy[b]));
+      }
+      if (d < minDistance[i]) {
+        minDistance[i] = d;
+        closest[i] = busy[b];
+      }
+    }
+  }
+  /*
+   * Get the free color that is farthest from every busy color, or -1 if
+   * there are no free colors. If several free colors are equally far
+   * away (for example, when no color is busy), the lowest color index
+   * value is returned.
+   */
+  int farthest(ColorBitmap free) {
+    return farthest(free.words);
+  }
+  /*
+   * Get the color that is farthest from every busy color, out of the 
+   * colors in the words of a bitmap (which must only hold free colors),
+   * or -1 if the bitmap is empty
+   */
+  int farthest(long words[]) {
+    int     best = -1;
+    float   bestDistance = -1;
+    long    word;
+    int     index;
+    for(int w = 0; w < words.length; w++) {
+      word = words[w];
+      while (word != 0) {
+        index = (w << 6) + Long.numberOfTrailingZeros(word);
+        if (minDistance[index] > bestDistance) {
+          best = index;
+          bestDistance = minDistance[index];
+        }
+        word &= word - 1;
+      }
+    }
+    return best;
+  }
+}
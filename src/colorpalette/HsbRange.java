@@ -0,0 +1,222 @@
+package colorpalette;
+/**
+ * The HsbRange class describes a set of colors by ranges of hue,
+ * saturation and brightness, such as "the blue-green hues" or "pastels"
+ * (light colors with little saturation). Hue, saturation and brightness
+ * run from zero to one, the same way as in java.awt.Color.RGBtoHSB. A hue
+ * of zero (or one) is red, one third is green and two thirds is blue.
+ * Gray colors (with no saturation) have a hue of zero.
+ * <p>
+ * Each range includes both of its ends. A hue range whose first hue is
+ * larger than its last hue wraps around through red, so a range from
+ * 0.9 to 0.1 holds the reds on both sides of zero. Instances of this class
+ * are never modified once they are built, so they can be shared freely.
+ *
+ * @author      ##author##
+ * @version     ##library.prettyVersion##
+ * @since       ##date##
+ */
+public final class HsbRange {
+  /** Every hue, saturation and brightness */
+  public static final HsbRange ALL = new HsbRange(0, 1, 0, 1, 0, 1);
+  /* The ends of the hue, saturation and brightness ranges */
+  private final float hueFrom, hueTo;
+  private final float saturationFrom, saturationTo;
+  private final float brightnessFrom, brightnessTo;
+  /**
+   * Create a range of hue, saturation and brightness.
+   *
+   * @param hueFrom        the first hue of the range
+   * @param hueTo          the last hue of the range (a value less than
+   *                       the first hue wraps around through red)
+   * @param saturationFrom the lowest saturation of the range
+   * @param saturationTo   the highest saturation of the range
+   * @param brightnessFrom the lowest brightness of the range
+   * @param brightnessTo   the highest brightness of the range
+   * @exception            IllegalArgumentException if any value is not
+   *                       between zero and one, or if a lowest saturation
+   *                       or brightness is larger than the highest one
+   */
+  public HsbRange(float hueFrom, float hueTo, float saturationFrom, float saturationTo,
+                  float brightnessFrom, float brightnessTo) {
+    check(hueFrom, "hue");
+    check(hueTo, "hue");
+    check(saturationFrom, "saturation");
+    check(saturationTo, "saturation");
+    check(brightnessFrom, "brightness");
+    check(brightnessTo, "brightness");
+    if (saturationFrom > saturationTo)
+      throw new IllegalArgumentException("Invalid saturation range passed to " +
+                                         "HSB range constructor - " +
+                                         saturationFrom + " to " + saturationTo);
+    if (brightnessFrom > brightnessTo)
+      throw new IllegalArgumentException("Invalid brightness range passed to " +
+                                         "HSB range constructor - " +
+                                         brightnessFrom + " to " + brightnessTo);
+    this.hueFrom = hueFrom;
+    this.hueTo = hueTo;
+    this.saturationFrom = saturationFrom;
+    this.saturationTo = saturationTo;
+    this.brightnessFrom = brightnessFrom;
+    this.brightnessTo = brightnessTo;
+  }
+  /**
+   * Create a range that holds every color with a hue in a range, whatever
+   * its saturation and brightness.
+   *
+   * @param hueFrom the first hue of the range
+   * @param hueTo   the last hue of the range (a value less than the first
+   *                hue wraps around through red)
+   * @return        the new range
+   * @exception     IllegalArgumentException if a hue is not between zero
+   *                and one
+   */
+  public static HsbRange hues(float hueFrom, float hueTo) {
+    return new HsbRange(hueFrom, hueTo, 0, 1, 0, 1);
+  }
+  /**
+   * Get a range with the same hues as this range, but with a different
+   * range of saturation.
+   *
+   * @param from the lowest saturation of the range
+   * @param to   the highest saturation of the range
+   * @return     the new range
+   * @exception  IllegalArgumentException if a value is not between zero
+   *             and one, or if the lowest value is larger than the highest
+   */
+  public HsbRange saturation(float from, float to) {
+    return new HsbRange(hueFrom, hueTo, from, to, brightnessFrom, brightnessTo);
+  }
+  /**
+   * Get a range with the same hues as this range, but with a different
+   * range of brightness.
+   *
+   * @param from the lowest brightness of the range
+   * @param to   the highest brightness of the range
+   * @return     the new range
+   * @exception  IllegalArgumentException if a value is not between zero
+   *             and one, or if the lowest value is larger than the highest
+   */
+  public HsbRange brightness(float from, float to) {
+    return new HsbRange(hueFrom, hueTo, saturationFrom, saturationTo, from, to);
+  }
+  /**
+   * Check if an RGB value is in this range. The alpha channel is ignored.
+   *
+   * @param rgb  the RGB value to be checked
+   * @return     true if the color is in this range
+   */
+  public boolean contains(int rgb) {
+    float   hsb[] = new float[3];
+    ColorSpaces.toHsb(rgb, hsb, 0);
+    return containsHue(hsb[0]) &&
+           hsb[1] >= saturationFrom && hsb[1] <= saturationTo &&
+           hsb[2] >= brightnessFrom && hsb[2] <= brightnessTo;
+  }
+  /**
+   * Get the first hue of this range.
+   *
+   * @return     the first hue
+   */
+  public float getHueFrom() {
+    return hueFrom;
+  }
+  /**
+   * Get the last hue of this range.
+   *
+   * @return     the last hue
+   */
+  public float getHueTo() {
+    return hueTo;
+  }
+  /**
+   * Get the lowest saturation of this range.
+   *
+   * @return     the lowest saturation
+   */
+  public float getSaturationFrom() {
+    return saturationFrom;
+  }
+  /**
+   * Get the highest saturation of this range.
+   *
+   * @return     the highest saturation
+   */
+  public float getSaturationTo() {
+    return saturationTo;
+  }
+  /**
+   * Get the lowest brightness of this range.
+   *
+   * @return     the lowest brightness
+   */
+  public float getBrightnessFrom() {
+    return brightnessFrom;
+  }
+  /**
+   * Get the highest brightness of this range.
+   *
+   * @return     the highest brightness
+   */
+  public float getBrightnessTo() {
+    return brightnessTo;
+  }
+  /**
+   * Get a description of this range.
+   *
+   * @return     a description of this range
+   */
+  @Override
+  public String toString() {
+    return "HsbRange[hue " + hueFrom + " to " + hueTo +
+           ", saturation " + saturationFrom + " to " + saturationTo +
+           ", brightness " + brightnessFrom + " to " + brightnessTo + "]";
+  }
+  /*
+   * Check if a hue is in the hue range, which may wrap around
+   */
+  boolean containsHue(float hue) {
+    if (hueFrom <= hueTo)
+      return hue >= hueFrom && hue <= hueTo;
+    return hue >= hueFrom || hue <= hueTo;
+  }
+  /*
+   * Add the colors in this range to the words of a bitmap, using the hue,
+   * saturation and brightness indexes of a color table. The scratch words
+   * must be as long as the bitmap.
+   */
+  void addColors(ColorTable table, long out[], long scratch[]) {
+    RangeIndex  index[] = table.hsbIndexes();
+    /* The hue range may be in two parts */
+    clear(out);
+    if (hueFrom <= hueTo)
+      index[0].addRange(index[0].countBelow(hueFrom), index[0].countAtMost(hueTo), out);
+    else {
+      index[0].addRange(index[0].countBelow(hueFrom), index[0].size(), out);
+      index[0].addRange(0, index[0].countAtMost(hueTo), out);
+    }
+    clear(scratch);
+    index[1].addRange(index[1].countBelow(saturationFrom), index[1].countAtMost(saturationTo), scratch);
+    for(int w = 0; w < out.length; w++)
+      out[w] &= scratch[w];
+    clear(scratch);
+    index[2].addRange(index[2].countBelow(brightnessFrom), index[2].countAtMost(brightnessTo), scratch);
+    for(int w = 0; w < out.length; w++)
+      out[w] &= scratch[w];
+  }
+  /*
+   * Set every word of a bitmap to zero
+   */
+  private static void clear(long words[]) {
+    for(int w = 0; w < words.length; w++)
+      words[w] = 0;
+  }
+  /*
+   * Check one value passed to the constructor
+   */
+  private static void check(float value, String what) {
+    if (!(value >= 0 && value <= 1))
+      throw new IllegalArgumentException("Invalid " + what + " passed to " +
+                                         "HSB range constructor - " + value);
+  }
+}
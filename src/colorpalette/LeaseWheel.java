@@ -0,0 +1,198 @@
+package colorpalette;
+/*
+ * The LeaseWheel class keeps track of the colors of a color palette that
+ * have been leased (pulled from the pool for a limited time). It is only
+ * used internally by the color palette classes. The leases are kept in a
+ * hashed timing wheel. The wheel is a ring of slots, one slot for each
+ * tick of the clock. Each lease goes into the slot for the tick in which
+ * it runs out, no matter how many turns of the wheel away that tick is.
+ * Adding, renewing and cancelling a lease all cost the same small amount
+ * of work, however many leases there are. Moving the clock forward only
+ * looks at the slots for the ticks that have gone by.
+ * <p>
+ * The slots are linked lists of color index values. The links are kept
+ * in int arrays (one entry for each color) rather than in objects, so
+ * leasing a color never allocates any storage. None of the methods
+ * below are thread-safe.
+ */
+final class LeaseWheel {
+  /* The length of one tick of the wheel in milliseconds */
+  final private static int  TICK = 10;
+  /* The number of slots in the wheel (must be a power of two) */
+  final private static int  SLOTS = 512;
+  /* The link value used for colors that are not leased */
+  final private static int  NOT_LEASED = -2;
+  /* The first color index value in each slot, or -1 if the slot is empty */
+  private final int   heads[];
+  /* The next color index value in the same slot, or -1 for the last one */
+  private final int   next[];
+  /* The previous color index value in the same slot, or -1 for the first one */
+  private final int   prev[];
+  /* The slot that holds each leased color */
+  private final int   slots[];
+  /* The time (in milliseconds) at which the lease on each color runs out */
+  private final long  deadline[];
+  /* The bitmap words of the leased colors */
+  private final long  leased[];
+  /* The color index values found by the last expire call */
+  final int           expired[];
+  /* The value of the nano second clock that is time zero for the wheel */
+  private final long  base;
+  /* The last tick of the clock that has been handled */
+  private long        lastTick;
+  /* The number of colors that are leased */
+  private int         active;
+  /*
+   * This constructor builds an empty wheel for a color table of a given
+   * size. Time zero for the wheel is the time the wheel is built.
+   */
+  LeaseWheel(int size) {
+    heads = new int[SLOTS];
+    next = new int[size];
+    prev = new int[size];
+    slots = new int[size];
+    deadline = new long[size];
+    leased = new long[(size + 63) >>> 6];
+    expired = new int[size];
+    base = System.nanoTime();
+    for(int i = 0; i < SLOTS; i++)
+      heads[i] = -1;
+    for(int i = 0; i < size; i++)
+      prev[i] = NOT_LEASED;
+  }
+  /*
+   * This constructor builds a copy of another wheel. The copy has the
+   * same leases and the same time zero as the other wheel.
+   */
+  LeaseWheel(LeaseWheel other) {
+    heads = other.heads.clone();
+    next = other.next.clone();
+    prev = other.prev.clone();
+    slots = other.slots.clone();
+    deadline = other.deadline.clone();
+    leased = other.leased.clone();
+    expired = new int[other.expired.length];
+    base = other.base;
+    lastTick = other.lastTick;
+    active = other.active;
+  }
+  /*
+   * Get the current time of the wheel in milliseconds
+   */
+  long now() {
+    return (System.nanoTime() - base) / 1000000;
+  }
+  /*
+   * Get the time (in milliseconds) a given length of time from now. The
+   * time is Long.MAX_VALUE (a lease that never runs out) if the sum would
+   * not fit in a long.
+   */
+  long after(long millis) {
+    long    time = now();
+    return millis > Long.MAX_VALUE - time ? Long.MAX_VALUE : time + millis;
+  }
+  /*
+   * Get the number of colors that are leased
+   */
+  int active() {
+    return active;
+  }
+  /*
+   * Check if a color is leased
+   */
+  boolean isLeased(int index) {
+    return prev[index] != NOT_LEASED;
+  }
+  /*
+   * Take the leased colors out of the words of a bitmap
+   */
+  void removeLeased(long words[]) {
+    for(int w = 0; w < words.length; w++)
+      words[w] &= ~leased[w];
+  }
+  /*
+   * Lease a color until a given time (in milliseconds). If the color is
+   * already leased, the old lease is replaced. A lease that runs out in
+   * a tick that has already been handled goes into the next slot to be
+   * handled, so that it is found by the next expire call.
+   */
+  void lease(int index, long until) {
+    long    tick = until / TICK + (until % TICK != 0 ? 1 : 0);
+    int     slot;
+    cancel(index);
+    if (tick <= lastTick)
+      tick = lastTick + 1;
+    slot = (int) tick & (SLOTS - 1);
+    slots[index] = slot;
+    deadline[index] = until;
+    prev[index] = -1;
+    next[index] = heads[slot];
+    if (heads[slot] >= 0)
+      prev[heads[slot]] = index;
+    heads[slot] = index;
+    leased[index >>> 6] |= 1L << index;
+    active++;
+  }
+  /*
+   * Drop the lease on a color, if there is one
+   */
+  void cancel(int index) {
+    if (prev[index] == NOT_LEASED)
+      return;
+    if (prev[index] >= 0)
+      next[prev[index]] = next[index];
+    else
+      heads[slots[index]] = next[index];
+    if (next[index] >= 0)
+      prev[next[index]] = prev[index];
+    prev[index] = NOT_LEASED;
+    leased[index >>> 6] &= ~(1L << index);
+    active--;
+  }
+  /*
+   * Drop every lease. Only the slots of the wheel and the colors that
+   * are leased are looked at.
+   */
+  void clear() {
+    int     index;
+    for(int i = 0; i < SLOTS; i++) {
+      for(index = heads[i]; index >= 0; index = next[index])
+        prev[index] = NOT_LEASED;
+      heads[i] = -1;
+    }
+    for(int w = 0; w < leased.length; w++)
+      leased[w] = 0;
+    active = 0;
+  }
+  /*
+   * Move the clock forward to a given time (in milliseconds) and drop
+   * every lease that has run out. The color index values of the dropped
+   * leases are stored in the expired array and the number of values
+   * stored is returned. Only the slots for the ticks that have gone by 
+   * are looked at. If the clock has moved forward by a full turn of the
+   * wheel or more, every slot is looked at once.
+   */
+  int expire(long time) {
+    long    tick = time / TICK;
+    long    steps;
+    int     found = 0;
+    int     index;
+    int     following;
+    int     slot;
+    if (tick > lastTick) {
+      steps = Math.min(tick - lastTick, SLOTS);
+      for(long t = lastTick + 1; t <= lastTick + steps; t++) {
+        slot = (int) t & (SLOTS - 1);
+        for(index = heads[slot]; index >= 0; index = following) {
+          following = next[index];
+          if (deadline[index] <= time) {
+            cancel(index);
+            expired[found++] = index;
+          }
+        }
+      }
+      lastTick = tick;
+    }
+    return found;
+  }
+}
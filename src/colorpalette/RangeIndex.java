@@ -0,0 +1,150 @@
+package colorpalette;
+import java.util.Arrays;
+/*
+ * The RangeIndex class finds the colors of a color table whose value of
+ * some kind (for example, relative luminance) falls in a range. It is
+ * only used internally by the color palette classes. The colors are kept
+ * sorted by value, so the colors in a range of values are the colors at
+ * a range of sorted positions, found with two binary searches.
+ * <p>
+ * The colors at a range of sorted positions are turned into a bitmap with
+ * the help of prefix bitmaps. Prefix bitmap number k holds the colors at
+ * the first k * STEP sorted positions, so the colors between two block
+ * boundaries are one prefix bitmap without the bits of another. Only the
+ * (fewer than STEP) colors at each end of the range that are not on a
+ * block boundary are added one at a time. Turning a range into a bitmap
+ * therefore costs one pass over the words of a bitmap, however many
+ * colors are in the range. An index is never modified once it is built,
+ * so it can be used by any number of threads at once.
+ */
+final class RangeIndex {
+  /* The number of sorted positions between two prefix bitmaps */
+  final private static int  STEP = 16;
+  /* The value of each color, in color index order */
+  private final float   values[];
+  /* The color index values, sorted by value */
+  private final int     sorted[];
+  /* The values of the colors, in sorted order */
+  private final float   sortedValues[];
+  /* The words of each prefix bitmap */
+  private final long    prefix[][];
+  /*
+   * This constructor builds an index over one value for each color. The
+   * values must not be NaN. Colors with equal values are sorted by color
+   * index value.
+   */
+  RangeIndex(float colorValues[]) {
+    int     size = colorValues.length;
+    int     words = (size + 63) >>> 6;
+    long    keys[] = new long[size];
+    int     index;
+    values = colorValues;
+    sorted = new int[size];
+    sortedValues = new float[size];
+    /*
+     * Sort the colors as longs made of an ordered form of the float bits
+     * and the color index value, so no boxing is needed
+     */
+    for(int i = 0; i < size; i++)
+      keys[i] = (long) orderedBits(colorValues[i]) << 32 | i;
+    Arrays.sort(keys);
+    for(int i = 0; i < size; i++) {
+      sorted[i] = (int) keys[i];
+      sortedValues[i] = colorValues[sorted[i]];
+    }
+    prefix = new long[(size + STEP - 1) / STEP + 1][];
+    prefix[0] = new long[words];
+    for(int k = 1; k < prefix.length; k++) {
+      prefix[k] = prefix[k - 1].clone();
+      for(int p = (k - 1) * STEP; p < Math.min(k * STEP, size); p++) {
+        index = sorted[p];
+        prefix[k][index >>> 6] |= 1L << index;
+      }
+    }
+  }
+  /*
+   * Turn the bits of a float into an int that sorts (as a signed int) in
+   * the same order as the float values
+   */
+  private static int orderedBits(float value) {
+    int     bits = Float.floatToIntBits(value);
+    return bits < 0 ? bits ^ 0x7fffffff : bits;
+  }
+  /*
+   * Get the value of a color, by color index value
+   */
+  float value(int index) {
+    return values[index];
+  }
+  /*
+   * Get the number of colors
+   */
+  int size() {
+    return sorted.length;
+  }
+  /*
+   * Get the number of colors whose values are less than or equal to a
+   * given value. This is also the first sorted position with a larger
+   * value.
+   */
+  int countAtMost(double value) {
+    int     lo = 0;
+    int     hi = sorted.length;
+    int     mid;
+    while (lo < hi) {
+      mid = (lo + hi) >>> 1;
+      if (sortedValues[mid] <= value)
+        lo = mid + 1;
+      else
+        hi = mid;
+    }
+    return lo;
+  }
+  /*
+   * Get the number of colors whose values are less than a given value.
+   * This is also the first sorted position with a value that is greater
+   * than or equal to the given value.
+   */
+  int countBelow(double value) {
+    int     lo = 0;
+    int     hi = sorted.length;
+    int     mid;
+    while (lo < hi) {
+      mid = (lo + hi) >>> 1;
+      if (sortedValues[mid] < value)
+        lo = mid + 1;
+      else
+        hi = mid;
+    }
+    return lo;
+  }
+  /*
+   * Add the colors at a range of sorted positions (from is included, to
+   * is not) to the words of a bitmap
+   */
+  void addRange(int from, int to, long out[]) {
+    int     first = (from + STEP - 1) / STEP;
+    int     last = to / STEP;
+    if (from >= to)
+      return;
+    if (first >= last) {
+      addPositions(from, to, out);
+      return;
+    }
+    for(int w = 0; w < out.length; w++)
+      out[w] |= prefix[last][w] & ~prefix[first][w];
+    addPositions(from, first * STEP, out);
+    addPositions(last * STEP, to, out);
+  }
+  /*
+   * Add the colors at a (short) range of sorted positions to the words of
+   * a bitmap, one at a time
+   */
+  private void addPositions(int from, int to, long out[]) {
+    int     index;
+    for(int p = from; p < to; p++) {
+      index = sorted[p];
+      out[index >>> 6] |= 1L << index;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package colorpalette;
+import java.util.Arrays;
+/*
+ * The RgbIndex class maps RGB values to color index values. It is only
+ * used internally by the color palette classes. The map is an open
+ * addressing hash table built from two int arrays, so that looking up
+ * an RGB value never boxes the RGB value or the color index value.
+ * Keys are RGB values without an alpha channel, which means that -1
+ * can never be a key and is used to mark empty slots.
+ */
+final class RgbIndex {
+  /* The keys (RGB values) of the hash table. Empty slots are -1. */
+  private final int keys[];
+  /* The values (color index values) of the hash table */
+  private final int values[];
+  /* The shift used to turn a hash code into a slot number */
+  private final int shift;
+  /*
+   * This constructor builds an empty hash table with room for at
+   * least the number of entries passed by the caller. The table is
+   * kept at most half full.
+   */
+  RgbIndex(int size) {
+    int   bits = 1;
+    while ((1 << bits) < size * 2)
+      bits++;
+    keys = new int[1 << bits];
+    values = new int[1 << bits];
+    shift = 32 - bits;
+    Arrays.fill(keys, -1);
+  }
+  /*
+   * Get the first slot to probe for an RGB value
+   */
+  private int slot(int rgb) {
+    return (rgb * 0x9e3779b9) >>> shift;
+  }
+  /*
+   * Add an RGB value and the associated color index value to the hash
+   * table. This method returns false (and does not change the table)
+   * if the RGB value is already in the table.
+   */
+  boolean put(int rgb, int index) {
+    int   mask = keys.length - 1;
+    for(int i = slot(rgb); ; i = (i + 1) & mask) {
+      if (keys[i] == rgb)
+        return false;
+      if (keys[i] == -1) {
+        keys[i] = rgb;
+        values[i] = index;
+        return true;
+      }
+    }
+  }
+  /*
+   * Get the color index value associated with an RGB value or -1 if
+   * the RGB value is not in the table
+   */
+  int get(int rgb) {
+    int   mask = keys.length - 1;
+    for(int i = slot(rgb); ; i = (i + 1) & mask) {
+      if (keys[i] == rgb)
+        return values[i];
+      if (keys[i] == -1)
+        return -1;
+    }
+  }
+}
@@ -0,0 +1,346 @@
+package colorpalette;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+/**
+ * The StripedColorPalette class is a thread-safe version of the
+ * {@link ColorPalette} class for programs that pull colors from the pool
+ * and return them to the pool at a very high rate from many threads. It
+ * has the same methods as the {@link ConcurrentColorPalette} class, with
+ * the same arguments, return values and exceptions.
+ * <p>
+ * Each thread that uses an instance of this class gets a small local
+ * cache (a magazine) of free colors. Colors are pulled from the local
+ * cache and returned to the local cache, so most calls never touch any
+ * data shared with other threads. A local cache is refilled from the
+ * shared pool in batches when it is empty, and half of it is drained back
+ * into the shared pool when it is full. If the shared pool is empty, free
+ * colors held in the local caches of other (possibly idle) threads are
+ * taken back.
+ * <p>
+ * Busy and free colors are tracked exactly. A color can only be pulled
+ * from the pool by one thread and can only be returned to the pool once.
+ * The number of colors left in the pool includes the colors held in local
+ * caches and is exact whenever no other thread is changing the pool.
+ * Colors are not handed out in any particular order. In particular, the
+ * most popular colors are not always returned first.
+ *
+ * @author      ##author##
+ * @version     ##library.prettyVersion##
+ * @since       ##date##
+ */
+public final class StripedColorPalette {
+  /* The number of free colors moved between a local cache and the pool */
+  final private static int BATCH = 16;
+  /* The number of array slots used by each word of the shared bitmap */
+  final private static int STRIDE_SHIFT = 3;
+  /* The number of free color counters (must be a power of two) */
+  final private static int COUNTERS = 16;
+  /* The number of array slots used by each free color counter */
+  final private static int COUNTER_SHIFT = 4;
+  /* The alpha channel value that is added to every color returned */
+  final private static int ALPHA = 255 << 24;
+  /* The values of the color state array */
+  final private static int BUSY = 0;
+  final private static int FREE = 1;
+  /* The color table used by this instance */
+  final private ColorTable table;
+  /* The number of words in the shared bitmap */
+  final private int wordCount;
+  /*
+   * The atomic array below holds the state (busy or free) of every color.
+   * This array is the only exact record of which colors are free. A color
+   * is pulled from the pool by changing its state from free to busy and is
+   * returned to the pool by changing its state from busy to free. Both
+   * changes are made with compare-and-set operations.
+   */
+  final private AtomicIntegerArray state;
+  /*
+   * The atomic array below is a bitmap of colors that are free and not
+   * held by any local cache. Word number i of the bitmap is stored in array
+   * slot i * 8, so that each word has its own cache line. Bits in this
+   * bitmap (and entries in the local caches) are only hints. A hint for a
+   * color that is no longer free is simply dropped when it is found.
+   */
+  final private AtomicLongArray shared;
+  /*
+   * The atomic array below holds the number of free colors, split over a
+   * few counters (each on its own cache line) so that threads do not all
+   * update the same counter. Each thread adds to and subtracts from its 
+   * own counter, after it changes the state of a color. A counter can go
+   * below zero, but the sum of the counters is the number of free colors
+   * whenever no other thread is changing the pool.
+   */
+  final private AtomicIntegerArray counters;
+  /* The counter given to the next thread that uses this instance */
+  final private AtomicInteger nextCounter = new AtomicInteger();
+  /* The local cache of each thread */
+  final private ThreadLocal<Magazine> magazines = new ThreadLocal<Magazine>() {
+    @Override
+    protected Magazine initialValue() {
+      return new Magazine((nextCounter.getAndIncrement() & (COUNTERS - 1)) << COUNTER_SHIFT);
+    }
+  };
+  /*
+   * The Magazine class is the local cache of one thread. It is only ever
+   * used by the thread that owns it, so it needs no locking. Each thread
+   * also has its own free color counter and its own place to start the
+   * search for colors held in the local caches of other threads.
+   */
+  final private static class Magazine {
+    final int   items[] = new int[BATCH * 2];
+    final int   counter;
+    int         count;
+    int         cursor;
+    Magazine(int slot) {
+      counter = slot;
+    }
+  }
+  /**
+   * The constructor below is used to create instances of this class.
+   * It can be invoked any number of times as need be. Note that the
+   * constructor loads the color pool with all of the colors.
+   */
+  public StripedColorPalette() {
+    int   last;
+    table = ColorPalette.itemsTable;
+    wordCount = (table.size + 63) >>> 6;
+    state = new AtomicIntegerArray(table.size);
+    for(int i = 0; i < table.size; i++)
+      state.set(i, FREE);
+    shared = new AtomicLongArray(wordCount << STRIDE_SHIFT);
+    last = wordCount - 1;
+    for(int i = 0; i < last; i++)
+      shared.set(i << STRIDE_SHIFT, -1L);
+    if (last >= 0)
+      shared.set(last << STRIDE_SHIFT, -1L >>> ((wordCount << 6) - table.size));
+    counters = new AtomicIntegerArray(COUNTERS << COUNTER_SHIFT);
+    counters.set(0, table.size);
+  }
+  /**
+   * Get the number of colors left in the color pool, including the
+   * colors held in the local caches of all threads. The value is exact
+   * if no other thread is changing the pool at the same time.
+   *
+   * @return  the number of colors left in the color pool
+   * @see     int
+   */
+  public int colorsLeft() {
+    return freeCount();
+  }
+  /**
+   * Get a free color by name from the color palette pool
+   * or return a null value if the color is not available.
+   * Note that the alpha channel of the returned value will
+   * always be set to 255.
+   *
+   * @param name name of the color to be retrieved from the color pool
+   * @return     the color in ARGB format
+   * @exception  NullPointerException if the color name String is null
+   * @exception  NoSuchElementException if the color name is unknown
+   * @see        #colorByName(String)
+   */
+  public Integer getName(String name) {
+    int       argb;
+    argb = colorByName(name);
+    if (argb == ColorPalette.NO_COLOR)
+      return null;
+    return argb;
+  }
+  /**
+   * Get the next free color from the color palette pool or return
+   * a null value if none are available. Note that the alpha channel
+   * of the returned value will always be set to 255.
+   *
+   * @return     the next color in ARGB format
+   * @see        #nextColor()
+   */
+  public Integer getNext() {
+    int       argb;
+    argb = nextColor();
+    if (argb == ColorPalette.NO_COLOR)
+      return null;
+    return argb;
+  }
+  /**
+   * Return a color that is currently in use, back into the color
+   * pool. The alpha value of the returned color is always ignored.
+   * The color must have been obtained from the color pool. A color
+   * can not be returned to the color pool more than once.
+   *
+   * @param rgb  the color to be returned to the color pool
+   * @exception  NullPointerException if the color Integer is null
+   * @exception  NoSuchElementException if the color was never in the
+   *             color pool
+   * @exception  UnsupportedOperationException if the color is already
+   *             in the color pool
+   * @see        #release(int)
+   */
+  public void putBack(Integer rgb) {
+    if (rgb == null)
+      throw new NullPointerException("Null RGB value passed " +
+                                     "to put back routine");
+    release(rgb);
+  }
+  /**
+   * Get a free color by name from the color palette pool or return
+   * {@link ColorPalette#NO_COLOR} if the color is not available. The
+   * color is found even if it is held in the local cache of another
+   * thread.
+   *
+   * @param name name of the color to be retrieved from the color pool
+   * @return     the color in ARGB format or {@link ColorPalette#NO_COLOR}
+   * @exception  NullPointerException if the color name String is null
+   * @exception  NoSuchElementException if the color name is unknown
+   * @see        #getName(String)
+   */
+  public int colorByName(String name) {
+    int       index;
+    if (name == null)
+      throw new NullPointerException("Null color name value passed " +
+                                     "to get color by name routine");
+    index = table.indexOfName(name);
+    if (index < 0)
+      throw new NoSuchElementException("Unknown color name passed to " +
+                                       "get color by name - " + name);
+    /* Any hints left for this color are dropped when they are found */
+    if (!state.compareAndSet(index, FREE, BUSY))
+      return ColorPalette.NO_COLOR;
+    counters.decrementAndGet(magazines.get().counter);
+    return table.rgb[index] | ALPHA;
+  }
+  /**
+   * Get the next free color from the color palette pool or return
+   * {@link ColorPalette#NO_COLOR} if none are available. The color
+   * is taken from the local cache of the calling thread if possible.
+   *
+   * @return     the next color in ARGB format or {@link ColorPalette#NO_COLOR}
+   * @see        #getNext()
+   */
+  public int nextColor() {
+    Magazine  magazine = magazines.get();
+    int       index;
+    /*
+     * Pull colors from the local cache until one is still free. Refill
+     * the local cache from the shared bitmap each time it runs dry. An
+     * empty pool is found from the counters, without any scan.
+     */
+    do {
+      while (magazine.count > 0) {
+        index = magazine.items[--magazine.count];
+        if (state.compareAndSet(index, FREE, BUSY)) {
+          counters.decrementAndGet(magazine.counter);
+          return table.rgb[index] | ALPHA;
+        }
+      }
+      if (freeCount() <= 0)
+        return ColorPalette.NO_COLOR;
+    } while (refill(magazine));
+    /*
+     * The shared bitmap is empty. Take back any color that is still free,
+     * which means a color held in the local cache of some other thread.
+     * Each thread starts where its last search stopped, so threads do not
+     * all search the same colors.
+     */
+    for(int n = 0; n < table.size; n++) {
+      index = magazine.cursor;
+      magazine.cursor = index + 1 == table.size ? 0 : index + 1;
+      if (state.get(index) == FREE && state.compareAndSet(index, FREE, BUSY)) {
+        counters.decrementAndGet(magazine.counter);
+        return table.rgb[index] | ALPHA;
+      }
+    }
+    return ColorPalette.NO_COLOR;
+  }
+  /**
+   * Return a color that is currently in use, back into the color
+   * pool. The color is added to the local cache of the calling thread.
+   * The alpha value of the returned color is always ignored.
+   *
+   * @param argb the color to be returned to the color pool
+   * @exception  NoSuchElementException if the color was never in the
+   *             color pool
+   * @exception  UnsupportedOperationException if the color is already
+   *             in the color pool
+   * @see        #putBack(Integer)
+   */
+  public void release(int argb) {
+    Magazine  magazine;
+    int       rgb;
+    int       index;
+    rgb = argb & 0xffffff;
+    index = table.indexOfRgb(rgb);
+    if (index < 0)
+      throw new NoSuchElementException("Unknown RGB value passed to " +
+                                       "put back routine - " +
+                                       String.format("0x%06x", rgb));
+    if (!state.compareAndSet(index, BUSY, FREE))
+      throw new UnsupportedOperationException("Color value already exists in pool - " +
+                                              String.format("0x%06x", rgb));
+    magazine = magazines.get();
+    counters.incrementAndGet(magazine.counter);
+    if (magazine.count == magazine.items.length)
+      drain(magazine);
+    magazine.items[magazine.count++] = index;
+  }
+  /*
+   * Get the number of free colors, by adding up the free color counters
+   */
+  private int freeCount() {
+    int   count = 0;
+    for(int i = 0; i < COUNTERS; i++)
+      count += counters.get(i << COUNTER_SHIFT);
+    return count;
+  }
+  /*
+   * Move up to one batch of hints from the shared bitmap into a local
+   * cache. This method returns false if the shared bitmap is empty.
+   */
+  private boolean refill(Magazine magazine) {
+    int   slot;
+    long  word;
+    long  taken;
+    long  bit;
+    for(int i = 0; i < wordCount; i++) {
+      slot = i << STRIDE_SHIFT;
+      word = shared.get(slot);
+      while (word != 0) {
+        /* Take the lowest bits of the word, up to one batch */
+        taken = 0;
+        for(int n = 0; n < BATCH && (word & ~taken) != 0; n++)
+          taken |= Long.lowestOneBit(word & ~taken);
+        if (shared.compareAndSet(slot, word, word & ~taken)) {
+          while (taken != 0) {
+            bit = Long.lowestOneBit(taken);
+            magazine.items[magazine.count++] = (i << 6) + Long.numberOfTrailingZeros(bit);
+            taken &= ~bit;
+          }
+          return true;
+        }
+        word = shared.get(slot);
+      }
+    }
+    return false;
+  }
+  /*
+   * Move one batch of hints from a full local cache back into the shared
+   * bitmap. Hints for colors that are busy are dropped.
+   */
+  private void drain(Magazine magazine) {
+    int   index;
+    int   slot;
+    long  word;
+    long  bit;
+    for(int n = 0; n < BATCH; n++) {
+      index = magazine.items[--magazine.count];
+      if (state.get(index) == BUSY)
+        continue;
+      slot = (index >>> 6) << STRIDE_SHIFT;
+      bit = 1L << index;
+      do {
+        word = shared.get(slot);
+      } while ((word & bit) == 0 && !shared.compareAndSet(slot, word, word | bit));
+    }
+  }
+}